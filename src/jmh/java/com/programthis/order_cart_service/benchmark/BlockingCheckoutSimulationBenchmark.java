@@ -0,0 +1,85 @@
+package com.programthis.order_cart_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Ráfaga de "concurrency" peticiones de checkout simuladas: dos llamadas al catálogo en paralelo (fan-out)
+// y una escritura JDBC, todas bloqueantes. Compara el pool de Tomcat con hilos de plataforma (200 hilos,
+// el máximo por defecto) frente a un hilo virtual por petición, como con spring.threads.virtual.enabled.
+// Peticiones por segundo = concurrency / tiempo medio de la operación.
+// Es una simulación en proceso (Thread.sleep en lugar de HTTP y JDBC reales): sirve para ver el efecto del techo de
+// hilos, no como prueba de carga del servicio; para eso, CheckoutLoadTest con loadtest.profiles=virtual-threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BlockingCheckoutSimulationBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long CATALOG_LATENCY_MS = 20;
+    private static final long JDBC_LATENCY_MS = 5;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"200", "1000", "5000"})
+    private int concurrency;
+
+    private ExecutorService requestExecutor;
+    private ExecutorService fanOutExecutor;
+
+    @Setup
+    public void setUp() {
+        if ("virtual".equals(threads)) {
+            requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            requestExecutor = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+            fanOutExecutor = Executors.newFixedThreadPool(16);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestExecutor.close();
+        fanOutExecutor.close();
+    }
+
+    @Benchmark
+    public int checkoutBurst() throws Exception {
+        List<Future<Integer>> requests = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            requests.add(requestExecutor.submit(this::checkout));
+        }
+        int completed = 0;
+        for (Future<Integer> request : requests) {
+            completed += request.get();
+        }
+        return completed;
+    }
+
+    private int checkout() throws Exception {
+        Future<?> first = fanOutExecutor.submit(() -> block(CATALOG_LATENCY_MS));
+        Future<?> second = fanOutExecutor.submit(() -> block(CATALOG_LATENCY_MS));
+        first.get();
+        second.get();
+        block(JDBC_LATENCY_MS);
+        return 1;
+    }
+
+    private static void block(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
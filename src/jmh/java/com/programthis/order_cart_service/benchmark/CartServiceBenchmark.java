@@ -0,0 +1,53 @@
+package com.programthis.order_cart_service.benchmark;
+
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.service.ShoppingCartService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// addProductToCart y updateProductQuantityInCart contra H2 embebido y un catálogo en memoria
+// (ServiceBenchmarkContext), según el número de líneas que ya tiene el carrito.
+// Ambos métodos cargan cart.items entero, así que el coste debe crecer con cartSize.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CartServiceBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    @Param({"1", "10", "100"})
+    private int cartSize;
+
+    private ServiceBenchmarkContext context;
+    private ShoppingCartService shoppingCartService;
+    private int quantity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new ServiceBenchmarkContext();
+        shoppingCartService = context.bean(ShoppingCartService.class);
+        context.fillCart(USER_ID, cartSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Producto que ya está en el carrito: suma cantidad a la línea existente, el carrito no crece entre invocaciones
+    @Benchmark
+    public ShoppingCart addProductToCart() {
+        return shoppingCartService.addProductToCart(USER_ID, (long) cartSize, 1);
+    }
+
+    // Alterna la cantidad para que cada invocación escriba la línea
+    @Benchmark
+    public ShoppingCart updateProductQuantityInCart() {
+        quantity = quantity % 9 + 1;
+        return shoppingCartService.updateProductQuantityInCart(USER_ID, 1L, quantity);
+    }
+}
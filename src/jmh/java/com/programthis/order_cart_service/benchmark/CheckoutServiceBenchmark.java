@@ -0,0 +1,49 @@
+package com.programthis.order_cart_service.benchmark;
+
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// createOrderFromCart contra H2 embebido y un catálogo en memoria (ServiceBenchmarkContext), según las líneas
+// del carrito: fan-out al catálogo, cálculo del total, inserción del pedido y sus líneas, acumulados de ventas
+// y vaciado del carrito. El checkout vacía el carrito, así que se rellena antes de cada invocación (fuera de la medida).
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CheckoutServiceBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    @Param({"1", "10", "50"})
+    private int lines;
+
+    private ServiceBenchmarkContext context;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new ServiceBenchmarkContext();
+        orderService = context.bean(OrderService.class);
+    }
+
+    // Level.Invocation es aceptable aquí: cada checkout tarda milisegundos, muy por encima del coste del propio hook
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        context.fillCart(USER_ID, lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createOrderFromCart() {
+        return orderService.createOrderFromCart(USER_ID, "Calle Falsa 123", "CARD");
+    }
+}
@@ -0,0 +1,70 @@
+package com.programthis.order_cart_service.benchmark;
+
+import com.programthis.order_cart_service.money.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compara el cálculo de subtotales y total de createOrderFromCart con BigDecimal (implementación anterior)
+// frente a Money en céntimos. Ejecutar con -prof gc (ya incluido en el perfil jmh) para ver gc.alloc.rate.norm.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutTotalBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int lines;
+
+    private BigDecimal[] prices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new BigDecimal[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            quantities[i] = 1 + random.nextInt(10);
+        }
+    }
+
+    // Camino anterior: multiply(valueOf(quantity)) por línea y add acumulado
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal subtotal = prices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            total = total.add(subtotal);
+        }
+        return total;
+    }
+
+    // Camino actual: aritmética en long, conversión a BigDecimal sólo del total
+    @Benchmark
+    public BigDecimal moneyTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(Money.of(prices[i], quantities[i]));
+        }
+        return total.toBigDecimal();
+    }
+
+    // Como en createOrderFromCart, materializando también el subtotal de cada línea para la entidad
+    @Benchmark
+    public BigDecimal moneyTotalWithLineSubtotals(Blackhole blackhole) {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            Money subtotal = Money.of(prices[i], quantities[i]);
+            blackhole.consume(subtotal.toBigDecimal());
+            total = total.plus(subtotal);
+        }
+        return total.toBigDecimal();
+    }
+}
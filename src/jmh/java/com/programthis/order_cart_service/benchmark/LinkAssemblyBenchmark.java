@@ -0,0 +1,84 @@
+package com.programthis.order_cart_service.benchmark;
+
+import com.programthis.order_cart_service.controller.LinkTemplate;
+import com.programthis.order_cart_service.controller.OrderController;
+import com.programthis.order_cart_service.controller.ShoppingCartController;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+// Coste por respuesta de los enlaces HATEOAS: linkTo(methodOn(...)) (implementación anterior)
+// frente a LinkTemplate precalculado. Un carrito lleva tres enlaces; un listado de pedidos dos por pedido.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkAssemblyBenchmark {
+
+    private static final LinkTemplate CART = LinkTemplate.of(ShoppingCartController.class, "getOrCreateCart", Long.class);
+    private static final LinkTemplate ADD_ITEM = LinkTemplate.of(ShoppingCartController.class, "addProductToCart", Long.class, Long.class, Integer.class, String.class, String.class);
+    private static final LinkTemplate CLEAR_CART = LinkTemplate.of(ShoppingCartController.class, "clearCart", Long.class, String.class, String.class);
+    private static final LinkTemplate ORDER = LinkTemplate.of(OrderController.class, "getOrderById", Long.class);
+    private static final LinkTemplate USER_ORDERS = LinkTemplate.of(OrderController.class, "getOrdersByUserId", Long.class, Boolean.class);
+
+    @Param({"20"})
+    private int ordersPerPage;
+
+    private final Long userId = 42L;
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts/42");
+        request.setServerName("localhost");
+        request.setServerPort(8083);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public void cartLinksMethodOn(Blackhole blackhole) {
+        blackhole.consume(linkTo(methodOn(ShoppingCartController.class).getOrCreateCart(userId)).withSelfRel());
+        blackhole.consume(linkTo(methodOn(ShoppingCartController.class).addProductToCart(userId, null, null, null, null)).withRel("add-item"));
+        blackhole.consume(linkTo(methodOn(ShoppingCartController.class).clearCart(userId, null, null)).withRel("clear-cart"));
+    }
+
+    @Benchmark
+    public void cartLinksTemplate(Blackhole blackhole) {
+        String baseUri = LinkTemplate.currentBaseUri();
+        blackhole.consume(CART.toLink(baseUri, IanaLinkRelations.SELF, userId));
+        blackhole.consume(ADD_ITEM.toLink(baseUri, LinkRelation.of("add-item"), userId, null, null));
+        blackhole.consume(CLEAR_CART.toLink(baseUri, LinkRelation.of("clear-cart"), userId));
+    }
+
+    @Benchmark
+    public void orderListLinksMethodOn(Blackhole blackhole) {
+        for (long orderId = 1; orderId <= ordersPerPage; orderId++) {
+            blackhole.consume(linkTo(methodOn(OrderController.class).getOrderById(orderId)).withSelfRel());
+            blackhole.consume(linkTo(methodOn(OrderController.class).getOrdersByUserId(userId, null)).withRel("user-orders"));
+        }
+    }
+
+    @Benchmark
+    public void orderListLinksTemplate(Blackhole blackhole) {
+        String baseUri = LinkTemplate.currentBaseUri();
+        for (long orderId = 1; orderId <= ordersPerPage; orderId++) {
+            blackhole.consume(ORDER.toLink(baseUri, IanaLinkRelations.SELF, orderId));
+            blackhole.consume(USER_ORDERS.toLink(baseUri, LinkRelation.of("user-orders"), userId, null));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.programthis.order_cart_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.programthis.order_cart_service.dto.OrderResponse;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Serialización de un pedido: entidad JPA (implementación anterior) frente a OrderResponse,
+// con y sin Blackbird. Con -prof gc se compara además gc.alloc.rate.norm por respuesta.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int lines;
+
+    private ObjectMapper reflectionMapper;
+    private ObjectMapper blackbirdMapper;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        reflectionMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        blackbirdMapper = reflectionMapper.copy().registerModule(new BlackbirdModule());
+
+        order = new Order();
+        order.setId(1L);
+        order.setUserId(42L);
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus("PENDING");
+        order.setShippingAddress("Calle Falsa 123");
+        order.setPaymentMethod("Credit Card");
+        order.setTotalAmount(new BigDecimal("0.00"));
+        for (int i = 0; i < lines; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i);
+            item.setProductId(1000L + i);
+            item.setProductName("Producto " + i);
+            item.setQuantity(2);
+            item.setUnitPrice(new BigDecimal("19.99"));
+            item.setSubtotal(new BigDecimal("39.98"));
+            item.setCreatedAt(LocalDateTime.now());
+            item.setUpdatedAt(LocalDateTime.now());
+            order.addOrderItem(item);
+        }
+    }
+
+    @Benchmark
+    public byte[] entityReflection() throws Exception {
+        return reflectionMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] responseRecordReflection() throws Exception {
+        return reflectionMapper.writeValueAsBytes(OrderResponse.from(order));
+    }
+
+    @Benchmark
+    public byte[] responseRecordBlackbird() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(OrderResponse.from(order));
+    }
+}
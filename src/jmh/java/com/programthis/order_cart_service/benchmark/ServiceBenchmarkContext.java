@@ -0,0 +1,90 @@
+package com.programthis.order_cart_service.benchmark;
+
+import com.programthis.order_cart_service.OrderCartServiceApplication;
+import com.programthis.order_cart_service.client.ProductCatalogServiceClient;
+import com.programthis.order_cart_service.dto.ProductDto;
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.CartItemRepository;
+import com.programthis.order_cart_service.service.ShoppingCartService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Arranca la aplicación completa sobre H2 en memoria (modo MySQL) con un catálogo en memoria en lugar de
+// ProductCatalogServiceClient, para medir los servicios con JPA, transacciones y CatalogFanOut reales
+// pero sin red ni MySQL. Un contexto por trial de JMH.
+final class ServiceBenchmarkContext implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    ServiceBenchmarkContext() {
+        context = new SpringApplicationBuilder(OrderCartServiceApplication.class, StubCatalog.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.allow-bean-definition-overriding=true",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "orders.archive.enabled=false",
+                        "logging.level.org.springframework=WARN",
+                        "logging.level.org.hibernate=WARN")
+                .run();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Deja el carrito del usuario con "lines" líneas (productos 1..lines), sin pasar por el servicio
+    void fillCart(long userId, int lines) {
+        ShoppingCart cart = bean(ShoppingCartService.class).getOrCreateShoppingCart(userId);
+        CartItemRepository cartItemRepository = bean(CartItemRepository.class);
+        cartItemRepository.deleteAllInBatch(cartItemRepository.findByCartId(cart.getId()));
+        List<CartItem> items = new ArrayList<>(lines);
+        for (long productId = 1; productId <= lines; productId++) {
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProductId(productId);
+            item.setQuantity(1 + (int) (productId % 5));
+            item.setPriceAtAddition(StubCatalog.priceOf(productId));
+            items.add(item);
+        }
+        cartItemRepository.saveAll(items);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    // Sin @Configuration a propósito: se registra como fuente de la aplicación y el escaneo de componentes no la ve.
+    // Su bean sustituye al ProductCatalogServiceClient escaneado (mismo nombre).
+    static class StubCatalog {
+
+        static BigDecimal priceOf(long productId) {
+            return BigDecimal.valueOf(100 + productId * 37 % 10_000, 2);
+        }
+
+        @Bean
+        ProductCatalogServiceClient productCatalogServiceClient() {
+            return new ProductCatalogServiceClient(null, new SimpleMeterRegistry()) {
+                @Override
+                public Optional<ProductDto> getProductById(Long productId) {
+                    return Optional.of(new ProductDto(productId, "Producto " + productId, null, priceOf(productId), 1_000));
+                }
+            };
+        }
+    }
+}
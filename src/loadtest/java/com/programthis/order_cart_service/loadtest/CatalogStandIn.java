@@ -0,0 +1,76 @@
+package com.programthis.order_cart_service.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Sustituto local del Product Catalog Service: GET /api/products/{id} devuelve un producto en JSON para
+// cualquier id entre 1 y "products" (404 para el resto), con una latencia fija que simula la red y el catálogo real.
+// Un hilo virtual por petición, para que el sustituto nunca sea el cuello de botella.
+final class CatalogStandIn implements AutoCloseable {
+
+    private static final String PATH = "/api/products/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int products;
+    private final long latencyMillis;
+
+    CatalogStandIn(int products, long latencyMillis) throws IOException {
+        this.products = products;
+        this.latencyMillis = latencyMillis;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    static BigDecimal priceOf(long productId) {
+        return BigDecimal.valueOf(100 + productId * 37 % 10_000, 2);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            long productId;
+            try {
+                productId = Long.parseLong(exchange.getRequestURI().getPath().substring(PATH.length()));
+            } catch (NumberFormatException e) {
+                productId = -1;
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (!"GET".equals(exchange.getRequestMethod()) || productId < 1 || productId > products) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = ("{\"id\":" + productId + ",\"name\":\"Producto " + productId + "\",\"price\":" + priceOf(productId)
+                    + ",\"stockQuantity\":1000}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
@@ -0,0 +1,312 @@
+package com.programthis.order_cart_service.loadtest;
+
+import com.programthis.order_cart_service.OrderCartServiceApplication;
+import com.programthis.order_cart_service.loadtest.TrafficMix.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Prueba de carga con tasa de llegada fija (modelo abierto) sobre la mezcla de tráfico del checkout.
+// Arranca la aplicación sobre H2 en memoria (o la base de datos de loadtest.datasource-url) con CatalogStandIn como
+// catálogo, o ataca una instancia ya levantada si se indica loadtest.target-url.
+//
+// Las peticiones se programan en instantes fijos (inicio + i / rate) y cada una sale en su propio hilo virtual,
+// así una respuesta lenta no retrasa las siguientes. La latencia se mide desde el instante programado y no desde el
+// envío real (corrección de la omisión coordinada): si el generador o el servidor se atascan, la espera cuenta.
+// También se informa de la latencia sin corregir (desde el envío) para comparar.
+//
+// Con la misma semilla, la secuencia de operaciones, usuarios y productos es idéntica entre ejecuciones.
+public final class CheckoutLoadTest {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String CHECKOUT_BODY = "{\"shippingAddress\":\"Calle Falsa 123\",\"paymentMethod\":\"CARD\"}";
+    // Producto con el que arranca cada carrito; update siempre trabaja sobre él
+    private static final long BASE_PRODUCT_ID = 1L;
+
+    private final String baseUrl;
+    private final TrafficMix mix;
+    private final int rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int users;
+    private final int products;
+    private final long seed;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    private CheckoutLoadTest(String baseUrl, TrafficMix mix, int rate, Duration warmup, Duration duration,
+                             int users, int products, long seed, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.rate = rate;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.users = users;
+        this.products = products;
+        this.seed = seed;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        TrafficMix mix = TrafficMix.parse(property("loadtest.mix", "get:50,add:30,update:15,checkout:5"));
+        int rate = Integer.parseInt(property("loadtest.rate", "200"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(property("loadtest.warmup-seconds", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(property("loadtest.duration-seconds", "60")));
+        int users = Integer.parseInt(property("loadtest.users", "1000"));
+        int products = Integer.parseInt(property("loadtest.products", "200"));
+        long seed = Long.parseLong(property("loadtest.seed", "42"));
+        long catalogLatencyMs = Long.parseLong(property("loadtest.catalog-latency-ms", "5"));
+        Duration requestTimeout = Duration.ofSeconds(Long.parseLong(property("loadtest.request-timeout-seconds", "30")));
+        String targetUrl = property("loadtest.target-url", "");
+        String reportFile = property("loadtest.report-file", "");
+
+        try (CatalogStandIn catalog = new CatalogStandIn(products, catalogLatencyMs);
+             AppUnderTest app = targetUrl.isBlank() ? AppUnderTest.start(catalog.baseUrl()) : AppUnderTest.external(targetUrl)) {
+            CheckoutLoadTest loadTest = new CheckoutLoadTest(app.baseUrl(), mix, rate, warmup, duration,
+                    users, products, seed, requestTimeout);
+            loadTest.seedCarts();
+            loadTest.run();
+            loadTest.report(System.out);
+            if (!reportFile.isBlank()) {
+                Path path = Path.of(reportFile);
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+                    loadTest.report(out);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    // Todos los carritos empiezan con BASE_PRODUCT_ID, así update y checkout tienen sobre qué trabajar desde el principio
+    private void seedCarts() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (long userId = 1; userId <= users; userId++) {
+                long user = userId;
+                executor.submit(() -> send(addRequest(user, BASE_PRODUCT_ID, 1)));
+            }
+        }
+    }
+
+    private void run() {
+        Random random = new Random(seed);
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (warmup.toNanos() + duration.toNanos()) / periodNanos;
+        long measuredFrom = warmup.toNanos() / periodNanos;
+        System.out.printf("Carga: %d pet/s durante %ds (+%ds de calentamiento), mezcla %s, %d usuarios, contra %s%n",
+                rate, duration.toSeconds(), warmup.toSeconds(), mix, users, baseUrl);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < total; i++) {
+                Operation operation = mix.next(random);
+                long userId = 1 + random.nextInt(users);
+                long productId = 1 + random.nextInt(products);
+                int quantity = 1 + random.nextInt(5);
+                long intendedStart = start + i * periodNanos;
+                boolean measured = i >= measuredFrom;
+
+                long wait;
+                while ((wait = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.submit(() -> execute(operation, userId, productId, quantity, intendedStart, measured));
+            }
+        }
+    }
+
+    private void execute(Operation operation, long userId, long productId, int quantity, long intendedStart, boolean measured) {
+        HttpRequest request = switch (operation) {
+            case GET -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/carts/" + userId)).GET().build();
+            case ADD -> addRequest(userId, productId, quantity);
+            case UPDATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/carts/" + userId + "/items/" + BASE_PRODUCT_ID
+                    + "?newQuantity=" + quantity)).PUT(HttpRequest.BodyPublishers.noBody()).build();
+            case CHECKOUT -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/" + userId + "/createFromCart"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(CHECKOUT_BODY))
+                    .build();
+        };
+        long sent = System.nanoTime();
+        int status = send(request);
+        long end = System.nanoTime();
+        if (measured) {
+            stats.get(operation).record(status, end - intendedStart, end - sent);
+        }
+        // Tras un checkout el carrito queda vacío: se repone la línea base fuera de la medida para mantener el estado estable
+        if (operation == Operation.CHECKOUT && status / 100 == 2) {
+            send(addRequest(userId, BASE_PRODUCT_ID, 1));
+        }
+    }
+
+    private HttpRequest addRequest(long userId, long productId, int quantity) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/carts/" + userId + "/items?productId=" + productId
+                + "&quantity=" + quantity)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    // Código HTTP, o 0 si la petición no obtuvo respuesta (timeout, conexión rechazada...)
+    private int send(HttpRequest request) {
+        try {
+            HttpRequest withTimeout = HttpRequest.newBuilder(request, (name, value) -> true).timeout(requestTimeout).build();
+            return httpClient.send(withTimeout, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private void report(PrintStream out) {
+        double seconds = duration.toNanos() / 1e9;
+        out.printf("%n%-9s %9s %9s %9s %9s %9s %9s %9s %11s  %s%n",
+                "operación", "total", "pet/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "p99 s/c ms", "códigos");
+        Histogram allCorrected = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Histogram allUncorrected = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Map<Integer, Long> allStatuses = new TreeMap<>();
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            if (operationStats.corrected.getTotalCount() == 0) {
+                continue;
+            }
+            printRow(out, entry.getKey().key(), operationStats.corrected, operationStats.uncorrected,
+                    operationStats.statuses(), seconds);
+            allCorrected.add(operationStats.corrected);
+            allUncorrected.add(operationStats.uncorrected);
+            operationStats.statuses().forEach((status, count) -> allStatuses.merge(status, count, Long::sum));
+        }
+        printRow(out, "total", allCorrected, allUncorrected, allStatuses, seconds);
+        out.println("Latencias desde el instante programado (corregidas por omisión coordinada); "
+                + "\"p99 s/c\" es el p99 medido desde el envío real. Código 0 = sin respuesta.");
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram corrected, Histogram uncorrected,
+                                 Map<Integer, Long> statuses, double seconds) {
+        List<String> values = new ArrayList<>();
+        for (double percentile : PERCENTILES) {
+            values.add(millis(corrected.getValueAtPercentile(percentile)));
+        }
+        out.printf("%-9s %9d %9.1f %9s %9s %9s %9s %9s %11s  %s%n",
+                name, corrected.getTotalCount(), corrected.getTotalCount() / seconds,
+                values.get(0), values.get(1), values.get(2), values.get(3), millis(corrected.getMaxValue()),
+                millis(uncorrected.getValueAtPercentile(99)), statuses);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private static final class OperationStats {
+
+        private final Histogram corrected = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final Histogram uncorrected = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(int status, long correctedNanos, long uncorrectedNanos) {
+            corrected.recordValue(Math.min(correctedNanos, HIGHEST_TRACKABLE_NANOS));
+            uncorrected.recordValue(Math.min(uncorrectedNanos, HIGHEST_TRACKABLE_NANOS));
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        Map<Integer, Long> statuses() {
+            Map<Integer, Long> snapshot = new TreeMap<>();
+            statuses.forEach((status, count) -> snapshot.put(status, count.sum()));
+            return snapshot;
+        }
+    }
+
+    // La aplicación bajo prueba: arrancada aquí (H2 o loadtest.datasource-url) o una instancia externa
+    private record AppUnderTest(String baseUrl, ConfigurableApplicationContext context) implements AutoCloseable {
+
+        static AppUnderTest external(String baseUrl) {
+            return new AppUnderTest(baseUrl, null);
+        }
+
+        static AppUnderTest start(String catalogUrl) {
+            String datasourceUrl = property("loadtest.datasource-url", "");
+            List<String> properties = new ArrayList<>(List.of(
+                    "server.port=0",
+                    "product-catalog-service.url=" + catalogUrl,
+                    "product-catalog-service.accept=application/json",
+                    "orders.archive.enabled=false",
+                    "spring.jpa.show-sql=false",
+                    "logging.level.org.springframework=WARN",
+                    "logging.level.org.hibernate=WARN"));
+            if (datasourceUrl.isBlank()) {
+                properties.addAll(List.of(
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        // Las migraciones son SQL de MySQL; en H2 el esquema lo genera Hibernate
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop"));
+            } else {
+                // Base de datos compatible con MySQL (p. ej. un contenedor local)
+                properties.addAll(List.of(
+                        "spring.datasource.url=" + datasourceUrl,
+                        "spring.datasource.username=" + property("loadtest.datasource-username", "root"),
+                        "spring.datasource.password=" + property("loadtest.datasource-password", "")));
+            }
+            // Perfiles de la aplicación, p. ej. virtual-threads para comparar con los hilos de plataforma
+            String[] profiles = Arrays.stream(property("loadtest.profiles", "").split(","))
+                    .map(String::trim)
+                    .filter(profile -> !profile.isEmpty())
+                    .toArray(String[]::new);
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderCartServiceApplication.class)
+                    .profiles(profiles)
+                    .properties(properties.toArray(new String[0]))
+                    .run();
+            String port = context.getEnvironment().getProperty("local.server.port");
+            return new AppUnderTest("http://localhost:" + port, context);
+        }
+
+        @Override
+        public void close() {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+}
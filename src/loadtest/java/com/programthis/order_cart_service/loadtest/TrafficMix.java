@@ -0,0 +1,86 @@
+package com.programthis.order_cart_service.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+// Reparto de operaciones de la carga, p. ej. "get:50,add:30,update:15,checkout:5" (pesos relativos, no hace falta que sumen 100)
+final class TrafficMix {
+
+    enum Operation {
+        GET("get"),           // GET /api/carts/{userId}
+        ADD("add"),           // POST /api/carts/{userId}/items?productId=&quantity=
+        UPDATE("update"),     // PUT /api/carts/{userId}/items/{productId}?newQuantity=
+        CHECKOUT("checkout"); // POST /api/orders/{userId}/createFromCart
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        String key() {
+            return key;
+        }
+
+        static Operation fromKey(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equalsIgnoreCase(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Operación desconocida en loadtest.mix: " + key);
+        }
+    }
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private TrafficMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("loadtest.mix no tiene ninguna operación con peso");
+        }
+    }
+
+    static TrafficMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrada inválida en loadtest.mix (se espera operación:peso): " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Peso negativo en loadtest.mix: " + entry);
+            }
+            weights.merge(Operation.fromKey(parts[0].trim()), weight, Integer::sum);
+        }
+        return new TrafficMix(weights);
+    }
+
+    Operation next(Random random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        weights.forEach((operation, weight) -> sb.append(sb.isEmpty() ? "" : ",").append(operation.key()).append(':').append(weight));
+        return sb.toString();
+    }
+}
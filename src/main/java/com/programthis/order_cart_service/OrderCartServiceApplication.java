@@ -2,12 +2,22 @@ package com.programthis.order_cart_service;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
+import com.programthis.order_cart_service.config.NativeHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeHints.class)
 @OpenAPIDefinition(info = @Info(title = "Order and Cart Service API", version = "1.0", description = "API para gestionar pedidos y carritos de compra."))
 public class OrderCartServiceApplication {
 
@@ -15,8 +25,17 @@ public class OrderCartServiceApplication {
         SpringApplication.run(OrderCartServiceApplication.class, args);
     }
 
+    // Cliente HTTP del JDK: bloquea sin fijar el hilo portador cuando la petición corre en un hilo virtual.
+    // Sin timeout de lectura un catálogo colgado retendría el hilo (y el cupo de CatalogFanOut) indefinidamente
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(@Value("${product-catalog-service.connect-timeout-ms:5000}") long connectTimeoutMs,
+                                     @Value("${product-catalog-service.read-timeout-ms:5000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
     }
 }
\ No newline at end of file
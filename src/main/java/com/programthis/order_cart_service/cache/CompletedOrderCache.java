@@ -0,0 +1,319 @@
+package com.programthis.order_cart_service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programthis.order_cart_service.dto.Versioned;
+import com.programthis.order_cart_service.web.ETags;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Caché de pedidos en estado final (entregados, cancelados...) ya serializados a HAL JSON.
+// Los bytes se guardan fuera del heap para no aumentar el trabajo del GC; en el heap sólo queda el índice.
+// Toda la memoria nativa es un único bloque de orders.completed-cache.max-bytes (DirectArena) que se reserva al
+// arrancar y se reparte entre las entradas; expulsión LRU cuando no queda sitio.
+@Component
+public class CompletedOrderCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletedOrderCache.class);
+
+    // Máximo de pedidos invalidados que se recuerdan; basta con cubrir las lecturas en vuelo
+    private static final int MAX_TOMBSTONES = 10_000;
+
+    @Value("${orders.completed-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${orders.completed-cache.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    @Value("${orders.completed-cache.final-statuses:DELIVERED,CANCELLED}")
+    private Set<String> finalStatuses = Set.of("DELIVERED", "CANCELLED");
+
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+    private volatile ObjectMapper halObjectMapper;
+
+    // Orden de acceso para la expulsión LRU; protegido por el monitor de la propia instancia
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+    private DirectArena arena;
+
+    // Versión mínima aceptable por pedido tras una invalidación (Long.MAX_VALUE si se borró).
+    // Evita que una lectura anterior al cambio vuelva a cachear el estado viejo después del evict
+    private final LinkedHashMap<Long, Long> tombstones = new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_TOMBSTONES;
+        }
+    };
+
+    // baseUri: los enlaces HAL son absolutos, así que sólo se sirve la entrada al mismo host/contexto.
+    // offset/length: posición de los bytes en la arena. version/eTag: los de la respuesta original (null si no es
+    // versionada). readers/removed: el bloque sólo se reutiliza cuando la entrada ya no está y nadie la está leyendo
+    private static final class Entry {
+        private final String baseUri;
+        private final int offset;
+        private final int length;
+        private final Long version;
+        private final String eTag;
+        private int readers;
+        private boolean removed;
+
+        private Entry(String baseUri, int offset, int length, Long version, String eTag) {
+            this.baseUri = baseUri;
+            this.offset = offset;
+            this.length = length;
+            this.version = version;
+            this.eTag = eTag;
+        }
+    }
+
+    // Bytes JSON de una entrada, de sólo lectura y posicionados al inicio. Hay que cerrarlo al terminar de leerlos:
+    // hasta entonces su bloque de la arena no se reutiliza aunque la entrada se expulse
+    public record CachedJson(ByteBuffer json, Runnable release) implements AutoCloseable {
+        @Override
+        public void close() {
+            release.run();
+        }
+    }
+
+    @Autowired
+    public CompletedOrderCache(ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    // Reserva la memoria de la caché al arrancar, no con el primer pedido cacheado
+    @PostConstruct
+    synchronized void reserveArena() {
+        if (enabled) {
+            arena();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isFinalStatus(String status) {
+        return status != null && finalStatuses.contains(status);
+    }
+
+    // Bytes JSON cacheados del pedido; el llamante debe cerrar el resultado (try-with-resources)
+    public Optional<CachedJson> get(Long orderId, String baseUri) {
+        if (!enabled || orderId == null || baseUri == null) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            Entry entry = entries.get(orderId);
+            if (entry == null || !entry.baseUri.equals(baseUri)) {
+                return Optional.empty();
+            }
+            entry.readers++;
+            boolean[] released = new boolean[1];
+            return Optional.of(new CachedJson(arena.view(entry.offset, entry.length), () -> {
+                synchronized (this) {
+                    if (!released[0]) {
+                        released[0] = true;
+                        entry.readers--;
+                        freeIfUnused(entry);
+                    }
+                }
+            }));
+        }
+    }
+
+    // ETag de la entrada cacheada, si la hay
+    public Optional<String> getETag(Long orderId) {
+        if (!enabled || orderId == null) {
+            return Optional.empty();
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(orderId);
+        }
+        return entry == null ? Optional.empty() : Optional.ofNullable(entry.eTag);
+    }
+
+    // Serializa y guarda la representación si el pedido ya no puede cambiar
+    public void putIfCompleted(Long orderId, String status, EntityModel<?> representation) {
+        if (!enabled || orderId == null || !isFinalStatus(status)) {
+            return;
+        }
+        String baseUri = currentBaseUri();
+        if (baseUri == null) {
+            return;
+        }
+        ObjectMapper mapper = halObjectMapper();
+        if (mapper == null) {
+            return;
+        }
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(representation);
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudo serializar el pedido {} para la caché: {}", orderId, e.getMessage());
+            return;
+        }
+        if (json.length > Math.min(maxBytes, DirectArena.MAX_BLOCK)) {
+            return;
+        }
+        Long version = representation.getContent() instanceof Versioned versioned ? versioned.version() : null;
+        String eTag = version != null ? ETags.of(version) : null;
+
+        synchronized (this) {
+            if (isStale(orderId, version)) {
+                return;
+            }
+            remove(orderId);
+            int blockSize = DirectArena.blockSize(json.length);
+            while (usedBytes + blockSize > maxBytes && !entries.isEmpty()) {
+                removeEldest();
+            }
+            DirectArena memory = arena();
+            int offset = memory.allocate(json.length);
+            // Con espacio libre pero fragmentado (o bloques que aún se están leyendo) se siguen expulsando entradas
+            while (offset < 0 && !entries.isEmpty()) {
+                removeEldest();
+                offset = memory.allocate(json.length);
+            }
+            if (offset < 0) {
+                return;
+            }
+            memory.write(offset, json);
+            entries.put(orderId, new Entry(baseUri, offset, json.length, version, eTag));
+            usedBytes += blockSize;
+        }
+    }
+
+    // Invalida un pedido borrado: ninguna representación suya vuelve a cachearse
+    public void evict(Long orderId) {
+        evict(orderId, () -> null);
+    }
+
+    // Invalida la entrada ya y, si hay transacción activa, otra vez tras el commit. committedVersion
+    // se consulta tras el commit (la versión la fija el flush) y desde entonces sólo se aceptan
+    // representaciones de esa versión o posteriores, aunque la lectura empezara antes del cambio
+    public void evict(Long orderId, Supplier<Long> committedVersion) {
+        remove(orderId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tombstone(orderId, committedVersion.get());
+                }
+            });
+        } else {
+            tombstone(orderId, committedVersion.get());
+        }
+    }
+
+    // Host y contexto de la petición en curso, o null fuera de una petición HTTP
+    public static String currentBaseUri() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void remove(Long orderId) {
+        Entry removed = entries.remove(orderId);
+        if (removed != null) {
+            release(removed);
+        }
+    }
+
+    private void removeEldest() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        Entry removed = eldest.next();
+        eldest.remove();
+        release(removed);
+    }
+
+    private void release(Entry entry) {
+        usedBytes -= DirectArena.blockSize(entry.length);
+        entry.removed = true;
+        freeIfUnused(entry);
+    }
+
+    private void freeIfUnused(Entry entry) {
+        if (entry.removed && entry.readers == 0) {
+            arena.free(entry.offset, entry.length);
+        }
+    }
+
+    private DirectArena arena() {
+        if (arena == null) {
+            arena = new DirectArena(maxBytes);
+        }
+        return arena;
+    }
+
+    // Quita la entrada y recuerda la versión mínima aceptable (null = pedido borrado)
+    private synchronized void tombstone(Long orderId, Long minVersion) {
+        remove(orderId);
+        long floor = minVersion != null ? minVersion : Long.MAX_VALUE;
+        Long previous = tombstones.remove(orderId);
+        tombstones.put(orderId, previous != null ? Math.max(previous, floor) : floor);
+    }
+
+    // Una representación es obsoleta si es anterior a la última invalidación o a la ya cacheada;
+    // sin versión no se puede comparar, así que sólo se acepta si el pedido no se ha invalidado
+    private boolean isStale(Long orderId, Long version) {
+        Long floor = tombstones.get(orderId);
+        if (floor != null && (version == null || version < floor)) {
+            return true;
+        }
+        Entry current = entries.get(orderId);
+        return current != null && current.version != null && version != null && version < current.version;
+    }
+
+    // Usa el mismo ObjectMapper que el conversor HAL de Spring MVC para que los bytes
+    // cacheados sean idénticos a la respuesta normal
+    private ObjectMapper halObjectMapper() {
+        ObjectMapper mapper = halObjectMapper;
+        if (mapper == null) {
+            RequestMappingHandlerAdapter adapter = handlerAdapter.getIfAvailable();
+            if (adapter == null) {
+                return null;
+            }
+            for (HttpMessageConverter<?> converter : adapter.getMessageConverters()) {
+                if (converter instanceof AbstractJackson2HttpMessageConverter jacksonConverter
+                        && jacksonConverter.canWrite(EntityModel.class, MediaTypes.HAL_JSON)) {
+                    mapper = jacksonConverter.getObjectMapper();
+                    break;
+                }
+            }
+            halObjectMapper = mapper;
+        }
+        return mapper;
+    }
+}
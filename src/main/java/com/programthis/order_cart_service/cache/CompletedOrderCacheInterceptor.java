@@ -0,0 +1,119 @@
+package com.programthis.order_cart_service.cache;
+
+import com.programthis.order_cart_service.web.BinaryMediaTypes;
+import com.programthis.order_cart_service.web.VaryHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Atiende GET /api/orders/{orderId} desde CompletedOrderCache sin pasar por el controlador,
+// copiando los bytes JSON directamente al stream de la respuesta
+@Component
+public class CompletedOrderCacheInterceptor implements HandlerInterceptor {
+
+    private final CompletedOrderCache completedOrderCache;
+
+    @Autowired
+    public CompletedOrderCacheInterceptor(CompletedOrderCache completedOrderCache) {
+        this.completedOrderCache = completedOrderCache;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!completedOrderCache.isEnabled() || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        Long orderId = orderIdFrom(request);
+        if (orderId == null) {
+            return true;
+        }
+        Optional<MediaType> contentType = negotiatedJsonType(request);
+        if (contentType.isEmpty()) {
+            return true;
+        }
+        Optional<CompletedOrderCache.CachedJson> cached = completedOrderCache.get(orderId, CompletedOrderCache.currentBaseUri());
+        if (cached.isEmpty()) {
+            return true;
+        }
+
+        // Los bytes están en la arena de la caché: su bloque no se reutiliza hasta cerrar cachedJson
+        try (CompletedOrderCache.CachedJson cachedJson = cached.get()) {
+            ByteBuffer json = cachedJson.json();
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.get().toString());
+            response.setContentLength(json.remaining());
+            completedOrderCache.getETag(orderId).ifPresent(eTag -> response.setHeader(HttpHeaders.ETAG, eTag));
+            // El controlador habría negociado el formato según Accept
+            VaryHeaders.add(response, HttpHeaders.ACCEPT);
+            WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+            while (json.hasRemaining()) {
+                channel.write(json);
+            }
+            response.flushBuffer();
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Long orderIdFrom(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(variables instanceof Map<?, ?> map) || map.size() != 1) {
+            return null;
+        }
+        Object orderId = ((Map<String, String>) map).get("orderId");
+        if (orderId == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(orderId.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Sólo se sirve desde la caché si el cliente acepta HAL JSON o JSON (lo que produciría el controlador).
+    // Si prefiere CBOR/Smile (igual o más calidad que JSON) la petición sigue al controlador
+    private static Optional<MediaType> negotiatedJsonType(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return Optional.of(MediaTypes.HAL_JSON);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        double halJson = 0;
+        double plainJson = 0;
+        double binary = 0;
+        for (MediaType mediaType : accepted) {
+            double quality = mediaType.getQualityValue();
+            if (mediaType.includes(MediaTypes.HAL_JSON)) {
+                halJson = Math.max(halJson, quality);
+            } else if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                plainJson = Math.max(plainJson, quality);
+            } else if (BinaryMediaTypes.isBinary(mediaType)) {
+                binary = Math.max(binary, quality);
+            }
+        }
+        if (halJson > 0 && halJson > binary) {
+            return Optional.of(MediaTypes.HAL_JSON);
+        }
+        return plainJson > 0 && plainJson > binary ? Optional.of(MediaType.APPLICATION_JSON) : Optional.empty();
+    }
+}
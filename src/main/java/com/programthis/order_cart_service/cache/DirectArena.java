@@ -0,0 +1,105 @@
+package com.programthis.order_cart_service.cache;
+
+import java.nio.ByteBuffer;
+import java.util.TreeSet;
+
+// Memoria fuera del heap reservada una sola vez (un único ByteBuffer directo) y repartida en bloques con un
+// asignador buddy: cada reserva ocupa un bloque contiguo de tamaño potencia de dos y, al liberarlo, se vuelve a unir
+// con su bloque hermano si también está libre. Así la memoria nativa de la caché queda acotada por su capacidad,
+// en lugar de depender de que el GC llegue a liberar un ByteBuffer directo por entrada.
+// No es thread-safe: la usa CompletedOrderCache bajo su propio monitor
+final class DirectArena {
+
+    // Bloque más pequeño que se reserva (una entrada menor ocupa uno completo)
+    static final int MIN_BLOCK = 256;
+
+    // Bloque más grande: la memoria se divide en bloques de este tamaño y no se guarda nada mayor
+    static final int MAX_BLOCK = 1 << 20;
+
+    private final ByteBuffer memory;
+    private final int topBlock;
+    private final int topOrder;
+
+    // Desplazamientos de los bloques libres por orden (tamaño MIN_BLOCK << orden), los más bajos primero
+    private final TreeSet<Integer>[] free;
+
+    @SuppressWarnings("unchecked")
+    DirectArena(long capacity) {
+        if (capacity < MIN_BLOCK) {
+            topBlock = 0;
+            topOrder = -1;
+            memory = ByteBuffer.allocateDirect(0);
+            free = new TreeSet[0];
+            return;
+        }
+        topBlock = Integer.highestOneBit((int) Math.min(capacity, MAX_BLOCK));
+        topOrder = Integer.numberOfTrailingZeros(topBlock / MIN_BLOCK);
+        int topBlocks = (int) Math.min(capacity / topBlock, Integer.MAX_VALUE / topBlock);
+        memory = ByteBuffer.allocateDirect(topBlocks * topBlock);
+        free = new TreeSet[topOrder + 1];
+        for (int order = 0; order <= topOrder; order++) {
+            free[order] = new TreeSet<>();
+        }
+        for (int block = 0; block < topBlocks; block++) {
+            free[topOrder].add(block * topBlock);
+        }
+    }
+
+    // Bytes que ocupa de verdad una reserva de size bytes
+    static int blockSize(int size) {
+        return Math.max(MIN_BLOCK, Integer.highestOneBit(Math.max(size - 1, 1)) << 1);
+    }
+
+    int capacity() {
+        return memory.capacity();
+    }
+
+    // Desplazamiento de un bloque libre para size bytes, o -1 si no hay ninguno (o no cabe en un bloque)
+    int allocate(int size) {
+        if (size <= 0 || size > topBlock) {
+            return -1;
+        }
+        int order = order(size);
+        int available = order;
+        while (available <= topOrder && free[available].isEmpty()) {
+            available++;
+        }
+        if (available > topOrder) {
+            return -1;
+        }
+        int offset = free[available].pollFirst();
+        // Se parte el bloque hasta el tamaño pedido; las mitades derechas quedan libres
+        while (available > order) {
+            available--;
+            free[available].add(offset + (MIN_BLOCK << available));
+        }
+        return offset;
+    }
+
+    // Libera el bloque de una reserva de size bytes hecha en offset
+    void free(int offset, int size) {
+        int order = order(size);
+        while (order < topOrder) {
+            int buddy = offset ^ (MIN_BLOCK << order);
+            if (!free[order].remove(buddy)) {
+                break;
+            }
+            offset = Math.min(offset, buddy);
+            order++;
+        }
+        free[order].add(offset);
+    }
+
+    void write(int offset, byte[] bytes) {
+        memory.put(offset, bytes);
+    }
+
+    // Vista de sólo lectura de length bytes desde offset, posicionada al inicio
+    ByteBuffer view(int offset, int length) {
+        return memory.slice(offset, length).asReadOnlyBuffer();
+    }
+
+    private static int order(int size) {
+        return Integer.numberOfTrailingZeros(blockSize(size) / MIN_BLOCK);
+    }
+}
@@ -0,0 +1,59 @@
+package com.programthis.order_cart_service.client;
+
+import com.programthis.order_cart_service.metrics.RequestTimings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Ejecuta en paralelo las llamadas bloqueantes al catálogo (p. ej. una por línea al crear un pedido).
+// Con spring.threads.virtual.enabled usa un hilo virtual por llamada; si no, un pool acotado de hilos de plataforma.
+// No se expone como bean Executor para no desplazar el applicationTaskExecutor de Spring Boot.
+@Component
+public class CatalogFanOut implements AutoCloseable {
+
+    private final Executor executor;
+    private final Semaphore inFlight;
+
+    @Autowired
+    public CatalogFanOut(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                         @Value("${product-catalog-service.fan-out.max-threads:16}") int maxThreads,
+                         @Value("${product-catalog-service.max-concurrent-requests:64}") int maxConcurrentRequests) {
+        this(virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("catalog-fan-out-", 0).factory())
+                : Executors.newFixedThreadPool(maxThreads, Thread.ofPlatform().name("catalog-fan-out-", 0).daemon(true).factory()),
+                maxConcurrentRequests);
+    }
+
+    public CatalogFanOut(Executor executor, int maxConcurrentRequests) {
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxConcurrentRequests);
+    }
+
+    // La espera por el semáforo ocurre en el hilo de la tarea: barata con hilos virtuales.
+    // La tarea hereda el desglose de tiempos de la petición que la lanza (RequestTimings)
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        RequestTimings timings = RequestTimings.current();
+        return CompletableFuture.supplyAsync(() -> {
+            inFlight.acquireUninterruptibly();
+            try (RequestTimings.Binding ignored = RequestTimings.bind(timings)) {
+                return call.get();
+            } finally {
+                inFlight.release();
+            }
+        }, executor);
+    }
+
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.close();
+        }
+    }
+}
@@ -1,37 +1,86 @@
 package com.programthis.order_cart_service.client;
 
 import com.programthis.order_cart_service.dto.ProductDto; // Crearemos este DTO
+import com.programthis.order_cart_service.metrics.RequestTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate; // Ojo, RestTemplate es síncrono
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class ProductCatalogServiceClient {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalogServiceClient.class);
+
     private final RestTemplate restTemplate;
 
+    // Latencia de cada llamada al catálogo por resultado: found, not_found o error
+    private final Timer foundTimer;
+    private final Timer notFoundTimer;
+    private final Timer errorTimer;
+
     @Value("${product-catalog-service.url}") // URL del Product Catalog Service desde application.properties
     private String productCatalogServiceUrl;
 
-    public ProductCatalogServiceClient(RestTemplate restTemplate) {
+    // Formato preferido para las respuestas del catálogo (CBOR, con JSON como alternativa si el catálogo no lo ofrece)
+    @Value("${product-catalog-service.accept:application/cbor, application/json;q=0.9}")
+    private String accept;
+
+    @Autowired
+    public ProductCatalogServiceClient(RestTemplate restTemplate, MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
+        this.foundTimer = timer(meterRegistry, "found");
+        this.notFoundTimer = timer(meterRegistry, "not_found");
+        this.errorTimer = timer(meterRegistry, "error");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("catalog.client.requests")
+                .description("Llamadas GET /api/products/{productId} al Product Catalog Service")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public Optional<ProductDto> getProductById(Long productId) {
+        long start = System.nanoTime();
+        Timer outcome = errorTimer;
         try {
             // URL del endpoint del Product Catalog Service para obtener un producto por ID
             // Ej: http://localhost:8081/api/products/{productId}
             String url = productCatalogServiceUrl + "/api/products/" + productId;
-            
-            // Realiza la llamada HTTP GET y mapea la respuesta a ProductDto
-            ProductDto product = restTemplate.getForObject(url, ProductDto.class);
+
+            // Realiza la llamada HTTP GET y mapea la respuesta a ProductDto (el conversor lo elige el Content-Type devuelto)
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.ACCEPT, accept);
+            ProductDto product = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), ProductDto.class).getBody();
+            outcome = product != null ? foundTimer : notFoundTimer;
             return Optional.ofNullable(product);
+        } catch (HttpClientErrorException.NotFound e) {
+            outcome = notFoundTimer;
+            return Optional.empty();
         } catch (Exception e) {
-            // Manejo de errores: el producto no existe, servicio no disponible, etc.
-            System.err.println("Error al obtener producto del Product Catalog Service: " + e.getMessage());
+            // Manejo de errores: servicio no disponible, respuesta inválida, etc.
+            log.warn("Error al obtener producto {} del Product Catalog Service: {}", productId, e.getMessage());
             return Optional.empty();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            outcome.record(elapsed, TimeUnit.NANOSECONDS);
+            RequestTimings timings = RequestTimings.current();
+            if (timings != null) {
+                timings.recordCatalogCall(elapsed);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.programthis.order_cart_service.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+@Configuration
+public class JacksonConfig {
+
+    // Blackbird genera accesores con LambdaMetafactory en lugar de invocar getters por reflexión.
+    // Spring Boot registra cualquier bean Module en el ObjectMapper, y el conversor HAL parte de una copia de éste.
+    // En la imagen nativa no se pueden definir clases en tiempo de ejecución: ahí Jackson se queda con la reflexión
+    // (el bean se decide al arrancar porque con AOT las condiciones se evalúan en el build, que corre en la JVM)
+    @Bean
+    public Module blackbirdModule() {
+        if (NativeDetector.inNativeImage()) {
+            return new SimpleModule("blackbird-disabled-in-native-image");
+        }
+        return new BlackbirdModule();
+    }
+}
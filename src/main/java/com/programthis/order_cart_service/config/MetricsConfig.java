@@ -0,0 +1,17 @@
+package com.programthis.order_cart_service.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Necesario para que @Timed funcione fuera de los controladores (ShoppingCartService, OrderService).
+    // Cada método público queda como un timer con las etiquetas class y method.
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
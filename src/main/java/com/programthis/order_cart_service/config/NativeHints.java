@@ -0,0 +1,79 @@
+package com.programthis.order_cart_service.config;
+
+import com.programthis.order_cart_service.controller.OrderController;
+import com.programthis.order_cart_service.controller.ShoppingCartController;
+import com.programthis.order_cart_service.dto.CartDeltaResponse;
+import com.programthis.order_cart_service.dto.CartItemResponse;
+import com.programthis.order_cart_service.dto.OrderItemResponse;
+import com.programthis.order_cart_service.dto.OrderResponse;
+import com.programthis.order_cart_service.dto.ProductDto;
+import com.programthis.order_cart_service.dto.ShoppingCartResponse;
+import com.programthis.order_cart_service.metrics.HibernateSessionMetrics;
+import com.programthis.order_cart_service.model.ArchivedOrder;
+import com.programthis.order_cart_service.model.ArchivedOrderItem;
+import com.programthis.order_cart_service.model.CartEvent;
+import com.programthis.order_cart_service.model.CartEventType;
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.CartSnapshot;
+import com.programthis.order_cart_service.model.DailySalesRollup;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.model.OrderOutboxEvent;
+import com.programthis.order_cart_service.model.ProductSalesRollup;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.replica.ReadYourWritesListener;
+import com.programthis.order_cart_service.repository.CartTotals;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import java.util.List;
+
+// Metadatos de reflexión y proxies para la imagen nativa (perfil Maven native) que Spring AOT no deduce solo.
+// Los repositorios y los métodos de los controladores ya los registra el propio AOT; aquí va lo que se usa
+// por nombre, por reflexión fuera de los beans o a través de Jackson.
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    // Entidades JPA: Hibernate las instancia y accede a los campos, y los accesores de Lombok y las
+    // retrollamadas @PrePersist/@PreUpdate (protegidas) se invocan por reflexión
+    static final List<Class<?>> ENTITIES = List.of(ShoppingCart.class, CartItem.class, Order.class, OrderItem.class,
+            ArchivedOrder.class, ArchivedOrderItem.class, DailySalesRollup.class, ProductSalesRollup.class,
+            CartEvent.class, CartSnapshot.class, OrderOutboxEvent.class);
+
+    // Tipos que Jackson serializa o deserializa: respuestas, rollups devueltos tal cual y el producto del catálogo
+    static final List<Class<?>> JSON_TYPES = List.of(ShoppingCartResponse.class, CartItemResponse.class,
+            CartDeltaResponse.class, OrderResponse.class, OrderItemResponse.class, ProductDto.class,
+            OrderController.OrderCreationRequest.class, DailySalesRollup.class, ProductSalesRollup.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES.toArray(new Class<?>[0]));
+
+        // LinkTemplate lee una vez las anotaciones y los nombres de parámetro de los métodos de los controladores
+        // (sustituye a linkTo(methodOn(...)), así que no hacen falta proxies de los controladores)
+        for (Class<?> controller : List.of(ShoppingCartController.class, OrderController.class)) {
+            hints.reflection().registerType(controller, MemberCategory.INTROSPECT_PUBLIC_METHODS);
+        }
+
+        // Hibernate crea el listener de sesión a partir de hibernate.session.events.auto
+        hints.reflection().registerType(HibernateSessionMetrics.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // Conversor del tipo de evento del carrito (@Convert en CartEvent)
+        hints.reflection().registerType(CartEventType.CodeConverter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // @EntityListeners de ShoppingCart, Order y CartEvent: Hibernate lo construye e invoca su retrollamada por reflexión
+        hints.reflection().registerType(ReadYourWritesListener.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+
+        // Proyección por interfaz de CartItemRepository (Spring Data la implementa con un proxy JDK)
+        hints.proxies().registerJdkProxy(CartTotals.class, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+    }
+}
@@ -0,0 +1,28 @@
+package com.programthis.order_cart_service.config;
+
+import com.programthis.order_cart_service.outbox.FileOrderEventSink;
+import com.programthis.order_cart_service.outbox.LogOrderEventSink;
+import com.programthis.order_cart_service.outbox.OrderEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+// Sink del outbox de pedidos según orders.outbox.sink: "log" (por defecto) o "file" (NDJSON en orders.outbox.file).
+// Cualquier otro bean OrderEventSink de la aplicación tiene prioridad sobre éste
+@Configuration(proxyBeanMethods = false)
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(OrderEventSink.class)
+    public OrderEventSink orderEventSink(@Value("${orders.outbox.sink:log}") String sink,
+                                         @Value("${orders.outbox.file:order-events.ndjson}") Path file) {
+        return switch (sink) {
+            case "log" -> new LogOrderEventSink();
+            case "file" -> new FileOrderEventSink(file);
+            default -> throw new IllegalStateException("orders.outbox.sink desconocido: " + sink + " (log o file)");
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.programthis.order_cart_service.config;
+
+import com.programthis.order_cart_service.replica.ReplicaLagMonitor;
+import com.programthis.order_cart_service.replica.ReplicaRoutingDataSource;
+import com.programthis.order_cart_service.replica.ReplicaSelector;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Réplicas de lectura: un pool HikariCP para el primario (spring.datasource.*) y otro por réplica (replicas.urls, con
+// el mismo usuario, contraseña y driver) detrás de ReplicaRoutingDataSource. Sustituye al DataSource de Spring Boot.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "replicas.enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             @Value("${replicas.urls:}") List<String> urls,
+                                                             @Value("${replicas.pool-size:10}") int replicaPoolSize,
+                                                             @Value("${spring.datasource.hikari.maximum-pool-size:10}") int primaryPoolSize,
+                                                             @Value("${replicas.max-lag-ms:2000}") long maxLagMs,
+                                                             @Value("${sharding.enabled:false}") boolean sharded,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        // Con sharding cada shard necesitaría su propio juego de réplicas: todavía no está soportado
+        if (sharded) {
+            throw new IllegalStateException("replicas.enabled=true no es compatible con sharding.enabled=true");
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("replicas.enabled=true requiere replicas.urls");
+        }
+        HikariDataSource primary = pool(properties, properties.determineUrl(), "primary", primaryPoolSize, meterRegistry);
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int replica = 0; replica < urls.size(); replica++) {
+            HikariDataSource pool = pool(properties, urls.get(replica).trim(), "replica-" + replica, replicaPoolSize, meterRegistry);
+            pool.setReadOnly(true);
+            replicas.add(pool);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, new ReplicaSelector(replicas.size(), maxLagMs));
+    }
+
+    // hikaricp.connections.* con la etiqueta pool=primary / pool=replica-N
+    private static HikariDataSource pool(DataSourceProperties properties, String url, String name, int maximumPoolSize,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(maximumPoolSize);
+        meterRegistry.ifAvailable(pool::setMetricRegistry);
+        return pool;
+    }
+
+    // El DataSource de JPA y Flyway: la conexión real se elige en la primera sentencia, no al abrir la transacción
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // Con open-in-view la sesión de Hibernate retiene por defecto la primera conexión hasta el final de la petición:
+    // una lectura en réplica seguida de una escritura escribiría en la réplica. Se devuelve al terminar cada
+    // transacción, así cada una elige primario o réplica por separado
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               @Value("${replicas.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                               @Value("${replicas.lag-column:Seconds_Behind_Source}") String lagColumn) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource.replicas(), replicaRoutingDataSource.selector(),
+                lagQuery, lagColumn);
+    }
+
+    // db.replica.lag (segundos, NaN si no se conoce) y db.replica.healthy por réplica; db.replica.reads por destino
+    // de las transacciones de sólo lectura (route=replica, read_your_writes, replica_lag)
+    @Bean
+    public MeterBinder replicaMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return registry -> {
+            ReplicaSelector selector = replicaRoutingDataSource.selector();
+            for (int replica = 0; replica < selector.replicaCount(); replica++) {
+                int index = replica;
+                Gauge.builder("db.replica.lag", selector, s -> s.lagMillis(index) < 0 ? Double.NaN : s.lagMillis(index) / 1000.0)
+                        .tag("replica", "replica-" + index)
+                        .baseUnit("seconds")
+                        .register(registry);
+                Gauge.builder("db.replica.healthy", selector, s -> s.isHealthy(index) ? 1 : 0)
+                        .tag("replica", "replica-" + index)
+                        .register(registry);
+            }
+            for (ReplicaRoutingDataSource.ReadRoute route : ReplicaRoutingDataSource.ReadRoute.values()) {
+                FunctionCounter.builder("db.replica.reads", replicaRoutingDataSource, ds -> ds.reads(route))
+                        .tag("route", route.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.programthis.order_cart_service.config;
+
+import com.programthis.order_cart_service.sharding.ShardRouter;
+import com.programthis.order_cart_service.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class ShardingConfig {
+
+    // Sin sharding (por defecto) un único shard: ShardExecutor y el interceptor no cambian nada
+    @Bean
+    public ShardRouter shardRouter(@Value("${sharding.enabled:false}") boolean enabled,
+                                   @Value("${sharding.urls:}") List<String> urls,
+                                   @Value("${sharding.virtual-nodes:128}") int virtualNodes,
+                                   @Value("${sharding.legacy-max-order-id:0}") long legacyMaxOrderId) {
+        if (!enabled) {
+            return ShardRouter.single();
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("sharding.enabled=true requiere sharding.urls");
+        }
+        return new ShardRouter(urls.size(), virtualNodes, legacyMaxOrderId);
+    }
+
+    // Un pool HikariCP por shard detrás de un DataSource de enrutado; sustituye al DataSource de spring.datasource.*
+    // (del que se toman usuario, contraseña y driver)
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    static class ShardDataSources {
+
+        @Bean
+        @Primary
+        public ShardRoutingDataSource dataSource(DataSourceProperties properties,
+                                                 @Value("${sharding.urls}") List<String> urls,
+                                                 @Value("${sharding.pool-size:10}") int poolSize,
+                                                 @Value("${sharding.session-auto-increment:true}") boolean sessionAutoIncrement,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+            List<HikariDataSource> shards = new ArrayList<>(urls.size());
+            for (int shard = 0; shard < urls.size(); shard++) {
+                HikariDataSource pool = properties.initializeDataSourceBuilder()
+                        .type(HikariDataSource.class)
+                        .url(urls.get(shard).trim())
+                        .build();
+                pool.setPoolName("shard-" + shard);
+                pool.setMaximumPoolSize(poolSize);
+                // Cada shard reparte los AUTO_INCREMENT en su propia clase de resto: el shard de un pedido sale de su ID.
+                // Sin esas variables de sesión (H2 en los tests) el incremento y el desplazamiento los fija el esquema
+                if (sessionAutoIncrement) {
+                    pool.setConnectionInitSql("SET SESSION auto_increment_increment = " + ShardRouter.ORDER_ID_STRIDE
+                            + ", auto_increment_offset = " + (shard + 1));
+                }
+                // hikaricp.connections.* con la etiqueta pool=shard-N
+                meterRegistry.ifAvailable(pool::setMetricRegistry);
+                shards.add(pool);
+            }
+            return new ShardRoutingDataSource(shards);
+        }
+
+        // Flyway aplica las migraciones en todos los shards, no sólo en el DataSource por defecto
+        @Bean
+        public FlywayMigrationStrategy shardedFlywayMigration(ShardRoutingDataSource dataSource) {
+            return flyway -> {
+                for (HikariDataSource shard : dataSource.shards()) {
+                    Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.programthis.order_cart_service.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.programthis.order_cart_service.cache.CompletedOrderCacheInterceptor;
+import com.programthis.order_cart_service.web.ConcurrencyLimitInterceptor;
+import com.programthis.order_cart_service.web.ConditionalRequestInterceptor;
+import com.programthis.order_cart_service.web.ReadYourWritesInterceptor;
+import com.programthis.order_cart_service.web.ShardRoutingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.LinkRelationProvider;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ShardRoutingInterceptor shardRoutingInterceptor;
+    private final ReadYourWritesInterceptor readYourWritesInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final ConditionalRequestInterceptor conditionalRequestInterceptor;
+    private final CompletedOrderCacheInterceptor completedOrderCacheInterceptor;
+    private final ObjectMapper objectMapper;
+    private final LinkRelationProvider linkRelationProvider;
+
+    @Autowired
+    public WebConfig(ShardRoutingInterceptor shardRoutingInterceptor,
+                     ReadYourWritesInterceptor readYourWritesInterceptor,
+                     ConcurrencyLimitInterceptor concurrencyLimitInterceptor,
+                     ConditionalRequestInterceptor conditionalRequestInterceptor,
+                     CompletedOrderCacheInterceptor completedOrderCacheInterceptor,
+                     ObjectMapper objectMapper,
+                     LinkRelationProvider linkRelationProvider) {
+        this.objectMapper = objectMapper;
+        this.linkRelationProvider = linkRelationProvider;
+        this.shardRoutingInterceptor = shardRoutingInterceptor;
+        this.readYourWritesInterceptor = readYourWritesInterceptor;
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+        this.conditionalRequestInterceptor = conditionalRequestInterceptor;
+        this.completedOrderCacheInterceptor = completedOrderCacheInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // El shard de la petición se fija primero: las peticiones condicionales ya consultan la base de datos
+        registry.addInterceptor(shardRoutingInterceptor).addPathPatterns("/api/carts/**", "/api/orders/**");
+        // Y, por lo mismo, si sus lecturas pueden ir a una réplica o tienen que ir al primario
+        registry.addInterceptor(readYourWritesInterceptor).addPathPatterns("/api/carts/**", "/api/orders/**");
+        // Después el límite de concurrencia: con el servicio saturado se responde 503 sin tocar la base de datos
+        registry.addInterceptor(concurrencyLimitInterceptor).addPathPatterns("/api/carts/**", "/api/orders/**");
+        // Después las peticiones condicionales: un 304/412 no necesita ni la caché ni el controlador
+        registry.addInterceptor(conditionalRequestInterceptor).addPathPatterns("/api/carts/**", "/api/orders/**");
+        // Sólo GET /api/orders/{orderId}; el interceptor descarta el resto de rutas
+        registry.addInterceptor(completedOrderCacheInterceptor).addPathPatterns("/api/orders/*");
+    }
+
+    // Los conversores CBOR/Smile por defecto usan un ObjectMapper propio, sin HAL ni los módulos de la aplicación.
+    // Se sustituyen por copias del ObjectMapper de la aplicación con HAL, así los enlaces salen igual que en JSON.
+    // Van al final de la lista: sin Accept explícito se sigue respondiendo HAL JSON.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(halObjectMapper(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(halObjectMapper(new SmileFactory())));
+    }
+
+    private ObjectMapper halObjectMapper(JsonFactory factory) {
+        ObjectMapper mapper = objectMapper.copyWith(factory);
+        mapper.registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                linkRelationProvider, CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+        return mapper;
+    }
+}
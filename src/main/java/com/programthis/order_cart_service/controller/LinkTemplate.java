@@ -0,0 +1,165 @@
+package com.programthis.order_cart_service.controller;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Plantilla de enlace resuelta una sola vez a partir de las anotaciones de un método de controlador.
+// Sustituye a linkTo(methodOn(...)), que por cada enlace crea un proxy, invoca el método por reflexión
+// y expande la plantilla URI; aquí por respuesta sólo se concatenan la URI base y los valores.
+// Los argumentos de toLink siguen el orden de los parámetros @PathVariable/@RequestParam del método,
+// igual que en methodOn: un @RequestParam null se anuncia como variable de plantilla ({?nombre}).
+public final class LinkTemplate {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    // literals[i] precede a la variable de ruta i; el último literal cierra la ruta
+    private final String[] literals;
+    private final String[] pathVariableNames;
+    private final int[] pathArgIndexes;
+    private final String[] queryNames;
+    private final int[] queryArgIndexes;
+    private final int argumentCount;
+
+    private LinkTemplate(String path, List<String> pathArgNames, List<String> queryArgNames, List<Integer> queryArgPositions,
+                         int argumentCount) {
+        List<String> literalParts = new ArrayList<>();
+        List<String> variableNames = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = path.indexOf('{', position)) >= 0) {
+            int close = path.indexOf('}', open);
+            literalParts.add(path.substring(position, open));
+            String variable = path.substring(open + 1, close);
+            int regex = variable.indexOf(':');
+            variableNames.add(regex >= 0 ? variable.substring(0, regex) : variable);
+            position = close + 1;
+        }
+        literalParts.add(path.substring(position));
+
+        this.literals = literalParts.toArray(new String[0]);
+        this.pathVariableNames = variableNames.toArray(new String[0]);
+        this.pathArgIndexes = new int[pathVariableNames.length];
+        for (int i = 0; i < pathVariableNames.length; i++) {
+            int index = pathArgNames.indexOf(pathVariableNames[i]);
+            if (index < 0) {
+                throw new IllegalStateException("La variable {" + pathVariableNames[i] + "} no tiene un @PathVariable en " + path);
+            }
+            pathArgIndexes[i] = index;
+        }
+        this.queryNames = queryArgNames.toArray(new String[0]);
+        this.queryArgIndexes = queryArgPositions.stream().mapToInt(Integer::intValue).toArray();
+        this.argumentCount = argumentCount;
+    }
+
+    // Resuelve la plantilla de un método de controlador (se llama una vez, normalmente en un campo static final)
+    public static LinkTemplate of(Class<?> controller, String methodName, Class<?>... parameterTypes) {
+        Method method;
+        try {
+            method = controller.getMethod(methodName, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Método de controlador no encontrado: " + controller.getSimpleName() + "." + methodName, e);
+        }
+
+        String path = firstPath(AnnotatedElementUtils.findMergedAnnotation(controller, RequestMapping.class))
+                + firstPath(AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class));
+
+        String[] discoveredNames = PARAMETER_NAMES.getParameterNames(method);
+        Parameter[] parameters = method.getParameters();
+        List<String> argNames = new ArrayList<>();
+        List<String> queryNames = new ArrayList<>();
+        List<Integer> queryPositions = new ArrayList<>();
+        for (int i = 0; i < parameters.length; i++) {
+            String fallbackName = discoveredNames != null ? discoveredNames[i] : parameters[i].getName();
+            PathVariable pathVariable = parameters[i].getAnnotation(PathVariable.class);
+            RequestParam requestParam = parameters[i].getAnnotation(RequestParam.class);
+            if (pathVariable != null) {
+                argNames.add(explicitName(pathVariable.name(), pathVariable.value(), fallbackName));
+            } else if (requestParam != null) {
+                queryNames.add(explicitName(requestParam.name(), requestParam.value(), fallbackName));
+                queryPositions.add(argNames.size());
+                argNames.add(null);
+            }
+        }
+        return new LinkTemplate(path, argNames, queryNames, queryPositions, argNames.size());
+    }
+
+    // URI base (esquema, host y contexto) de la petición en curso; se calcula una vez por respuesta.
+    // Fuera de una petición HTTP devuelve "" y los enlaces quedan relativos.
+    public static String currentBaseUri() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes)) {
+            return "";
+        }
+        return ServletUriComponentsBuilder.fromCurrentServletMapping().toUriString();
+    }
+
+    public Link toLink(String baseUri, LinkRelation relation, Object... args) {
+        return Link.of(expand(baseUri, args), relation);
+    }
+
+    public String expand(String baseUri, Object... args) {
+        if (args.length != argumentCount) {
+            throw new IllegalArgumentException("Se esperaban " + argumentCount + " argumentos y se recibieron " + args.length);
+        }
+        StringBuilder href = new StringBuilder(baseUri.length() + 64);
+        href.append(baseUri);
+        for (int i = 0; i < pathArgIndexes.length; i++) {
+            href.append(literals[i]);
+            Object value = args[pathArgIndexes[i]];
+            if (value == null) {
+                href.append('{').append(pathVariableNames[i]).append('}');
+            } else {
+                href.append(value instanceof Number ? value.toString()
+                        : UriUtils.encodePathSegment(value.toString(), StandardCharsets.UTF_8));
+            }
+        }
+        href.append(literals[literals.length - 1]);
+
+        char separator = '?';
+        StringBuilder unbound = null;
+        for (int i = 0; i < queryNames.length; i++) {
+            Object value = args[queryArgIndexes[i]];
+            if (value == null) {
+                unbound = (unbound == null ? new StringBuilder() : unbound.append(',')).append(queryNames[i]);
+                continue;
+            }
+            href.append(separator).append(queryNames[i]).append('=')
+                    .append(value instanceof Number ? value.toString()
+                            : UriUtils.encodeQueryParam(value.toString(), StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        if (unbound != null) {
+            href.append('{').append(separator).append(unbound).append('}');
+        }
+        return href.toString();
+    }
+
+    private static String firstPath(RequestMapping mapping) {
+        if (mapping == null || mapping.path().length == 0) {
+            return "";
+        }
+        return mapping.path()[0];
+    }
+
+    private static String explicitName(String name, String value, String fallback) {
+        if (!name.isEmpty()) {
+            return name;
+        }
+        return !value.isEmpty() ? value : fallback;
+    }
+}
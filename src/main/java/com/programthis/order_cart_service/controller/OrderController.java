@@ -1,7 +1,11 @@
 package com.programthis.order_cart_service.controller;
 
+import com.programthis.order_cart_service.cache.CompletedOrderCache;
+import com.programthis.order_cart_service.dto.OrderResponse;
 import com.programthis.order_cart_service.model.Order;
 import com.programthis.order_cart_service.service.OrderService;
+import com.programthis.order_cart_service.service.VersionMismatchException;
+import com.programthis.order_cart_service.web.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,50 +17,65 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @RestController
 @RequestMapping("/api/orders")
 @Tag(name = "Order Management", description = "APIs for managing customer orders")
 public class OrderController {
 
+    // Plantillas de enlaces resueltas una sola vez por método de controlador
+    private static final LinkTemplate ORDER_LINK = LinkTemplate.of(OrderController.class, "getOrderById", Long.class);
+    private static final LinkTemplate USER_ORDERS_LINK = LinkTemplate.of(OrderController.class, "getOrdersByUserId", Long.class, Boolean.class);
+    private static final LinkRelation USER_ORDERS_REL = LinkRelation.of("user-orders");
+    // Máximo de IDs por consulta múltiple; coincide con el @BatchSize de las líneas, así caben en una sola consulta
+    static final int MAX_BATCH_IDS = 100;
+
     private final OrderService orderService;
+    private final CompletedOrderCache completedOrderCache;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, CompletedOrderCache completedOrderCache) {
         this.orderService = orderService;
+        this.completedOrderCache = completedOrderCache;
     }
 
-    private EntityModel<Order> toModel(Order order) {
-        return EntityModel.of(order,
-                linkTo(methodOn(OrderController.class).getOrderById(order.getId())).withSelfRel(),
-                linkTo(methodOn(OrderController.class).getOrdersByUserId(order.getUserId())).withRel("user-orders"));
+    private EntityModel<OrderResponse> toModel(Order order) {
+        return toModel(order, LinkTemplate.currentBaseUri());
+    }
+
+    // En los listados la URI base se calcula una vez y se reutiliza para todos los pedidos
+    private EntityModel<OrderResponse> toModel(Order order, String baseUri) {
+        return EntityModel.of(OrderResponse.from(order),
+                ORDER_LINK.toLink(baseUri, IanaLinkRelations.SELF, order.getId()),
+                USER_ORDERS_LINK.toLink(baseUri, USER_ORDERS_REL, order.getUserId(), null));
     }
     
     @Operation(summary = "Create an order from a user's cart")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Order created successfully",
-                    content = @Content(mediaType = "application/hal+json", schema = @Schema(implementation = Order.class))),
+                    content = @Content(mediaType = "application/hal+json", schema = @Schema(implementation = OrderResponse.class))),
             @ApiResponse(responseCode = "400", description = "Bad request, e.g., empty cart")
     })
     @PostMapping("/{userId}/createFromCart")
-    public ResponseEntity<EntityModel<Order>> createOrderFromCart(
+    public ResponseEntity<EntityModel<OrderResponse>> createOrderFromCart(
             @PathVariable Long userId,
             @RequestBody OrderCreationRequest request) {
         try {
             Order newOrder = orderService.createOrderFromCart(userId, request.getShippingAddress(), request.getPaymentMethod());
-            EntityModel<Order> orderModel = toModel(newOrder);
+            EntityModel<OrderResponse> orderModel = toModel(newOrder);
             return new ResponseEntity<>(orderModel, HttpStatus.CREATED);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -66,21 +85,53 @@ public class OrderController {
     @Operation(summary = "Get an order by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the order",
-                    content = @Content(mediaType = "application/hal+json", schema = @Schema(implementation = Order.class))),
+                    content = @Content(mediaType = "application/hal+json", schema = @Schema(implementation = OrderResponse.class))),
             @ApiResponse(responseCode = "404", description = "Order not found")
     })
     @GetMapping("/{orderId}")
-    public ResponseEntity<EntityModel<Order>> getOrderById(@PathVariable Long orderId) {
+    public ResponseEntity<EntityModel<OrderResponse>> getOrderById(@PathVariable Long orderId) {
         return orderService.getOrderById(orderId)
-                .map(order -> ResponseEntity.ok(toModel(order)))
+                .map(order -> {
+                    EntityModel<OrderResponse> orderModel = toModel(order);
+                    // Los pedidos en estado final ya no cambian: las siguientes lecturas se sirven desde la caché
+                    completedOrderCache.putIfCompleted(order.getId(), order.getStatus(), orderModel);
+                    return ResponseEntity.ok(orderModel);
+                })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @Operation(summary = "Get several orders by ID in a single request")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Orders found, in the requested order; unknown IDs are skipped"),
+        @ApiResponse(responseCode = "204", description = "None of the orders exist"),
+        @ApiResponse(responseCode = "400", description = "No IDs, an empty ID or more than 100 IDs")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<CollectionModel<EntityModel<OrderResponse>>> getOrdersByIds(
+            @Parameter(description = "Comma-separated order IDs") @RequestParam List<Long> ids) {
+        // Un ID vacío en la lista (p. ej. "1,,2") llega como null
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_IDS || ids.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String baseUri = LinkTemplate.currentBaseUri();
+        List<EntityModel<OrderResponse>> orders = orderService.getOrdersByIds(ids).stream()
+                .map(order -> toModel(order, baseUri))
+                .collect(Collectors.toList());
+
+        if (orders.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(CollectionModel.of(orders));
+    }
+
     @Operation(summary = "Get all orders for a specific user")
     @GetMapping("/user/{userId}")
-    public ResponseEntity<CollectionModel<EntityModel<Order>>> getOrdersByUserId(@PathVariable Long userId) {
-        List<EntityModel<Order>> orders = orderService.getOrdersByUserId(userId).stream()
-                .map(this::toModel)
+    public ResponseEntity<CollectionModel<EntityModel<OrderResponse>>> getOrdersByUserId(
+            @PathVariable Long userId,
+            @Parameter(description = "Include orders moved to the archive") @RequestParam(required = false) Boolean includeArchived) {
+        String baseUri = LinkTemplate.currentBaseUri();
+        List<EntityModel<OrderResponse>> orders = orderService.getOrdersByUserId(userId, Boolean.TRUE.equals(includeArchived)).stream()
+                .map(order -> toModel(order, baseUri))
                 .collect(Collectors.toList());
 
         if (orders.isEmpty()) {
@@ -88,22 +139,28 @@ public class OrderController {
         }
 
         return ResponseEntity.ok(CollectionModel.of(orders,
-                linkTo(methodOn(OrderController.class).getOrdersByUserId(userId)).withSelfRel()));
+                USER_ORDERS_LINK.toLink(baseUri, IanaLinkRelations.SELF, userId, includeArchived)));
     }
 
     @Operation(summary = "Update the status of an order")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Order status updated",
-                content = @Content(mediaType = "application/hal+json", schema = @Schema(implementation = Order.class))),
-        @ApiResponse(responseCode = "404", description = "Order not found")
+                content = @Content(mediaType = "application/hal+json", schema = @Schema(implementation = OrderResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Order not found"),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current order version")
     })
     @PutMapping("/{orderId}/status")
-    public ResponseEntity<EntityModel<Order>> updateOrderStatus(
+    public ResponseEntity<EntityModel<OrderResponse>> updateOrderStatus(
             @PathVariable Long orderId,
-            @Parameter(description = "New status for the order", required = true) @RequestParam String newStatus) {
+            @Parameter(description = "New status for the order", required = true) @RequestParam String newStatus,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Order updatedOrder = orderService.updateOrderStatus(orderId, newStatus);
+            Order updatedOrder = orderService.updateOrderStatus(orderId, newStatus, ETags.expectedVersion(ifMatch));
             return ResponseEntity.ok(toModel(updatedOrder));
+        } catch (VersionMismatchException e) {
+            return ETags.preconditionFailed(e.getCurrentVersion());
+        } catch (OptimisticLockingFailureException e) {
+            return ifMatch != null ? ETags.preconditionFailed(null) : new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -112,13 +169,24 @@ public class OrderController {
     @Operation(summary = "Delete an order")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Order deleted successfully"),
-        @ApiResponse(responseCode = "404", description = "Order not found")
+        @ApiResponse(responseCode = "404", description = "Order not found"),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current order version")
     })
     @DeleteMapping("/{orderId}")
-    public ResponseEntity<Void> deleteOrder(@PathVariable Long orderId) {
+    public ResponseEntity<Void> deleteOrder(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            orderService.deleteOrder(orderId);
+            if (ifMatch == null) {
+                orderService.deleteOrder(orderId);
+            } else {
+                orderService.deleteOrder(orderId, ETags.expectedVersion(ifMatch));
+            }
             return ResponseEntity.noContent().build();
+        } catch (VersionMismatchException e) {
+            return ETags.preconditionFailed(e.getCurrentVersion());
+        } catch (OptimisticLockingFailureException e) {
+            return ifMatch != null ? ETags.preconditionFailed(null) : new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -0,0 +1,61 @@
+package com.programthis.order_cart_service.controller;
+
+import com.programthis.order_cart_service.export.OrderExportFormat;
+import com.programthis.order_cart_service.service.OrderExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/orders/export")
+@Tag(name = "Order Export", description = "Streaming export of orders for finance")
+public class OrderExportController {
+
+    private final OrderExportService orderExportService;
+
+    @Autowired
+    public OrderExportController(OrderExportService orderExportService) {
+        this.orderExportService = orderExportService;
+    }
+
+    @Operation(summary = "Stream all orders placed in a date range as NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid range or unsupported format")
+    })
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Inclusive start (ISO date-time)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end (ISO date-time)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+        Optional<OrderExportFormat> exportFormat = OrderExportFormat.fromParam(format);
+        if (exportFormat.isEmpty() || !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        OrderExportFormat selected = exportFormat.get();
+
+        // La transacción y el cursor se abren en el hilo que escribe la respuesta
+        StreamingResponseBody body = out -> orderExportService.exportOrders(from, to, selected, out);
+
+        String filename = "orders-" + from.toLocalDate() + "-" + to.toLocalDate() + "." + selected.getExtension();
+        return ResponseEntity.ok()
+                .contentType(selected.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
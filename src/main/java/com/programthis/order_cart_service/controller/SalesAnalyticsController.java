@@ -0,0 +1,54 @@
+package com.programthis.order_cart_service.controller;
+
+import com.programthis.order_cart_service.model.DailySalesRollup;
+import com.programthis.order_cart_service.model.ProductSalesRollup;
+import com.programthis.order_cart_service.service.SalesRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics/sales")
+@Tag(name = "Sales Analytics", description = "Pre-aggregated sales figures per day and per product")
+public class SalesAnalyticsController {
+
+    // Límite del rango para que la consulta siga siendo barata
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final SalesRollupService salesRollupService;
+
+    @Autowired
+    public SalesAnalyticsController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @Operation(summary = "Get the sales rollup for a single day")
+    @GetMapping("/daily/{date}")
+    public ResponseEntity<DailySalesRollup> getDailyRollup(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(salesRollupService.getDailyRollup(date));
+    }
+
+    @Operation(summary = "Get the daily sales rollups for an inclusive date range")
+    @GetMapping("/daily")
+    public ResponseEntity<List<DailySalesRollup>> getDailyRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from) || from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesRollupService.getDailyRollups(from, to));
+    }
+
+    @Operation(summary = "Get the sales rollup for a product")
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ProductSalesRollup> getProductRollup(@PathVariable Long productId) {
+        return ResponseEntity.ok(salesRollupService.getProductRollup(productId));
+    }
+}
@@ -1,23 +1,48 @@
 package com.programthis.order_cart_service.controller;
 
+import com.programthis.order_cart_service.dto.CartDeltaResponse;
+import com.programthis.order_cart_service.dto.ShoppingCartResponse;
 import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.service.CartLineChange;
+import com.programthis.order_cart_service.service.ExpectedVersion;
 import com.programthis.order_cart_service.service.ShoppingCartService;
+import com.programthis.order_cart_service.service.VersionMismatchException;
+import com.programthis.order_cart_service.web.ETags;
+import com.programthis.order_cart_service.web.ReturnPreference;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @RestController
+@Profile("!reactive") // con el perfil reactive las mismas rutas las atiende ReactiveShoppingCartController
 @RequestMapping("/api/carts")
 @Tag(name = "Shopping Cart Management", description = "APIs for managing user shopping carts")
 public class ShoppingCartController {
 
+    // Plantillas de enlaces resueltas una sola vez por método de controlador
+    private static final LinkTemplate CART_LINK = LinkTemplate.of(ShoppingCartController.class, "getOrCreateCart", Long.class);
+    private static final LinkTemplate ADD_ITEM_LINK = LinkTemplate.of(ShoppingCartController.class, "addProductToCart", Long.class, Long.class, Integer.class, String.class, String.class);
+    private static final LinkTemplate CLEAR_CART_LINK = LinkTemplate.of(ShoppingCartController.class, "clearCart", Long.class, String.class, String.class);
+    private static final LinkRelation ADD_ITEM_REL = LinkRelation.of("add-item");
+    private static final LinkRelation CLEAR_CART_REL = LinkRelation.of("clear-cart");
+    // Máximo de usuarios por consulta múltiple (igual que el @BatchSize de ShoppingCart.items)
+    static final int MAX_BATCH_USER_IDS = 100;
+
     private final ShoppingCartService shoppingCartService;
 
     @Autowired
@@ -25,69 +50,163 @@ public class ShoppingCartController {
         this.shoppingCartService = shoppingCartService;
     }
 
-    private EntityModel<ShoppingCart> toModel(ShoppingCart cart) {
-        return EntityModel.of(cart,
-                linkTo(methodOn(ShoppingCartController.class).getOrCreateCart(cart.getUserId())).withSelfRel(),
-                linkTo(methodOn(ShoppingCartController.class).addProductToCart(cart.getUserId(), null, null)).withRel("add-item"),
-                linkTo(methodOn(ShoppingCartController.class).clearCart(cart.getUserId())).withRel("clear-cart"));
+    private EntityModel<ShoppingCartResponse> toModel(ShoppingCart cart) {
+        return toModel(cart, LinkTemplate.currentBaseUri());
+    }
+
+    private EntityModel<ShoppingCartResponse> toModel(ShoppingCart cart, String baseUri) {
+        return EntityModel.of(ShoppingCartResponse.from(cart),
+                CART_LINK.toLink(baseUri, IanaLinkRelations.SELF, cart.getUserId()),
+                ADD_ITEM_LINK.toLink(baseUri, ADD_ITEM_REL, cart.getUserId(), null, null),
+                CLEAR_CART_LINK.toLink(baseUri, CLEAR_CART_REL, cart.getUserId()));
+    }
+
+    // Las modificaciones responden distinto según Prefer (representación completa, 204 o delta), así que
+    // todas sus respuestas llevan Vary: Prefer, también las que se piden sin esa cabecera
+    private ResponseEntity<EntityModel<ShoppingCartResponse>> preferable(EntityModel<ShoppingCartResponse> model) {
+        return ResponseEntity.ok().varyBy(ReturnPreference.PREFER).body(model);
+    }
+
+    // return=minimal: 204 sólo con el nuevo ETag; return=delta: la línea modificada y los totales del carrito
+    private ResponseEntity<?> toPreferredResponse(CartLineChange change, ReturnPreference preference) {
+        if (preference == ReturnPreference.MINIMAL) {
+            ResponseEntity.HeadersBuilder<?> minimal = ResponseEntity.noContent()
+                    .varyBy(ReturnPreference.PREFER)
+                    .header(ReturnPreference.PREFERENCE_APPLIED, preference.token());
+            if (change.cart().getVersion() != null) {
+                minimal.eTag(ETags.of(change.cart().getVersion()));
+            }
+            return minimal.build();
+        }
+        return ResponseEntity.ok()
+                .varyBy(ReturnPreference.PREFER)
+                .header(ReturnPreference.PREFERENCE_APPLIED, preference.token())
+                .body(CartDeltaResponse.from(change.cart(), change.productId(), change.item(), change.totals()));
     }
 
     @Operation(summary = "Get or create a shopping cart for a user")
     @GetMapping("/{userId}")
-    public ResponseEntity<EntityModel<ShoppingCart>> getOrCreateCart(@PathVariable Long userId) {
-        ShoppingCart cart = shoppingCartService.getOrCreateShoppingCart(userId);
+    public ResponseEntity<EntityModel<ShoppingCartResponse>> getOrCreateCart(@PathVariable Long userId) {
+        // Lectura de sólo lectura (réplica si las hay); sólo se abre una transacción de escritura si hay que crearlo
+        ShoppingCart cart = shoppingCartService.findShoppingCart(userId)
+                .orElseGet(() -> shoppingCartService.getOrCreateShoppingCart(userId));
         return new ResponseEntity<>(toModel(cart), HttpStatus.OK);
     }
 
-    @Operation(summary = "Add a product to the cart")
+    @Operation(summary = "Get the existing carts of several users in a single request")
+    @GetMapping(params = "userIds")
+    public ResponseEntity<CollectionModel<EntityModel<ShoppingCartResponse>>> getCartsByUserIds(
+            @Parameter(description = "Comma-separated user IDs (at most 100); users without a cart are skipped") @RequestParam List<Long> userIds) {
+        // Un ID vacío en la lista (p. ej. "1,,2") llega como null
+        if (userIds.isEmpty() || userIds.size() > MAX_BATCH_USER_IDS || userIds.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String baseUri = LinkTemplate.currentBaseUri();
+        List<EntityModel<ShoppingCartResponse>> carts = shoppingCartService.getCartsByUserIds(userIds).stream()
+                .map(cart -> toModel(cart, baseUri))
+                .collect(Collectors.toList());
+
+        if (carts.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(CollectionModel.of(carts));
+    }
+
+    // Cada modificación tiene un único handler; la cabecera Prefer elige la respuesta: sin ella (o con
+    // return=representation) el carrito completo, con return=minimal 204 y con return=delta la línea y los totales.
+    // Con If-Match el servicio compara la versión dentro de su transacción (412 si no coincide); si otra escritura se
+    // confirma después de esa comparación, @Version hace fallar ésta y también se responde 412
+
+    @Operation(summary = "Add a product to the cart; Prefer: return=minimal (204) or return=delta (changed line and totals)")
     @PostMapping("/{userId}/items")
-    public ResponseEntity<EntityModel<ShoppingCart>> addProductToCart(
+    public ResponseEntity<?> addProductToCart(
             @PathVariable Long userId,
             @RequestParam Long productId,
-            @RequestParam Integer quantity) {
+            @RequestParam Integer quantity,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ReturnPreference preference = ReturnPreference.from(prefer);
+        ExpectedVersion expectedVersion = ETags.expectedVersion(ifMatch);
         try {
-            ShoppingCart updatedCart = shoppingCartService.addProductToCart(userId, productId, quantity);
-            return new ResponseEntity<>(toModel(updatedCart), HttpStatus.OK);
+            if (preference == ReturnPreference.REPRESENTATION) {
+                return preferable(toModel(shoppingCartService.addProductToCart(userId, productId, quantity, expectedVersion)));
+            }
+            return toPreferredResponse(shoppingCartService.addProductToCartLine(userId, productId, quantity, expectedVersion), preference);
+        } catch (VersionMismatchException e) {
+            return ETags.preconditionFailed(e.getCurrentVersion());
+        } catch (OptimisticLockingFailureException e) {
+            return ifMatch != null ? ETags.preconditionFailed(null) : ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
-    @Operation(summary = "Update product quantity in the cart")
+    @Operation(summary = "Update product quantity in the cart; Prefer: return=minimal (204) or return=delta (changed line and totals)")
     @PutMapping("/{userId}/items/{productId}")
-    public ResponseEntity<EntityModel<ShoppingCart>> updateProductQuantityInCart(
+    public ResponseEntity<?> updateProductQuantityInCart(
             @PathVariable Long userId,
             @PathVariable Long productId,
-            @RequestParam Integer newQuantity) {
+            @RequestParam Integer newQuantity,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ReturnPreference preference = ReturnPreference.from(prefer);
+        ExpectedVersion expectedVersion = ETags.expectedVersion(ifMatch);
         try {
-            ShoppingCart updatedCart = shoppingCartService.updateProductQuantityInCart(userId, productId, newQuantity);
-            return new ResponseEntity<>(toModel(updatedCart), HttpStatus.OK);
+            if (preference == ReturnPreference.REPRESENTATION) {
+                return preferable(toModel(shoppingCartService.updateProductQuantityInCart(userId, productId, newQuantity, expectedVersion)));
+            }
+            return toPreferredResponse(shoppingCartService.updateProductQuantityInCartLine(userId, productId, newQuantity, expectedVersion), preference);
+        } catch (VersionMismatchException e) {
+            return ETags.preconditionFailed(e.getCurrentVersion());
+        } catch (OptimisticLockingFailureException e) {
+            return ifMatch != null ? ETags.preconditionFailed(null) : ResponseEntity.notFound().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Remove a product from the cart")
+    @Operation(summary = "Remove a product from the cart; Prefer: return=minimal (204) or return=delta (totals)")
     @DeleteMapping("/{userId}/items/{productId}")
-    public ResponseEntity<EntityModel<ShoppingCart>> removeProductFromCart(
+    public ResponseEntity<?> removeProductFromCart(
             @PathVariable Long userId,
-            @PathVariable Long productId) {
+            @PathVariable Long productId,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ReturnPreference preference = ReturnPreference.from(prefer);
+        ExpectedVersion expectedVersion = ETags.expectedVersion(ifMatch);
         try {
-            ShoppingCart updatedCart = shoppingCartService.removeProductFromCart(userId, productId);
-            return new ResponseEntity<>(toModel(updatedCart), HttpStatus.OK);
+            if (preference == ReturnPreference.REPRESENTATION) {
+                return preferable(toModel(shoppingCartService.removeProductFromCart(userId, productId, expectedVersion)));
+            }
+            return toPreferredResponse(shoppingCartService.removeProductFromCartLine(userId, productId, expectedVersion), preference);
+        } catch (VersionMismatchException e) {
+            return ETags.preconditionFailed(e.getCurrentVersion());
+        } catch (OptimisticLockingFailureException e) {
+            return ifMatch != null ? ETags.preconditionFailed(null) : ResponseEntity.notFound().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Clear all items from the cart")
+    @Operation(summary = "Clear all items from the cart; Prefer: return=minimal (204) or return=delta (totals)")
     @DeleteMapping("/{userId}/clear")
-    public ResponseEntity<EntityModel<ShoppingCart>> clearCart(@PathVariable Long userId) {
+    public ResponseEntity<?> clearCart(
+            @PathVariable Long userId,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ReturnPreference preference = ReturnPreference.from(prefer);
+        ExpectedVersion expectedVersion = ETags.expectedVersion(ifMatch);
         try {
-            ShoppingCart clearedCart = shoppingCartService.clearCart(userId);
-            return new ResponseEntity<>(toModel(clearedCart), HttpStatus.OK);
+            if (preference == ReturnPreference.REPRESENTATION) {
+                return preferable(toModel(shoppingCartService.clearCart(userId, expectedVersion)));
+            }
+            return toPreferredResponse(shoppingCartService.clearCartLines(userId, expectedVersion), preference);
+        } catch (VersionMismatchException e) {
+            return ETags.preconditionFailed(e.getCurrentVersion());
+        } catch (OptimisticLockingFailureException e) {
+            return ifMatch != null ? ETags.preconditionFailed(null) : ResponseEntity.notFound().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package com.programthis.order_cart_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.CartTotals;
+
+import java.math.BigDecimal;
+
+// Respuesta de Prefer: return=delta: sólo la línea modificada (null si se eliminó) y los nuevos totales del carrito
+public record CartDeltaResponse(
+        Long cartId,
+        Long userId,
+        Long productId,
+        CartItemResponse item,
+        long itemCount,
+        long totalQuantity,
+        BigDecimal totalAmount,
+        @JsonIgnore Long version) implements Versioned {
+
+    public static CartDeltaResponse from(ShoppingCart cart, Long productId, CartItem item, CartTotals totals) {
+        return new CartDeltaResponse(cart.getId(), cart.getUserId(), productId,
+                item == null ? null : CartItemResponse.from(item),
+                totals.getItemCount() == null ? 0 : totals.getItemCount(),
+                totals.getTotalQuantity() == null ? 0 : totals.getTotalQuantity(),
+                totals.getTotalAmount() == null ? BigDecimal.ZERO : totals.getTotalAmount(),
+                cart.getVersion());
+    }
+}
@@ -0,0 +1,21 @@
+package com.programthis.order_cart_service.dto;
+
+import com.programthis.order_cart_service.model.CartItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Línea del carrito tal como se expone en la API (sin referencia de vuelta al carrito)
+public record CartItemResponse(
+        Long id,
+        Long productId,
+        Integer quantity,
+        BigDecimal priceAtAddition,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static CartItemResponse from(CartItem item) {
+        return new CartItemResponse(item.getId(), item.getProductId(), item.getQuantity(), item.getPriceAtAddition(),
+                item.getCreatedAt(), item.getUpdatedAt());
+    }
+}
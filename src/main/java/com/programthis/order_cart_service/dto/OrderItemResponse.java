@@ -0,0 +1,23 @@
+package com.programthis.order_cart_service.dto;
+
+import com.programthis.order_cart_service.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Línea de pedido tal como se expone en la API (sin referencia de vuelta al pedido)
+public record OrderItemResponse(
+        Long id,
+        Long productId,
+        String productName,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal subtotal,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static OrderItemResponse from(OrderItem item) {
+        return new OrderItemResponse(item.getId(), item.getProductId(), item.getProductName(), item.getQuantity(),
+                item.getUnitPrice(), item.getSubtotal(), item.getCreatedAt(), item.getUpdatedAt());
+    }
+}
@@ -0,0 +1,40 @@
+package com.programthis.order_cart_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Representación plana de un pedido para las respuestas HTTP.
+// Se copia campo a campo desde la entidad, así Jackson serializa un record simple
+// en lugar de recorrer la entidad JPA (accesores Lombok, proxies de Hibernate y referencias de vuelta).
+public record OrderResponse(
+        Long id,
+        Long userId,
+        LocalDateTime orderDate,
+        BigDecimal totalAmount,
+        String status,
+        String shippingAddress,
+        String paymentMethod,
+        List<OrderItemResponse> items,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        @JsonIgnore Long version) implements Versioned {
+
+    public static OrderResponse from(Order order) {
+        List<OrderItem> orderItems = order.getItems();
+        List<OrderItemResponse> items = new ArrayList<>(orderItems == null ? 0 : orderItems.size());
+        if (orderItems != null) {
+            for (OrderItem item : orderItems) {
+                items.add(OrderItemResponse.from(item));
+            }
+        }
+        return new OrderResponse(order.getId(), order.getUserId(), order.getOrderDate(), order.getTotalAmount(),
+                order.getStatus(), order.getShippingAddress(), order.getPaymentMethod(), items,
+                order.getCreatedAt(), order.getUpdatedAt(), order.getVersion());
+    }
+}
@@ -0,0 +1,31 @@
+package com.programthis.order_cart_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.ShoppingCart;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Representación plana de un carrito para las respuestas HTTP (ver OrderResponse)
+public record ShoppingCartResponse(
+        Long id,
+        Long userId,
+        List<CartItemResponse> items,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        @JsonIgnore Long version) implements Versioned {
+
+    public static ShoppingCartResponse from(ShoppingCart cart) {
+        List<CartItem> cartItems = cart.getItems();
+        List<CartItemResponse> items = new ArrayList<>(cartItems == null ? 0 : cartItems.size());
+        if (cartItems != null) {
+            for (CartItem item : cartItems) {
+                items.add(CartItemResponse.from(item));
+            }
+        }
+        return new ShoppingCartResponse(cart.getId(), cart.getUserId(), items, cart.getCreatedAt(), cart.getUpdatedAt(),
+                cart.getVersion());
+    }
+}
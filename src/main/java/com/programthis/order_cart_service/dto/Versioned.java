@@ -0,0 +1,6 @@
+package com.programthis.order_cart_service.dto;
+
+// Representación con columna @Version: de ella sale el ETag de la respuesta
+public interface Versioned {
+    Long version();
+}
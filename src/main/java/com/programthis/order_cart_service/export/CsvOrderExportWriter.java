@@ -0,0 +1,89 @@
+package com.programthis.order_cart_service.export;
+
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Una fila por línea de pedido; los datos del pedido se repiten en cada fila.
+// Un pedido sin líneas genera una fila con las columnas de producto vacías.
+public class CsvOrderExportWriter implements OrderExportWriter {
+
+    static final String HEADER = "order_id,user_id,order_date,status,total_amount,shipping_address,payment_method,"
+            + "product_id,product_name,quantity,unit_price,subtotal";
+
+    private final Writer writer;
+
+    public CsvOrderExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.writer.write(HEADER);
+        this.writer.write('\n');
+    }
+
+    @Override
+    public void write(Order order, List<OrderItem> items) throws IOException {
+        if (items.isEmpty()) {
+            writeOrderColumns(order);
+            writer.write(",,,,,\n");
+            return;
+        }
+        for (OrderItem item : items) {
+            writeOrderColumns(order);
+            writer.write(',');
+            writeValue(item.getProductId());
+            writer.write(',');
+            writeValue(item.getProductName());
+            writer.write(',');
+            writeValue(item.getQuantity());
+            writer.write(',');
+            writeValue(item.getUnitPrice() != null ? item.getUnitPrice().toPlainString() : null);
+            writer.write(',');
+            writeValue(item.getSubtotal() != null ? item.getSubtotal().toPlainString() : null);
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeOrderColumns(Order order) throws IOException {
+        writeValue(order.getId());
+        writer.write(',');
+        writeValue(order.getUserId());
+        writer.write(',');
+        writeValue(order.getOrderDate());
+        writer.write(',');
+        writeValue(order.getStatus());
+        writer.write(',');
+        writeValue(order.getTotalAmount() != null ? order.getTotalAmount().toPlainString() : null);
+        writer.write(',');
+        writeValue(order.getShippingAddress());
+        writer.write(',');
+        writeValue(order.getPaymentMethod());
+    }
+
+    // Escapado RFC 4180: comillas alrededor si hay separadores, comillas o saltos de línea
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean needsQuotes = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,52 @@
+package com.programthis.order_cart_service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// Un objeto JSON por línea (application/x-ndjson), escrito directamente con el JsonGenerator de Jackson
+public class NdjsonOrderExportWriter implements OrderExportWriter {
+
+    private final JsonGenerator generator;
+
+    public NdjsonOrderExportWriter(JsonFactory jsonFactory, OutputStream out) throws IOException {
+        this.generator = jsonFactory.createGenerator(out);
+        // El stream de la respuesta lo cierra el contenedor, no el generador
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void write(Order order, List<OrderItem> items) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", order.getId());
+        generator.writeNumberField("userId", order.getUserId());
+        generator.writeStringField("orderDate", order.getOrderDate() != null ? order.getOrderDate().toString() : null);
+        generator.writeStringField("status", order.getStatus());
+        generator.writeNumberField("totalAmount", order.getTotalAmount());
+        generator.writeStringField("shippingAddress", order.getShippingAddress());
+        generator.writeStringField("paymentMethod", order.getPaymentMethod());
+        generator.writeArrayFieldStart("items");
+        for (OrderItem item : items) {
+            generator.writeStartObject();
+            generator.writeNumberField("productId", item.getProductId());
+            generator.writeStringField("productName", item.getProductName());
+            generator.writeNumberField("quantity", item.getQuantity());
+            generator.writeNumberField("unitPrice", item.getUnitPrice());
+            generator.writeNumberField("subtotal", item.getSubtotal());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+}
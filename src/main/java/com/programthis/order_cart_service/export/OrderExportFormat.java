@@ -0,0 +1,36 @@
+package com.programthis.order_cart_service.export;
+
+import org.springframework.http.MediaType;
+
+import java.util.Optional;
+
+// Formatos soportados por la exportación de pedidos
+public enum OrderExportFormat {
+    NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+    CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    OrderExportFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static Optional<OrderExportFormat> fromParam(String value) {
+        for (OrderExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
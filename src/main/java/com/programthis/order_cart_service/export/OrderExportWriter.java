@@ -0,0 +1,16 @@
+package com.programthis.order_cart_service.export;
+
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+
+import java.io.IOException;
+import java.util.List;
+
+// Escribe pedidos uno a uno sobre el stream de salida, sin acumularlos en memoria
+public interface OrderExportWriter {
+
+    void write(Order order, List<OrderItem> items) throws IOException;
+
+    // Vacía los buffers hacia el stream de salida (se llama al final de cada lote)
+    void flush() throws IOException;
+}
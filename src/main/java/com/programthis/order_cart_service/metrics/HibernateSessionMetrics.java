@@ -0,0 +1,88 @@
+package com.programthis.order_cart_service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.BaseSessionEventListener;
+
+// Sentencias JDBC y flushes por sesión de Hibernate. Con open-in-view (activo por defecto) hay una sesión por petición,
+// así que las distribuciones equivalen a "por petición". Hibernate crea una instancia por sesión
+// (hibernate.session.events.auto), por eso los contadores son campos simples y los meters van al registro global,
+// al que Spring Boot añade el registro de la aplicación.
+// También alimenta el desglose de la petición en curso (RequestTimings): tiempo de ejecución de cada sentencia
+// y espera por una conexión del pool.
+public class HibernateSessionMetrics extends BaseSessionEventListener {
+
+    private static final DistributionSummary STATEMENTS = DistributionSummary.builder("hibernate.session.statements")
+            .description("Sentencias JDBC ejecutadas por sesión (los lotes cuentan como una)")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+    private static final DistributionSummary FLUSHES = DistributionSummary.builder("hibernate.session.flushes")
+            .description("Flushes por sesión")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+    private static final DistributionSummary FLUSHED_ENTITIES = DistributionSummary.builder("hibernate.session.flushed.entities")
+            .description("Entidades revisadas en los flushes de una sesión")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    private int statements;
+    private int flushes;
+    private int flushedEntities;
+    private long statementStart;
+    private long connectionAcquisitionStart;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        connectionAcquisitionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.recordConnectionAcquisition(System.nanoTime() - connectionAcquisitionStart);
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statements++;
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        recordStatement();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        statements++;
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        recordStatement();
+    }
+
+    private void recordStatement() {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.recordStatement(System.nanoTime() - statementStart);
+        }
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushes++;
+        flushedEntities += numberOfEntities;
+    }
+
+    @Override
+    public void end() {
+        STATEMENTS.record(statements);
+        FLUSHES.record(flushes);
+        FLUSHED_ENTITIES.record(flushedEntities);
+    }
+}
@@ -0,0 +1,87 @@
+package com.programthis.order_cart_service.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Desglose del tiempo de una petición: JDBC (ejecución de sentencias y espera por conexión del pool) y llamadas al
+// catálogo. Lo abre RequestTimingFilter en el hilo de la petición; CatalogFanOut lo propaga a los hilos de las
+// llamadas al catálogo, por eso los acumuladores admiten escrituras concurrentes.
+// Las llamadas al catálogo en paralelo suman su duración individual, que puede superar el tiempo total de la petición.
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder jdbcNanos = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder connectionWaitNanos = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder catalogNanos = new LongAdder();
+    private final LongAdder catalogCalls = new LongAdder();
+
+    // null fuera de una petición (tareas programadas, arranque...)
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    // Fija "timings" como desglose actual del hilo; al cerrar el resultado se restaura el anterior
+    public static Binding bind(RequestTimings timings) {
+        RequestTimings previous = CURRENT.get();
+        CURRENT.set(timings);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public void recordStatement(long nanos) {
+        statements.increment();
+        jdbcNanos.add(nanos);
+    }
+
+    public void recordConnectionAcquisition(long nanos) {
+        connections.increment();
+        connectionWaitNanos.add(nanos);
+    }
+
+    public void recordCatalogCall(long nanos) {
+        catalogCalls.increment();
+        catalogNanos.add(nanos);
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos.sum();
+    }
+
+    public long statements() {
+        return statements.sum();
+    }
+
+    public long connectionWaitNanos() {
+        return connectionWaitNanos.sum();
+    }
+
+    public long connections() {
+        return connections.sum();
+    }
+
+    public long catalogNanos() {
+        return catalogNanos.sum();
+    }
+
+    public long catalogCalls() {
+        return catalogCalls.sum();
+    }
+}
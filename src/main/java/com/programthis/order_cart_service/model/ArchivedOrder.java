@@ -0,0 +1,90 @@
+package com.programthis.order_cart_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Copia de solo lectura de un pedido movido a la tabla de archivo por OrderArchiveService
+@Entity
+@Immutable
+@Table(name = "orders_archive", indexes = {
+    @Index(name = "idx_orders_archive_user_date", columnList = "user_id, order_date"),
+    @Index(name = "idx_orders_archive_order_date", columnList = "order_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    // Se conserva el ID original del pedido para que las búsquedas por ID sigan funcionando
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "shipping_address")
+    private String shippingAddress;
+
+    @Column(name = "payment_method")
+    private String paymentMethod;
+
+    // Igual que Order.items: líneas de varios pedidos archivados en una consulta
+    @BatchSize(size = 100)
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
+    @OrderBy("id")
+    private List<ArchivedOrderItem> items = new ArrayList<>();
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Reconstruye un Order (no gestionado por JPA) para devolverlo por las mismas APIs que los pedidos activos
+    public Order toOrder() {
+        Order order = toOrderWithoutItems();
+        for (ArchivedOrderItem archivedItem : items) {
+            order.addOrderItem(archivedItem.toOrderItem());
+        }
+        return order;
+    }
+
+    // Igual que toOrder pero sin tocar las líneas, para quien las carga aparte por lotes (exportación)
+    public Order toOrderWithoutItems() {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(userId);
+        order.setOrderDate(orderDate);
+        order.setTotalAmount(totalAmount);
+        order.setStatus(status);
+        order.setShippingAddress(shippingAddress);
+        order.setPaymentMethod(paymentMethod);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(updatedAt);
+        order.setVersion(version);
+        return order;
+    }
+}
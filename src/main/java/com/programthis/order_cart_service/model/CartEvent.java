@@ -0,0 +1,49 @@
+package com.programthis.order_cart_service.model;
+
+import com.programthis.order_cart_service.replica.ReadYourWritesListener;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Evento del registro del carrito (sólo se insertan, nunca se modifican). "sequence" numera los eventos de cada
+// usuario desde 1 y es la versión (ETag) del carrito; la restricción única detecta escrituras concurrentes.
+@Entity
+// Ventana read-your-writes de las lecturas en réplicas
+@EntityListeners(ReadYourWritesListener.class)
+@Table(name = "cart_events", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_cart_events_user_seq", columnNames = {"user_id", "event_seq"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "event_seq", nullable = false)
+    private Long sequence;
+
+    @Convert(converter = CartEventType.CodeConverter.class)
+    @Column(name = "event_type", nullable = false, length = 1)
+    private CartEventType type;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "quantity")
+    private Integer quantity;
+
+    @Column(name = "price", precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
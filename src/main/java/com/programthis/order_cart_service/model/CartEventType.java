@@ -0,0 +1,45 @@
+package com.programthis.order_cart_service.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Tipos de evento del carrito; en la base de datos se guarda sólo el código de una letra
+public enum CartEventType {
+    ITEM_ADDED("A"),      // suma "quantity" a la línea del producto (o la crea con "price")
+    QUANTITY_SET("Q"),    // fija la cantidad; 0 o menos elimina la línea
+    ITEM_REMOVED("R"),    // elimina la línea del producto
+    CLEARED("C");         // vacía el carrito
+
+    private final String code;
+
+    CartEventType(String code) {
+        this.code = code;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public static CartEventType fromCode(String code) {
+        for (CartEventType type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de evento de carrito desconocido: " + code);
+    }
+
+    @Converter
+    public static class CodeConverter implements AttributeConverter<CartEventType, String> {
+
+        @Override
+        public String convertToDatabaseColumn(CartEventType type) {
+            return type == null ? null : type.code;
+        }
+
+        @Override
+        public CartEventType convertToEntityAttribute(String code) {
+            return code == null ? null : fromCode(code);
+        }
+    }
+}
@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonBackReference; // ¡Añadir esta línea!
 
 @Entity
-@Table(name = "cart_items")
+// El esquema lo gestionan las migraciones (db/migration); el índice se declara también para los esquemas
+// que Hibernate genera en los tests y benchmarks sobre H2
+@Table(name = "cart_items", indexes = {
+    @Index(name = "idx_cart_items_cart_product", columnList = "cart_id, product_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
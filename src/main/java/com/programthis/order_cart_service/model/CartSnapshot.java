@@ -0,0 +1,37 @@
+package com.programthis.order_cart_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Último snapshot del carrito de un usuario: su estado tras el evento "sequence". Las líneas van codificadas en
+// texto (ver CartState) para que el snapshot sea una sola fila.
+@Entity
+@Table(name = "cart_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSnapshot {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // ID del carrito en shopping_carts (null en snapshots anteriores a guardarlo)
+    @Column(name = "cart_id")
+    private Long cartId;
+
+    @Column(name = "event_seq", nullable = false)
+    private Long sequence;
+
+    @Column(name = "cart_lines", nullable = false, columnDefinition = "TEXT")
+    private String lines;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
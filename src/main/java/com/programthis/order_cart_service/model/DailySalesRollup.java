@@ -0,0 +1,61 @@
+package com.programthis.order_cart_service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Acumulado de ventas por día, mantenido de forma incremental por SalesRollupService. Cada día se reparte en varias
+// filas (bucket) y el acumulado del día es su suma
+@Entity
+@Table(name = "sales_rollup_daily")
+@IdClass(DailySalesRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollup {
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "bucket")
+    @JsonIgnore
+    private int bucket;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Acumulado de un día completo (suma de sus buckets)
+    public DailySalesRollup(LocalDate salesDate, long orderCount, long units, BigDecimal revenue, LocalDateTime updatedAt) {
+        this(salesDate, 0, orderCount, units, revenue, updatedAt);
+    }
+
+    // Día sin ventas registradas
+    public static DailySalesRollup empty(LocalDate salesDate) {
+        return new DailySalesRollup(salesDate, 0, 0, BigDecimal.ZERO.setScale(2), null);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private int bucket;
+    }
+}
@@ -1,11 +1,13 @@
 package com.programthis.order_cart_service.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.programthis.order_cart_service.replica.ReadYourWritesListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.math.BigDecimal;
@@ -15,7 +17,12 @@ import java.util.List;
 
 @EqualsAndHashCode(callSuper = true)
 @Entity
-@Table(name = "orders")
+// Ventana read-your-writes de las lecturas en réplicas
+@EntityListeners(ReadYourWritesListener.class)
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_user_date", columnList = "user_id, order_date"),
+    @Index(name = "idx_orders_order_date", columnList = "order_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -44,6 +51,8 @@ public class Order extends RepresentationModel<Order> { // Extiende de Represent
     private String paymentMethod;
 
     @JsonManagedReference
+    // Al tocar las líneas de un pedido se cargan las de hasta 100 pedidos de la sesión con una sola consulta IN
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<OrderItem> items = new ArrayList<>();
 
@@ -53,6 +62,11 @@ public class Order extends RepresentationModel<Order> { // Extiende de Represent
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Se incrementa en cada actualización; es la base del ETag del pedido
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // ... (resto de los métodos sin cambios)
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,7 @@
+package com.programthis.order_cart_service.model;
+
+// Tipos de evento de pedido que se publican a través del outbox (se guardan por nombre)
+public enum OrderOutboxEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED
+}
@@ -0,0 +1,39 @@
+package com.programthis.order_cart_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Acumulado de ventas por producto, mantenido de forma incremental por SalesRollupService
+@Entity
+@Table(name = "sales_rollup_product")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesRollup {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Número de pedidos que incluyen el producto
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Producto sin ventas registradas
+    public static ProductSalesRollup empty(Long productId) {
+        return new ProductSalesRollup(productId, 0, 0, BigDecimal.ZERO.setScale(2), null);
+    }
+}
@@ -1,11 +1,13 @@
 package com.programthis.order_cart_service.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.programthis.order_cart_service.replica.ReadYourWritesListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.time.LocalDateTime;
@@ -14,6 +16,8 @@ import java.util.List;
 
 @EqualsAndHashCode(callSuper = true)
 @Entity
+// Ventana read-your-writes de las lecturas en réplicas
+@EntityListeners(ReadYourWritesListener.class)
 @Table(name = "shopping_carts", uniqueConstraints = {
     @UniqueConstraint(columnNames = "user_id")
 })
@@ -30,6 +34,8 @@ public class ShoppingCart extends RepresentationModel<ShoppingCart> { // Extiend
     private Long userId;
 
     @JsonManagedReference
+    // Carga por lotes (consulta múltiple de carritos)
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<CartItem> items = new ArrayList<>();
 
@@ -38,6 +44,11 @@ public class ShoppingCart extends RepresentationModel<ShoppingCart> { // Extiend
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Se incrementa en cada actualización; es la base del ETag del carrito
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
     
     // ... (resto de los métodos sin cambios)
     @PrePersist
@@ -51,6 +62,12 @@ public class ShoppingCart extends RepresentationModel<ShoppingCart> { // Extiend
         this.updatedAt = LocalDateTime.now();
     }
 
+    // Marca el carrito como modificado aunque sólo hayan cambiado sus líneas,
+    // para que se actualicen updated_at y la versión al hacer flush
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
     public void addCartItem(CartItem cartItem) {
         if (items == null) {
             items = new ArrayList<>();
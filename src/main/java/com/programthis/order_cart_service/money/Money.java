@@ -0,0 +1,62 @@
+package com.programthis.order_cart_service.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Importe en unidades mínimas (céntimos) con escala fija de 2 decimales.
+// Se usa para la aritmética interna (subtotales y totales); la conversión a BigDecimal
+// se hace sólo al guardar en las entidades / serializar a JSON.
+// Las operaciones lanzan ArithmeticException si hay desbordamiento, nunca redondean en silencio.
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    // Mismo redondeo que aplica MySQL al guardar en DECIMAL(10,2)
+    public static Money of(BigDecimal amount) {
+        return new Money(toMinorUnits(amount));
+    }
+
+    // Subtotal de una línea. Con el precio en céntimos exactos (escala 2, la de DECIMAL(10,2)) se multiplica en long;
+    // con otra escala se multiplica el precio exacto y se redondea una sola vez
+    public static Money of(BigDecimal unitPrice, int quantity) {
+        if (unitPrice.scale() == SCALE) {
+            return new Money(unitPrice.unscaledValue().longValueExact()).times(quantity);
+        }
+        return of(unitPrice.multiply(BigDecimal.valueOf(quantity)));
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount.scale() == SCALE) {
+            // Caso habitual (columnas DECIMAL(10,2)): sin setScale
+            return amount.unscaledValue().longValueExact();
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(minorUnits, (long) quantity));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
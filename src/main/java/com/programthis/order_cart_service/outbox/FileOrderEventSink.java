@@ -0,0 +1,60 @@
+package com.programthis.order_cart_service.outbox;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.programthis.order_cart_service.model.OrderOutboxEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Añade los eventos a un fichero NDJSON (un objeto por línea: id, type, orderId, userId, createdAt y payload).
+// Cada lote se escribe de una vez y se fuerza a disco antes de volver, de modo que lo que se borra del outbox ya está
+// en el fichero; tras un fallo a mitad de lote las líneas ya escritas se repiten en el reintento.
+public class FileOrderEventSink implements OrderEventSink {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path path;
+
+    public FileOrderEventSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void publish(List<OrderOutboxEvent> events) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            for (OrderOutboxEvent event : events) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", event.getId());
+                generator.writeStringField("type", event.getType().name());
+                generator.writeNumberField("orderId", event.getOrderId());
+                generator.writeNumberField("userId", event.getUserId());
+                generator.writeStringField("createdAt", event.getCreatedAt().toString());
+                // El payload ya es JSON
+                generator.writeFieldName("payload");
+                generator.writeRawValue(event.getPayload());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+}
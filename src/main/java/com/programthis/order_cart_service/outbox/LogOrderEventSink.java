@@ -0,0 +1,22 @@
+package com.programthis.order_cart_service.outbox;
+
+import com.programthis.order_cart_service.model.OrderOutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+// Sink por defecto: una línea de log por evento en el logger "order-events", para desarrollo o para recogerlas
+// con el agente de logs
+public class LogOrderEventSink implements OrderEventSink {
+
+    private static final Logger log = LoggerFactory.getLogger("order-events");
+
+    @Override
+    public void publish(List<OrderOutboxEvent> events) {
+        for (OrderOutboxEvent event : events) {
+            log.info("order_event id={} type={} orderId={} userId={} payload={}",
+                    event.getId(), event.getType(), event.getOrderId(), event.getUserId(), event.getPayload());
+        }
+    }
+}
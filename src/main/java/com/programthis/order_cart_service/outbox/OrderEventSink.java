@@ -0,0 +1,15 @@
+package com.programthis.order_cart_service.outbox;
+
+import com.programthis.order_cart_service.model.OrderOutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+// Destino de los eventos de pedidos (cola, bus, fichero...). Recibe cada lote en orden de id; si lanza una excepción
+// el lote entero sigue en el outbox y se vuelve a entregar, así que la entrega es "al menos una vez" y el
+// consumidor descarta duplicados por el id del evento. Un bean propio de este tipo sustituye a los de OutboxConfig.
+public interface OrderEventSink {
+
+    // Debe volver sólo cuando los eventos estén entregados de forma duradera
+    void publish(List<OrderOutboxEvent> events) throws IOException;
+}
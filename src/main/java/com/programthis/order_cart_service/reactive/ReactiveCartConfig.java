@@ -0,0 +1,32 @@
+package com.programthis.order_cart_service.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveCartConfig {
+
+    // El gestor de transacciones R2DBC no se registra como bean: así @Transactional sigue resolviendo
+    // al JpaTransactionManager y las transacciones reactivas se declaran con este TransactionalOperator
+    @Bean
+    public TransactionalOperator cartTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Bean
+    public WebClient productCatalogWebClient(WebClient.Builder builder,
+                                             @Value("${product-catalog-service.url}") String productCatalogServiceUrl,
+                                             @Value("${product-catalog-service.accept:application/cbor, application/json;q=0.9}") String accept) {
+        return builder.baseUrl(productCatalogServiceUrl)
+                .defaultHeader(HttpHeaders.ACCEPT, accept)
+                .build();
+    }
+}
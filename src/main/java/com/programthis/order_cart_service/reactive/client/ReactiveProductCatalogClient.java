@@ -0,0 +1,41 @@
+package com.programthis.order_cart_service.reactive.client;
+
+import com.programthis.order_cart_service.dto.ProductDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Equivalente no bloqueante de ProductCatalogServiceClient: vacío si el producto no existe o el catálogo falla
+@Component
+@Profile("reactive")
+public class ReactiveProductCatalogClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveProductCatalogClient.class);
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final WebClient webClient;
+
+    @Autowired
+    public ReactiveProductCatalogClient(@Qualifier("productCatalogWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    public Mono<ProductDto> getProductById(Long productId) {
+        return webClient.get()
+                .uri("/api/products/{productId}", productId)
+                .retrieve()
+                .bodyToMono(ProductDto.class)
+                .timeout(TIMEOUT)
+                .onErrorResume(e -> {
+                    log.warn("Error al obtener producto {} del Product Catalog Service: {}", productId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
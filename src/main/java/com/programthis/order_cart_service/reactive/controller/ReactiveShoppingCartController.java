@@ -0,0 +1,163 @@
+package com.programthis.order_cart_service.reactive.controller;
+
+import com.programthis.order_cart_service.controller.LinkTemplate;
+import com.programthis.order_cart_service.controller.ShoppingCartController;
+import com.programthis.order_cart_service.dto.CartItemResponse;
+import com.programthis.order_cart_service.dto.ShoppingCartResponse;
+import com.programthis.order_cart_service.reactive.model.CartItemRow;
+import com.programthis.order_cart_service.reactive.model.CartRow;
+import com.programthis.order_cart_service.reactive.service.CartView;
+import com.programthis.order_cart_service.reactive.service.ReactiveShoppingCartService;
+import com.programthis.order_cart_service.web.ETags;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Variante reactiva de ShoppingCartController (perfil reactive): mismas rutas, mismos cuerpos HAL y ETags,
+// pero sin bloquear hilos: R2DBC para la base de datos y WebClient para el catálogo. Se sirve desde Spring MVC
+// (el Mono se resuelve como petición asíncrona), así que filtros, interceptores y advices siguen aplicando
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/carts")
+@Tag(name = "Shopping Cart Management", description = "APIs for managing user shopping carts")
+public class ReactiveShoppingCartController {
+
+    // Las rutas son las de ShoppingCartController, así que se reutilizan sus plantillas
+    private static final LinkTemplate CART_LINK = LinkTemplate.of(ShoppingCartController.class, "getOrCreateCart", Long.class);
+    private static final LinkTemplate ADD_ITEM_LINK = LinkTemplate.of(ShoppingCartController.class, "addProductToCart", Long.class, Long.class, Integer.class, String.class, String.class);
+    private static final LinkTemplate CLEAR_CART_LINK = LinkTemplate.of(ShoppingCartController.class, "clearCart", Long.class, String.class, String.class);
+    private static final LinkRelation ADD_ITEM_REL = LinkRelation.of("add-item");
+    private static final LinkRelation CLEAR_CART_REL = LinkRelation.of("clear-cart");
+
+    private final ReactiveShoppingCartService shoppingCartService;
+
+    @Autowired
+    public ReactiveShoppingCartController(ReactiveShoppingCartService shoppingCartService) {
+        this.shoppingCartService = shoppingCartService;
+    }
+
+    private ResponseEntity<EntityModel<ShoppingCartResponse>> toResponse(CartView view, String baseUri) {
+        CartRow cart = view.cart();
+        List<CartItemResponse> items = new ArrayList<>(view.items().size());
+        for (CartItemRow item : view.items()) {
+            items.add(new CartItemResponse(item.getId(), item.getProductId(), item.getQuantity(), item.getPriceAtAddition(),
+                    item.getCreatedAt(), item.getUpdatedAt()));
+        }
+        ShoppingCartResponse body = new ShoppingCartResponse(cart.getId(), cart.getUserId(), items,
+                cart.getCreatedAt(), cart.getUpdatedAt(), cart.getVersion());
+
+        EntityModel<ShoppingCartResponse> model = EntityModel.of(body,
+                CART_LINK.toLink(baseUri, IanaLinkRelations.SELF, cart.getUserId()),
+                ADD_ITEM_LINK.toLink(baseUri, ADD_ITEM_REL, cart.getUserId(), null, null),
+                CLEAR_CART_LINK.toLink(baseUri, CLEAR_CART_REL, cart.getUserId()));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (cart.getVersion() != null) {
+            response.eTag(ETags.of(cart.getVersion()));
+        }
+        return response.body(model);
+    }
+
+    // If-Match: la modificación sólo se ejecuta si la versión actual coincide (si no, 412)
+    private Mono<ResponseEntity<EntityModel<ShoppingCartResponse>>> ifMatch(
+            Long userId, String ifMatch, Supplier<Mono<ResponseEntity<EntityModel<ShoppingCartResponse>>>> mutation) {
+        if (ifMatch == null) {
+            return mutation.get();
+        }
+        return shoppingCartService.getCartVersion(userId)
+                .map(ETags::of)
+                .defaultIfEmpty("")
+                .flatMap(etag -> {
+                    if (!etag.isEmpty() && ETags.ifMatchPasses(ifMatch, etag)) {
+                        return mutation.get();
+                    }
+                    ResponseEntity.BodyBuilder failed = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+                    if (!etag.isEmpty()) {
+                        failed.eTag(etag);
+                    }
+                    ResponseEntity<EntityModel<ShoppingCartResponse>> rejected = failed.build();
+                    return Mono.just(rejected);
+                });
+    }
+
+    @Operation(summary = "Get or create a shopping cart for a user")
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<EntityModel<ShoppingCartResponse>>> getOrCreateCart(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // La URI base se toma en el hilo de la petición: el Mono se completa en otro hilo sin petición ligada
+        String baseUri = LinkTemplate.currentBaseUri();
+        Mono<ResponseEntity<EntityModel<ShoppingCartResponse>>> full = Mono.defer(() ->
+                shoppingCartService.getOrCreateShoppingCart(userId).map(view -> toResponse(view, baseUri)));
+        if (ifNoneMatch == null) {
+            return full;
+        }
+        // Sólo se consulta la versión; si coincide, 304 sin leer las líneas
+        return shoppingCartService.getCartVersion(userId)
+                .map(ETags::of)
+                .filter(etag -> ETags.noneMatchHits(ifNoneMatch, etag))
+                .map(etag -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<EntityModel<ShoppingCartResponse>>build())
+                .switchIfEmpty(full);
+    }
+
+    @Operation(summary = "Add a product to the cart")
+    @PostMapping("/{userId}/items")
+    public Mono<ResponseEntity<EntityModel<ShoppingCartResponse>>> addProductToCart(
+            @PathVariable Long userId,
+            @RequestParam Long productId,
+            @RequestParam Integer quantity,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String baseUri = LinkTemplate.currentBaseUri();
+        return ifMatch(userId, ifMatch, () -> shoppingCartService.addProductToCart(userId, productId, quantity)
+                .map(view -> toResponse(view, baseUri))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.badRequest().build())));
+    }
+
+    @Operation(summary = "Update product quantity in the cart")
+    @PutMapping("/{userId}/items/{productId}")
+    public Mono<ResponseEntity<EntityModel<ShoppingCartResponse>>> updateProductQuantityInCart(
+            @PathVariable Long userId,
+            @PathVariable Long productId,
+            @RequestParam Integer newQuantity,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String baseUri = LinkTemplate.currentBaseUri();
+        return ifMatch(userId, ifMatch, () -> shoppingCartService.updateProductQuantityInCart(userId, productId, newQuantity)
+                .map(view -> toResponse(view, baseUri))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build())));
+    }
+
+    @Operation(summary = "Remove a product from the cart")
+    @DeleteMapping("/{userId}/items/{productId}")
+    public Mono<ResponseEntity<EntityModel<ShoppingCartResponse>>> removeProductFromCart(
+            @PathVariable Long userId,
+            @PathVariable Long productId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String baseUri = LinkTemplate.currentBaseUri();
+        return ifMatch(userId, ifMatch, () -> shoppingCartService.removeProductFromCart(userId, productId)
+                .map(view -> toResponse(view, baseUri))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build())));
+    }
+
+    @Operation(summary = "Clear all items from the cart")
+    @DeleteMapping("/{userId}/clear")
+    public Mono<ResponseEntity<EntityModel<ShoppingCartResponse>>> clearCart(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String baseUri = LinkTemplate.currentBaseUri();
+        return ifMatch(userId, ifMatch, () -> shoppingCartService.clearCart(userId)
+                .map(view -> toResponse(view, baseUri))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build())));
+    }
+}
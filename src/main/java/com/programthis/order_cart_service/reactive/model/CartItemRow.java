@@ -0,0 +1,38 @@
+package com.programthis.order_cart_service.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Fila de cart_items para R2DBC (misma tabla que la entidad JPA CartItem)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("cart_items")
+public class CartItemRow {
+    @Id
+    private Long id;
+
+    @Column("cart_id")
+    private Long cartId;
+
+    @Column("product_id")
+    private Long productId;
+
+    private Integer quantity;
+
+    @Column("price_at_addition")
+    private BigDecimal priceAtAddition;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.programthis.order_cart_service.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// Fila de shopping_carts para R2DBC (misma tabla que la entidad JPA ShoppingCart)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("shopping_carts")
+public class CartRow {
+    @Id
+    private Long id;
+
+    @Column("user_id")
+    private Long userId;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    // Misma columna version que usa JPA, así los ETags son los mismos en ambas variantes
+    @Version
+    private Long version;
+}
@@ -0,0 +1,21 @@
+package com.programthis.order_cart_service.reactive.repository;
+
+import com.programthis.order_cart_service.reactive.model.CartItemRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface CartItemRowRepository extends R2dbcRepository<CartItemRow, Long> {
+    Flux<CartItemRow> findByCartIdOrderById(Long cartId);
+
+    Mono<CartItemRow> findByCartIdAndProductId(Long cartId, Long productId);
+
+    @Modifying
+    @Query("DELETE FROM cart_items WHERE cart_id = :cartId")
+    Mono<Integer> deleteAllByCartId(@Param("cartId") Long cartId);
+}
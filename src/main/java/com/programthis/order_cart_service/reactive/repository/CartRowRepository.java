@@ -0,0 +1,17 @@
+package com.programthis.order_cart_service.reactive.repository;
+
+import com.programthis.order_cart_service.reactive.model.CartRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface CartRowRepository extends R2dbcRepository<CartRow, Long> {
+    Mono<CartRow> findByUserId(Long userId);
+
+    // Sólo la versión, para If-None-Match / If-Match sin leer las líneas
+    @Query("SELECT version FROM shopping_carts WHERE user_id = :userId")
+    Mono<Long> findVersionByUserId(@Param("userId") Long userId);
+}
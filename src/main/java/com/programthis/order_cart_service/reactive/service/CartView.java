@@ -0,0 +1,10 @@
+package com.programthis.order_cart_service.reactive.service;
+
+import com.programthis.order_cart_service.reactive.model.CartItemRow;
+import com.programthis.order_cart_service.reactive.model.CartRow;
+
+import java.util.List;
+
+// Carrito con sus líneas, tal como lo devuelve ReactiveShoppingCartService
+public record CartView(CartRow cart, List<CartItemRow> items) {
+}
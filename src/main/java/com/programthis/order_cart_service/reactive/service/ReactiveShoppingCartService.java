@@ -0,0 +1,136 @@
+package com.programthis.order_cart_service.reactive.service;
+
+import com.programthis.order_cart_service.reactive.client.ReactiveProductCatalogClient;
+import com.programthis.order_cart_service.reactive.model.CartItemRow;
+import com.programthis.order_cart_service.reactive.model.CartRow;
+import com.programthis.order_cart_service.reactive.repository.CartItemRowRepository;
+import com.programthis.order_cart_service.reactive.repository.CartRowRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Misma lógica que ShoppingCartService sobre R2DBC. Cada modificación corre en una transacción reactiva
+// y termina "tocando" el carrito para actualizar updated_at y la versión (ETag).
+@Service
+@Profile("reactive")
+public class ReactiveShoppingCartService {
+
+    private final CartRowRepository cartRowRepository;
+    private final CartItemRowRepository cartItemRowRepository;
+    private final ReactiveProductCatalogClient productCatalogClient;
+    private final TransactionalOperator transactionalOperator;
+
+    @Autowired
+    public ReactiveShoppingCartService(CartRowRepository cartRowRepository,
+                                       CartItemRowRepository cartItemRowRepository,
+                                       ReactiveProductCatalogClient productCatalogClient,
+                                       @Qualifier("cartTransactionalOperator") TransactionalOperator transactionalOperator) {
+        this.cartRowRepository = cartRowRepository;
+        this.cartItemRowRepository = cartItemRowRepository;
+        this.productCatalogClient = productCatalogClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    // Obtener o crear un carrito para un usuario
+    public Mono<CartView> getOrCreateShoppingCart(Long userId) {
+        return findOrCreateCart(userId).flatMap(this::view);
+    }
+
+    // Versión actual del carrito (vacío si no existe)
+    public Mono<Long> getCartVersion(Long userId) {
+        return cartRowRepository.findVersionByUserId(userId);
+    }
+
+    // Añadir producto al carrito; el precio se obtiene del catálogo antes de abrir la transacción
+    public Mono<CartView> addProductToCart(Long userId, Long productId, Integer quantity) {
+        return productCatalogClient.getProductById(productId)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Producto con ID " + productId + " no encontrado en el catálogo. No se puede añadir al carrito.")))
+                .flatMap(product -> findOrCreateCart(userId)
+                        .flatMap(cart -> cartItemRowRepository.findByCartIdAndProductId(cart.getId(), productId)
+                                .flatMap(item -> {
+                                    // El priceAtAddition se mantiene el original del momento de la primera adición
+                                    item.setQuantity(item.getQuantity() + quantity);
+                                    item.setUpdatedAt(LocalDateTime.now());
+                                    return cartItemRowRepository.save(item);
+                                })
+                                .switchIfEmpty(Mono.defer(() -> cartItemRowRepository.save(newItem(cart.getId(), productId, quantity, product.getPrice()))))
+                                .then(touchAndView(cart)))
+                        .as(transactionalOperator::transactional));
+    }
+
+    // Actualizar cantidad; 0 o menos elimina la línea
+    public Mono<CartView> updateProductQuantityInCart(Long userId, Long productId, Integer newQuantity) {
+        return existingCart(userId)
+                .flatMap(cart -> cartItemRowRepository.findByCartIdAndProductId(cart.getId(), productId)
+                        .switchIfEmpty(Mono.error(() -> new RuntimeException("Producto con ID " + productId + " no encontrado en el carrito para actualizar.")))
+                        .flatMap(item -> {
+                            if (newQuantity <= 0) {
+                                return cartItemRowRepository.delete(item);
+                            }
+                            item.setQuantity(newQuantity);
+                            item.setUpdatedAt(LocalDateTime.now());
+                            return cartItemRowRepository.save(item).then();
+                        })
+                        .then(touchAndView(cart)))
+                .as(transactionalOperator::transactional);
+    }
+
+    // Eliminar un producto del carrito
+    public Mono<CartView> removeProductFromCart(Long userId, Long productId) {
+        return existingCart(userId)
+                .flatMap(cart -> cartItemRowRepository.findByCartIdAndProductId(cart.getId(), productId)
+                        .switchIfEmpty(Mono.error(() -> new RuntimeException("Producto con ID " + productId + " no encontrado en el carrito para eliminar.")))
+                        .flatMap(cartItemRowRepository::delete)
+                        .then(touchAndView(cart)))
+                .as(transactionalOperator::transactional);
+    }
+
+    // Vaciar el carrito
+    public Mono<CartView> clearCart(Long userId) {
+        return existingCart(userId)
+                .flatMap(cart -> cartItemRowRepository.deleteAllByCartId(cart.getId())
+                        .then(touchAndView(cart)))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<CartRow> existingCart(Long userId) {
+        return cartRowRepository.findByUserId(userId)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Carrito no encontrado para el usuario: " + userId)));
+    }
+
+    // Si dos peticiones crean a la vez el carrito del mismo usuario, la restricción única de user_id
+    // rechaza el segundo INSERT y se lee el carrito que ganó
+    private Mono<CartRow> findOrCreateCart(Long userId) {
+        return cartRowRepository.findByUserId(userId)
+                .switchIfEmpty(Mono.defer(() -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    return cartRowRepository.save(new CartRow(null, userId, now, now, null))
+                            .onErrorResume(DataIntegrityViolationException.class, e -> cartRowRepository.findByUserId(userId));
+                }));
+    }
+
+    private Mono<CartView> touchAndView(CartRow cart) {
+        return Mono.defer(() -> {
+            cart.setUpdatedAt(LocalDateTime.now());
+            return cartRowRepository.save(cart);
+        }).flatMap(this::view);
+    }
+
+    private Mono<CartView> view(CartRow cart) {
+        return cartItemRowRepository.findByCartIdOrderById(cart.getId())
+                .collectList()
+                .map(items -> new CartView(cart, items));
+    }
+
+    private static CartItemRow newItem(Long cartId, Long productId, Integer quantity, BigDecimal priceAtAddition) {
+        LocalDateTime now = LocalDateTime.now();
+        return new CartItemRow(null, cartId, productId, quantity, priceAtAddition, now, now);
+    }
+}
@@ -0,0 +1,94 @@
+package com.programthis.order_cart_service.replica;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Ventana read-your-writes: durante "windowMs" después de confirmar un cambio en el carrito o los pedidos de un
+// usuario (o en un pedido concreto), sus lecturas van al primario aunque sean de sólo lectura, así no ve un estado
+// anterior al que acaba de escribir mientras la réplica se pone al día. La ventana debe cubrir el retraso máximo
+// admitido (replicas.max-lag-ms). Es memoria local: con varias instancias hace falta afinidad de sesión por usuario.
+// Sin réplicas (replicas.enabled=false) no guarda nada.
+@Component
+public class ReadYourWrites {
+
+    // Por encima de este número de entradas se purgan las caducadas al abrir una nueva ventana
+    static final int PURGE_THRESHOLD = 10_000;
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final Map<Long, Long> userDeadlines = new ConcurrentHashMap<>();
+    private final Map<Long, Long> orderDeadlines = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReadYourWrites(@Value("${replicas.enabled:false}") boolean enabled,
+                          @Value("${replicas.read-your-writes-ms:5000}") long windowMs) {
+        this(enabled, windowMs, System::nanoTime);
+    }
+
+    ReadYourWrites(boolean enabled, long windowMs, LongSupplier clock) {
+        this.enabled = enabled && windowMs > 0;
+        this.windowNanos = windowMs * 1_000_000;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // La ventana empieza al confirmar la transacción en curso (o ya, si no hay ninguna)
+    public void userWritten(Long userId) {
+        open(userDeadlines, userId);
+    }
+
+    public void orderWritten(Long orderId) {
+        open(orderDeadlines, orderId);
+    }
+
+    public boolean isUserPinned(Long userId) {
+        return isOpen(userDeadlines, userId);
+    }
+
+    public boolean isOrderPinned(Long orderId) {
+        return isOpen(orderDeadlines, orderId);
+    }
+
+    private void open(Map<Long, Long> deadlines, Long key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    openNow(deadlines, key);
+                }
+            });
+        } else {
+            openNow(deadlines, key);
+        }
+    }
+
+    private void openNow(Map<Long, Long> deadlines, Long key) {
+        long now = clock.getAsLong();
+        if (deadlines.size() > PURGE_THRESHOLD) {
+            deadlines.values().removeIf(deadline -> deadline - now <= 0);
+        }
+        deadlines.put(key, now + windowNanos);
+    }
+
+    private boolean isOpen(Map<Long, Long> deadlines, Long key) {
+        if (!enabled || key == null) {
+            return false;
+        }
+        Long deadline = deadlines.get(key);
+        return deadline != null && deadline - clock.getAsLong() > 0;
+    }
+}
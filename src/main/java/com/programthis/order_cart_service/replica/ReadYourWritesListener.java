@@ -0,0 +1,43 @@
+package com.programthis.order_cart_service.replica;
+
+import com.programthis.order_cart_service.model.CartEvent;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Abre la ventana read-your-writes con cada INSERT/UPDATE/DELETE de un carrito o un pedido, venga de donde venga
+// (todas las operaciones del carrito incrementan su versión, así que también cubre los cambios sólo en las líneas),
+// y con cada evento del carrito con event sourcing.
+// Hibernate lo crea a través del contenedor de beans de Spring, que le pasa ReadYourWrites si existe. Sin ese bean
+// (un test de JPA que no lo importa) o creado por Hibernate sin Spring, no hace nada: no hay réplicas que proteger.
+public class ReadYourWritesListener {
+
+    private ObjectProvider<ReadYourWrites> readYourWrites;
+
+    @Autowired
+    void setReadYourWrites(ObjectProvider<ReadYourWrites> readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void written(Object entity) {
+        ReadYourWrites window = readYourWrites != null ? readYourWrites.getIfAvailable() : null;
+        if (window == null || !window.isEnabled()) {
+            return;
+        }
+        if (entity instanceof ShoppingCart cart) {
+            window.userWritten(cart.getUserId());
+        } else if (entity instanceof CartEvent event) {
+            window.userWritten(event.getUserId());
+        } else if (entity instanceof Order order) {
+            window.userWritten(order.getUserId());
+            window.orderWritten(order.getId());
+        }
+    }
+}
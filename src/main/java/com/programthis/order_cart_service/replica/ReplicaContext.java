@@ -0,0 +1,36 @@
+package com.programthis.order_cart_service.replica;
+
+// Marca el hilo para que también las transacciones de sólo lectura usen el primario: peticiones que escriben
+// (If-Match necesita la versión real) y lecturas dentro de la ventana read-your-writes del usuario o pedido.
+// Lo fija ReadYourWritesInterceptor antes de que nada toque la base de datos; ReplicaRoutingDataSource lo consulta
+// al obtener la conexión.
+public final class ReplicaContext {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    // Fija el primario para las lecturas del hilo; al cerrar el resultado se restaura lo anterior
+    public static Binding pinToPrimary() {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        return () -> {
+            if (previous != null) {
+                PINNED.set(previous);
+            } else {
+                PINNED.remove();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
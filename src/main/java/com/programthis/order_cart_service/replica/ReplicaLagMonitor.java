@@ -0,0 +1,63 @@
+package com.programthis.order_cart_service.replica;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Mide periódicamente el retraso de cada réplica con "lagQuery" (por defecto SHOW REPLICA STATUS, columna
+// Seconds_Behind_Source) y actualiza ReplicaSelector. Sin filas, con la columna a NULL (replicación parada) o si la
+// consulta falla la réplica deja de recibir lecturas hasta la siguiente medición correcta.
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final List<? extends DataSource> replicas;
+    private final ReplicaSelector selector;
+    private final String lagQuery;
+    private final String lagColumn;
+
+    public ReplicaLagMonitor(List<? extends DataSource> replicas, ReplicaSelector selector, String lagQuery, String lagColumn) {
+        this.replicas = List.copyOf(replicas);
+        this.selector = selector;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+    }
+
+    @Scheduled(fixedDelayString = "${replicas.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            boolean wasHealthy = selector.isHealthy(replica);
+            selector.update(replica, lagMillis(replicas.get(replica)));
+            boolean healthy = selector.isHealthy(replica);
+            if (wasHealthy && !healthy) {
+                log.warn("Réplica {} retrasada o sin replicar (lag_ms={}): sus lecturas van al primario",
+                        replica, selector.lagMillis(replica));
+            } else if (!wasHealthy && healthy) {
+                log.info("Réplica {} al día (lag_ms={}): vuelve a recibir lecturas", replica, selector.lagMillis(replica));
+            }
+        }
+    }
+
+    // Retraso en milisegundos (la consulta lo da en segundos), o null si no se puede saber
+    Long lagMillis(DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            long seconds = resultSet.getLong(lagColumn);
+            return resultSet.wasNull() ? null : seconds * 1000;
+        } catch (SQLException e) {
+            log.debug("No se pudo medir el retraso de una réplica", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.programthis.order_cart_service.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Entrega conexiones de una réplica (round-robin entre las que están al día) a las transacciones
+// @Transactional(readOnly = true), y del primario a todo lo demás: escrituras, trabajo fuera de transacción
+// (cargas perezosas con open-in-view, Flyway) y lecturas fijadas al primario (ReplicaContext).
+// Va detrás de un LazyConnectionDataSourceProxy: la conexión real se pide en la primera sentencia, cuando la marca de
+// sólo lectura de la transacción ya está publicada en TransactionSynchronizationManager.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    // Destino de cada transacción de sólo lectura
+    public enum ReadRoute {
+        REPLICA, READ_YOUR_WRITES, REPLICA_LAG
+    }
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReplicaSelector selector;
+    private final Map<ReadRoute, LongAdder> reads = new EnumMap<>(ReadRoute.class);
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, ReplicaSelector selector) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selector = selector;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            targets.put(replica, replicas.get(replica));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        for (ReadRoute route : ReadRoute.values()) {
+            reads.put(route, new LongAdder());
+        }
+    }
+
+    public List<HikariDataSource> replicas() {
+        return replicas;
+    }
+
+    public ReplicaSelector selector() {
+        return selector;
+    }
+
+    // Transacciones de sólo lectura que han ido por "route" desde el arranque
+    public long reads(ReadRoute route) {
+        return reads.get(route).sum();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (ReplicaContext.isPinnedToPrimary()) {
+            reads.get(ReadRoute.READ_YOUR_WRITES).increment();
+            return PRIMARY;
+        }
+        int replica = selector.next();
+        if (replica < 0) {
+            reads.get(ReadRoute.REPLICA_LAG).increment();
+            return PRIMARY;
+        }
+        reads.get(ReadRoute.REPLICA).increment();
+        return replica;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
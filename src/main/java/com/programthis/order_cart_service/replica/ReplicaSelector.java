@@ -0,0 +1,58 @@
+package com.programthis.order_cart_service.replica;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Estado de las réplicas (último retraso medido por ReplicaLagMonitor) y reparto round-robin entre las que están
+// al día. Una réplica sin medición, que no replica o con más retraso que maxLagMillis no recibe lecturas.
+public class ReplicaSelector {
+
+    static final long UNKNOWN = -1;
+
+    private final AtomicLongArray lagMillis;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSelector(int replicaCount, long maxLagMillis) {
+        if (replicaCount < 1) {
+            throw new IllegalArgumentException("Hace falta al menos una réplica");
+        }
+        this.lagMillis = new AtomicLongArray(replicaCount);
+        this.maxLagMillis = maxLagMillis;
+        for (int replica = 0; replica < replicaCount; replica++) {
+            lagMillis.set(replica, UNKNOWN);
+        }
+    }
+
+    public int replicaCount() {
+        return lagMillis.length();
+    }
+
+    // null si no se pudo medir (réplica caída, replicación parada...)
+    public void update(int replica, Long lag) {
+        lagMillis.set(replica, lag != null && lag >= 0 ? lag : UNKNOWN);
+    }
+
+    public boolean isHealthy(int replica) {
+        long lag = lagMillis.get(replica);
+        return lag != UNKNOWN && lag <= maxLagMillis;
+    }
+
+    // Retraso en milisegundos, o -1 si no se conoce
+    public long lagMillis(int replica) {
+        return lagMillis.get(replica);
+    }
+
+    // Siguiente réplica al día en orden round-robin, o -1 si no hay ninguna
+    public int next() {
+        int count = lagMillis.length();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            int replica = (start + i) % count;
+            if (isHealthy(replica)) {
+                return replica;
+            }
+        }
+        return -1;
+    }
+}
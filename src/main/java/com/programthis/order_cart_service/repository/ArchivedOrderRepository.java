@@ -0,0 +1,59 @@
+package com.programthis.order_cart_service.repository;
+
+import com.programthis.order_cart_service.model.ArchivedOrder;
+import com.programthis.order_cart_service.model.ArchivedOrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    // Historial archivado de un usuario, mismo orden que OrderRepository
+    List<ArchivedOrder> findByUserIdOrderByOrderDateDesc(Long userId);
+
+    // Los archivados anteriores al sharding (ID hasta maxOrderId), en el shard 0
+    List<ArchivedOrder> findByUserIdAndIdLessThanEqualOrderByOrderDateDesc(Long userId, Long maxOrderId);
+
+    // Mismo recorrido por cursor que OrderRepository.streamByOrderDateRange, sobre el archivo (usa idx_orders_archive_order_date)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select a from ArchivedOrder a where a.orderDate >= :from and a.orderDate < :to order by a.id")
+    Stream<ArchivedOrder> streamByOrderDateRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Líneas archivadas de varios pedidos en una sola consulta, ordenadas por pedido
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select i from ArchivedOrderItem i where i.order.id in :orderIds order by i.order.id, i.id")
+    List<ArchivedOrderItem> findItemsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Sólo la versión, para resolver peticiones condicionales sin cargar el pedido
+    @Query("select a.version from ArchivedOrder a where a.id = :orderId")
+    Optional<Long> findVersionById(@Param("orderId") Long orderId);
+
+    // Copia un lote de pedidos a la tabla de archivo con un único INSERT ... SELECT
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, user_id, order_date, total_amount, status, shipping_address, payment_method, created_at, updated_at, version, archived_at) "
+            + "SELECT id, user_id, order_date, total_amount, status, shipping_address, payment_method, created_at, updated_at, version, :archivedAt "
+            + "FROM orders WHERE id IN (:orderIds)", nativeQuery = true)
+    int copyOrdersToArchive(@Param("orderIds") Collection<Long> orderIds, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // Copia las líneas de ese mismo lote de pedidos
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (id, order_id, product_id, product_name, quantity, unit_price, subtotal, created_at, updated_at) "
+            + "SELECT id, order_id, product_id, product_name, quantity, unit_price, subtotal, created_at, updated_at "
+            + "FROM order_items WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int copyOrderItemsToArchive(@Param("orderIds") Collection<Long> orderIds);
+}
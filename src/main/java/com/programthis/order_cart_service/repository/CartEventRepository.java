@@ -0,0 +1,26 @@
+package com.programthis.order_cart_service.repository;
+
+import com.programthis.order_cart_service.model.CartEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CartEventRepository extends JpaRepository<CartEvent, Long> {
+
+    // Eventos posteriores al snapshot de cada usuario (todos si no tiene), en orden; usa el índice único
+    // (user_id, event_seq)
+    @Query("select e from CartEvent e where e.userId in :userIds"
+            + " and e.sequence > coalesce((select s.sequence from CartSnapshot s where s.userId = e.userId), 0)"
+            + " order by e.userId, e.sequence")
+    List<CartEvent> findTailsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Versión actual del carrito: el número del último evento
+    @Query("select max(e.sequence) from CartEvent e where e.userId = :userId")
+    Optional<Long> findLastSequenceByUserId(@Param("userId") Long userId);
+}
@@ -2,12 +2,29 @@ package com.programthis.order_cart_service.repository;
 
 import com.programthis.order_cart_service.model.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // Método personalizado para encontrar todos los ítems de un carrito específico
     List<CartItem> findByCartId(Long cartId);
-}
\ No newline at end of file
+
+    // Una sola línea del carrito, sin inicializar la colección items
+    Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId);
+
+    // Número de líneas, unidades e importe del carrito en una única consulta agregada
+    @Query("select count(i) as itemCount, sum(i.quantity) as totalQuantity, sum(i.priceAtAddition * i.quantity) as totalAmount "
+            + "from CartItem i where i.cart.id = :cartId")
+    CartTotals summarizeByCartId(@Param("cartId") Long cartId);
+
+    // Vacía el carrito con un único DELETE
+    @Modifying
+    @Query("delete from CartItem i where i.cart.id = :cartId")
+    int deleteAllByCartId(@Param("cartId") Long cartId);
+}
@@ -0,0 +1,9 @@
+package com.programthis.order_cart_service.repository;
+
+import com.programthis.order_cart_service.model.CartSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CartSnapshotRepository extends JpaRepository<CartSnapshot, Long> {
+}
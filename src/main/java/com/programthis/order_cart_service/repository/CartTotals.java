@@ -0,0 +1,13 @@
+package com.programthis.order_cart_service.repository;
+
+import java.math.BigDecimal;
+
+// Totales de un carrito calculados en la base de datos (proyección de CartItemRepository.summarizeByCartId).
+// Las sumas son null si el carrito no tiene líneas.
+public interface CartTotals {
+    Long getItemCount();
+
+    Long getTotalQuantity();
+
+    BigDecimal getTotalAmount();
+}
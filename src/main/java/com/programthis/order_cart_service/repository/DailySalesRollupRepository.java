@@ -0,0 +1,34 @@
+package com.programthis.order_cart_service.repository;
+
+import com.programthis.order_cart_service.model.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, DailySalesRollup.Key> {
+    // Filas (buckets) de un día o de un rango de días; el acumulado de cada día es su suma
+    List<DailySalesRollup> findBySalesDate(LocalDate salesDate);
+
+    List<DailySalesRollup> findBySalesDateBetweenOrderBySalesDate(LocalDate from, LocalDate to);
+
+    // Suma (o resta, con valores negativos) un pedido a una de las filas del día en una sola sentencia atómica
+    @Modifying
+    @Query(value = "INSERT INTO sales_rollup_daily (sales_date, bucket, order_count, units, revenue, updated_at) "
+            + "VALUES (:salesDate, :bucket, :orderCount, :units, :revenue, :updatedAt) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), units = units + VALUES(units), "
+            + "revenue = revenue + VALUES(revenue), updated_at = VALUES(updated_at)", nativeQuery = true)
+    int increment(@Param("salesDate") LocalDate salesDate,
+                  @Param("bucket") int bucket,
+                  @Param("orderCount") long orderCount,
+                  @Param("units") long units,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -1,13 +1,30 @@
 package com.programthis.order_cart_service.repository;
 
 import com.programthis.order_cart_service.model.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     // Método personalizado para encontrar todos los ítems de un pedido específico
     List<OrderItem> findByOrderId(Long orderId);
+
+    // Líneas de varios pedidos en una sola consulta, ordenadas por pedido
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select i from OrderItem i where i.order.id in :orderIds order by i.order.id, i.id")
+    List<OrderItem> findByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Borrado masivo de las líneas de un lote de pedidos archivados
+    @Modifying(clearAutomatically = true)
+    @Query("delete from OrderItem i where i.order.id in :orderIds")
+    int deleteAllByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
\ No newline at end of file
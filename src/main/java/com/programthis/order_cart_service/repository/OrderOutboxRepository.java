@@ -0,0 +1,34 @@
+package com.programthis.order_cart_service.repository;
+
+import com.programthis.order_cart_service.model.OrderOutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    // Los eventos más antiguos, en orden de id y bloqueados (SELECT ... FOR UPDATE) hasta el final de la transacción:
+    // otro relay que lea a la vez espera y después sólo ve lo que quede, así que el orden se mantiene
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OrderOutboxEvent e order by e.id")
+    List<OrderOutboxEvent> findOldestForUpdate(Pageable pageable);
+
+    @Query("select min(e.createdAt) from OrderOutboxEvent e")
+    Optional<LocalDateTime> findOldestCreatedAt();
+
+    // Borrado en bloque de un lote ya publicado
+    @Modifying(clearAutomatically = true)
+    @Query("delete from OrderOutboxEvent e where e.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
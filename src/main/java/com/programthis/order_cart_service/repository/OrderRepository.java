@@ -1,13 +1,53 @@
 package com.programthis.order_cart_service.repository;
 
 import com.programthis.order_cart_service.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     // Método personalizado para encontrar todos los pedidos de un usuario específico
     List<Order> findByUserIdOrderByOrderDateDesc(Long userId);
-}
\ No newline at end of file
+
+    // Pedidos de un usuario anteriores al sharding (ID hasta maxOrderId), que siguen en el shard 0
+    List<Order> findByUserIdAndIdLessThanEqualOrderByOrderDateDesc(Long userId, Long maxOrderId);
+
+    // Sólo la versión, para resolver peticiones condicionales sin cargar el pedido ni sus líneas
+    @Query("select o.version from Order o where o.id = :orderId")
+    Optional<Long> findVersionById(@Param("orderId") Long orderId);
+
+    // Recorre los pedidos de un rango de fechas con un cursor del servidor (requiere useCursorFetch=true en MySQL).
+    // Debe consumirse dentro de una transacción y cerrarse al terminar.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select o from Order o where o.orderDate >= :from and o.orderDate < :to order by o.id")
+    Stream<Order> streamByOrderDateRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // IDs de los pedidos más antiguos que la fecha de corte y ya en un estado final, por lotes
+    // (usa idx_orders_order_date; el estado se filtra sobre las filas anteriores al corte)
+    @Query("select o.id from Order o where o.orderDate < :cutoff and o.status in :statuses order by o.orderDate")
+    List<Long> findIdsByOrderDateBeforeAndStatusIn(@Param("cutoff") LocalDateTime cutoff,
+                                                   @Param("statuses") Collection<String> statuses,
+                                                   Pageable pageable);
+
+    // Borrado masivo de un lote ya copiado al archivo (las líneas se borran antes en OrderItemRepository)
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Order o where o.id in :orderIds")
+    int deleteAllByIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,26 @@
+package com.programthis.order_cart_service.repository;
+
+import com.programthis.order_cart_service.model.ProductSalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProductSalesRollupRepository extends JpaRepository<ProductSalesRollup, Long> {
+    // Suma (o resta, con valores negativos) las líneas de un pedido al acumulado del producto
+    @Modifying
+    @Query(value = "INSERT INTO sales_rollup_product (product_id, order_count, units, revenue, updated_at) "
+            + "VALUES (:productId, :orderCount, :units, :revenue, :updatedAt) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), units = units + VALUES(units), "
+            + "revenue = revenue + VALUES(revenue), updated_at = VALUES(updated_at)", nativeQuery = true)
+    int increment(@Param("productId") Long productId,
+                  @Param("orderCount") long orderCount,
+                  @Param("units") long units,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+}
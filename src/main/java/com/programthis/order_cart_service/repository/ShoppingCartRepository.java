@@ -2,12 +2,23 @@ package com.programthis.order_cart_service.repository;
 
 import com.programthis.order_cart_service.model.ShoppingCart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
     // Método personalizado para encontrar un carrito por el ID del usuario
     Optional<ShoppingCart> findByUserId(Long userId);
+
+    // Carritos de varios usuarios con una sola consulta IN (las líneas se cargan por lotes, ver ShoppingCart.items)
+    List<ShoppingCart> findByUserIdIn(Collection<Long> userIds);
+
+    // Sólo la versión, para resolver peticiones condicionales sin cargar el carrito ni sus líneas
+    @Query("select c.version from ShoppingCart c where c.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.programthis.order_cart_service.scheduler;
+
+import com.programthis.order_cart_service.service.OrderArchiveService;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Ejecuta periódicamente el archivado de pedidos antiguos, lote a lote y shard a shard
+@Component
+@ConditionalOnProperty(name = "orders.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderArchiveScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveScheduler.class);
+
+    private final OrderArchiveService orderArchiveService;
+    private final ShardExecutor shardExecutor;
+
+    @Autowired
+    public OrderArchiveScheduler(OrderArchiveService orderArchiveService, ShardExecutor shardExecutor) {
+        this.orderArchiveService = orderArchiveService;
+        this.shardExecutor = shardExecutor;
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void archiveOldOrders() {
+        // La fecha de corte se fija al inicio para que la pasada termine aunque entren pedidos nuevos
+        LocalDateTime cutoff = orderArchiveService.archiveCutoff();
+        // Cada lote sigue siendo su propia transacción, sobre el shard fijado
+        shardExecutor.forEachShard(shard -> {
+            int total = 0;
+            int archived;
+            do {
+                archived = orderArchiveService.archiveBatch(cutoff);
+                total += archived;
+            } while (archived > 0);
+            log.info("Archivado de pedidos completado en el shard {}: {} pedidos anteriores a {}", shard, total, cutoff);
+        });
+    }
+}
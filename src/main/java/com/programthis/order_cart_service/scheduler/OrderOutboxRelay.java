@@ -0,0 +1,96 @@
+package com.programthis.order_cart_service.scheduler;
+
+import com.programthis.order_cart_service.model.OrderOutboxEvent;
+import com.programthis.order_cart_service.service.OrderOutboxService;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Vacía periódicamente el outbox de pedidos hacia el OrderEventSink, lote a lote y shard a shard.
+// Si un lote falla, ese shard se deja para la siguiente pasada (el intervalo hace de espera entre reintentos) y los
+// demás siguen. Métricas: orders.outbox.pending y orders.outbox.lag (antigüedad del evento pendiente más antiguo,
+// que sigue creciendo entre pasadas si el relay está atascado), orders.outbox.published, orders.outbox.failures y
+// orders.outbox.delivery (de la escritura del evento a su publicación)
+@Component
+@ConditionalOnProperty(name = "orders.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxRelay.class);
+
+    private final OrderOutboxService orderOutboxService;
+    private final ShardExecutor shardExecutor;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer delivery;
+    private volatile OrderOutboxService.Backlog backlog = OrderOutboxService.Backlog.EMPTY;
+
+    @Autowired
+    public OrderOutboxRelay(OrderOutboxService orderOutboxService, ShardExecutor shardExecutor, MeterRegistry meterRegistry) {
+        this.orderOutboxService = orderOutboxService;
+        this.shardExecutor = shardExecutor;
+        this.published = Counter.builder("orders.outbox.published")
+                .description("Eventos de pedidos publicados en el sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("orders.outbox.failures")
+                .description("Lotes del outbox que no se pudieron publicar")
+                .register(meterRegistry);
+        this.delivery = Timer.builder("orders.outbox.delivery")
+                .description("Tiempo desde que se escribe un evento hasta que se publica")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("orders.outbox.pending", this, relay -> relay.backlog.pending())
+                .description("Eventos de pedidos pendientes de publicar")
+                .register(meterRegistry);
+        Gauge.builder("orders.outbox.lag", this, OrderOutboxRelay::lagSeconds)
+                .description("Antigüedad del evento pendiente más antiguo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        // Cada lote es su propia transacción, sobre el shard fijado
+        shardExecutor.forEachShard(shard -> {
+            try {
+                List<OrderOutboxEvent> batch;
+                do {
+                    batch = orderOutboxService.relayBatch();
+                    record(batch);
+                } while (!batch.isEmpty());
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("No se pudo publicar el outbox de pedidos del shard {}: se reintenta en la siguiente pasada", shard, e);
+            }
+        });
+        try {
+            backlog = orderOutboxService.backlog();
+        } catch (RuntimeException e) {
+            log.debug("No se pudo medir el outbox de pedidos", e);
+        }
+    }
+
+    private void record(List<OrderOutboxEvent> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        for (OrderOutboxEvent event : batch) {
+            delivery.record(Duration.between(event.getCreatedAt(), now));
+        }
+        published.increment(batch.size());
+    }
+
+    double lagSeconds() {
+        LocalDateTime oldest = backlog.oldestCreatedAt();
+        return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
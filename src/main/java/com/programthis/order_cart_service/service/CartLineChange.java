@@ -0,0 +1,10 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.CartTotals;
+
+// Resultado de una modificación "por línea" del carrito: el carrito (sin sus líneas cargadas),
+// la línea afectada (null si se eliminó o se vació el carrito) y los totales ya recalculados
+public record CartLineChange(ShoppingCart cart, Long productId, CartItem item, CartTotals totals) {
+}
@@ -0,0 +1,249 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.model.CartEvent;
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.CartSnapshot;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.CartTotals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Estado de un carrito con event sourcing: el de su snapshot (o el del carrito en shopping_carts, si todavía no
+// tiene) con los eventos posteriores aplicados en orden. Las líneas conservan el orden en que se añadieron.
+// El carrito se identifica por su fila de shopping_carts y cada línea por el ID de la fila de cart_items de la que
+// partió o, si se añadió después, por el del evento ITEM_ADDED que la creó; ambos se guardan en el snapshot.
+final class CartState {
+
+    // Una línea: "productId,quantity,price,createdAt,updatedAt,id", líneas separadas por ';'
+    // (los snapshots anteriores no tienen el último campo)
+    private static final String FIELD_SEPARATOR = ",";
+    private static final String LINE_SEPARATOR = ";";
+
+    record Line(Long id, Long productId, int quantity, BigDecimal price, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    // Totales calculados en memoria, con la misma forma que los de CartItemRepository.summarizeByCartId
+    record Totals(Long itemCount, Long totalQuantity, BigDecimal totalAmount) implements CartTotals {
+        @Override
+        public Long getItemCount() {
+            return itemCount;
+        }
+
+        @Override
+        public Long getTotalQuantity() {
+            return totalQuantity;
+        }
+
+        @Override
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+    }
+
+    private final Long userId;
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+    private final boolean snapshotted;
+    private Long cartId;
+    // El snapshot del que sale no tenía cart_id (anterior a V6) y hay que reescribirlo
+    private boolean snapshotWithoutCartId;
+    private long sequence;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    private CartState(Long userId, boolean snapshotted) {
+        this.userId = userId;
+        this.snapshotted = snapshotted;
+    }
+
+    static CartState empty(Long userId) {
+        return new CartState(userId, false);
+    }
+
+    static CartState fromSnapshot(CartSnapshot snapshot) {
+        CartState state = new CartState(snapshot.getUserId(), true);
+        state.cartId = snapshot.getCartId();
+        state.snapshotWithoutCartId = snapshot.getCartId() == null;
+        state.sequence = snapshot.getSequence();
+        state.createdAt = snapshot.getCreatedAt();
+        state.updatedAt = snapshot.getUpdatedAt();
+        if (!snapshot.getLines().isEmpty()) {
+            for (String encoded : snapshot.getLines().split(LINE_SEPARATOR)) {
+                String[] fields = encoded.split(FIELD_SEPARATOR, -1);
+                Long id = fields.length > 5 && !fields[5].isEmpty() ? Long.valueOf(fields[5]) : null;
+                Line line = new Line(id, Long.valueOf(fields[0]), Integer.parseInt(fields[1]), new BigDecimal(fields[2]),
+                        parseTime(fields[3]), parseTime(fields[4]));
+                state.lines.put(line.productId(), line);
+            }
+        }
+        return state;
+    }
+
+    // Carrito guardado antes de activar el event sourcing: es el punto de partida, con versión 0
+    static CartState fromCart(ShoppingCart cart) {
+        CartState state = new CartState(cart.getUserId(), false);
+        state.cartId = cart.getId();
+        state.createdAt = cart.getCreatedAt();
+        state.updatedAt = cart.getUpdatedAt();
+        for (CartItem item : cart.getItems()) {
+            state.lines.put(item.getProductId(), new Line(item.getId(), item.getProductId(), item.getQuantity(),
+                    item.getPriceAtAddition(), item.getCreatedAt(), item.getUpdatedAt()));
+        }
+        return state;
+    }
+
+    void apply(CartEvent event) {
+        LocalDateTime at = event.getOccurredAt();
+        Long productId = event.getProductId();
+        switch (event.getType()) {
+            case ITEM_ADDED -> {
+                Line existing = lines.get(productId);
+                // El precio de la línea se mantiene el de la primera adición
+                lines.put(productId, existing == null
+                        ? new Line(newLineId(event), productId, event.getQuantity(), event.getPrice(), at, at)
+                        : new Line(existing.id(), productId, existing.quantity() + event.getQuantity(), existing.price(), existing.createdAt(), at));
+            }
+            case QUANTITY_SET -> {
+                Line existing = lines.get(productId);
+                if (event.getQuantity() <= 0) {
+                    lines.remove(productId);
+                } else if (existing != null) {
+                    lines.put(productId, new Line(existing.id(), productId, event.getQuantity(), existing.price(), existing.createdAt(), at));
+                }
+            }
+            case ITEM_REMOVED -> lines.remove(productId);
+            case CLEARED -> lines.clear();
+        }
+        sequence = event.getSequence();
+        if (createdAt == null) {
+            createdAt = at;
+        }
+        updatedAt = at;
+    }
+
+    // ID de una línea nueva: el del evento que la crea, salvo que ya lo use otra línea heredada de cart_items
+    // (secuencias distintas); entonces el siguiente libre. Se recalcula igual al reconstruir, así que es estable
+    private Long newLineId(CartEvent event) {
+        Long id = event.getId();
+        if (id == null) {
+            return null;
+        }
+        while (hasLineId(id)) {
+            id++;
+        }
+        return id;
+    }
+
+    private boolean hasLineId(Long id) {
+        for (Line line : lines.values()) {
+            if (id.equals(line.id())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    Long cartId() {
+        return cartId;
+    }
+
+    void assignCartId(Long cartId) {
+        this.cartId = cartId;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    // true si el estado sale de un snapshot guardado con su cart_id (si no, hay que guardar uno antes del evento)
+    boolean snapshotted() {
+        return snapshotted && !snapshotWithoutCartId;
+    }
+
+    boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    boolean contains(Long productId) {
+        return lines.containsKey(productId);
+    }
+
+    CartSnapshot toSnapshot() {
+        StringBuilder encoded = new StringBuilder();
+        for (Line line : lines.values()) {
+            if (!encoded.isEmpty()) {
+                encoded.append(LINE_SEPARATOR);
+            }
+            encoded.append(line.productId()).append(FIELD_SEPARATOR)
+                    .append(line.quantity()).append(FIELD_SEPARATOR)
+                    .append(line.price().toPlainString()).append(FIELD_SEPARATOR)
+                    .append(formatTime(line.createdAt())).append(FIELD_SEPARATOR)
+                    .append(formatTime(line.updatedAt())).append(FIELD_SEPARATOR)
+                    .append(line.id() == null ? "" : line.id());
+        }
+        return new CartSnapshot(userId, cartId, sequence, encoded.toString(), createdAt, updatedAt);
+    }
+
+    // Carrito para la API y OrderService: no está gestionado por JPA (lleva el ID de su fila, pero no se guarda),
+    // su versión es el número del último evento
+    ShoppingCart toCart() {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setId(cartId);
+        cart.setUserId(userId);
+        cart.setVersion(sequence);
+        cart.setCreatedAt(createdAt);
+        cart.setUpdatedAt(updatedAt);
+        for (Line line : lines.values()) {
+            cart.addCartItem(toItem(line));
+        }
+        return cart;
+    }
+
+    // Línea del producto como CartItem (null si no está en el carrito), enlazada a "cart"
+    CartItem item(ShoppingCart cart, Long productId) {
+        if (productId == null || !lines.containsKey(productId)) {
+            return null;
+        }
+        CartItem item = toItem(lines.get(productId));
+        item.setCart(cart);
+        return item;
+    }
+
+    Totals totals() {
+        if (lines.isEmpty()) {
+            return new Totals(0L, null, null);
+        }
+        long totalQuantity = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Line line : lines.values()) {
+            totalQuantity += line.quantity();
+            totalAmount = totalAmount.add(line.price().multiply(BigDecimal.valueOf(line.quantity())));
+        }
+        return new Totals((long) lines.size(), totalQuantity, totalAmount);
+    }
+
+    private static CartItem toItem(Line line) {
+        CartItem item = new CartItem();
+        item.setId(line.id());
+        item.setProductId(line.productId());
+        item.setQuantity(line.quantity());
+        item.setPriceAtAddition(line.price());
+        item.setCreatedAt(line.createdAt());
+        item.setUpdatedAt(line.updatedAt());
+        return item;
+    }
+
+    private static String formatTime(LocalDateTime time) {
+        return time == null ? "" : time.toString();
+    }
+
+    private static LocalDateTime parseTime(String time) {
+        return time.isEmpty() ? null : LocalDateTime.parse(time);
+    }
+}
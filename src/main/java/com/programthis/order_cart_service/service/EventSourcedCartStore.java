@@ -0,0 +1,203 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.model.CartEvent;
+import com.programthis.order_cart_service.model.CartEventType;
+import com.programthis.order_cart_service.model.CartSnapshot;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.CartEventRepository;
+import com.programthis.order_cart_service.repository.CartSnapshotRepository;
+import com.programthis.order_cart_service.repository.ShoppingCartRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Carrito con event sourcing (cart.event-sourcing.enabled=true): cada operación de ShoppingCartService añade un
+// evento a cart_events en lugar de reescribir shopping_carts / cart_items, y el carrito actual se reconstruye a partir
+// del último snapshot más los eventos posteriores (dos consultas). Cada "snapshot-every" eventos se reescribe el
+// snapshot del usuario, así la cola que hay que aplicar nunca pasa de ese número.
+// Los carritos que ya existían en shopping_carts son el punto de partida (versión 0) y se copian a un snapshot con el
+// primer evento. shopping_carts sigue siendo el registro de carritos: obtener o modificar el carrito de un usuario que
+// no tiene ninguno le crea su fila (vacía, sin líneas en cart_items), igual que sin event sourcing, y su ID es el del
+// carrito. Se llama siempre dentro de las transacciones de ShoppingCartService.
+@Component
+public class EventSourcedCartStore {
+
+    private final CartEventRepository cartEventRepository;
+    private final CartSnapshotRepository cartSnapshotRepository;
+    private final ShoppingCartRepository shoppingCartRepository;
+
+    @Value("${cart.event-sourcing.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${cart.event-sourcing.snapshot-every:50}")
+    private int snapshotEvery = 50;
+
+    @Autowired
+    public EventSourcedCartStore(CartEventRepository cartEventRepository,
+                                 CartSnapshotRepository cartSnapshotRepository,
+                                 ShoppingCartRepository shoppingCartRepository) {
+        this.cartEventRepository = cartEventRepository;
+        this.cartSnapshotRepository = cartSnapshotRepository;
+        this.shoppingCartRepository = shoppingCartRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // --- Lecturas ---
+
+    // Carrito actual; si el usuario todavía no tiene ninguno se crea vacío (versión 0), como sin event sourcing
+    public ShoppingCart loadOrCreate(Long userId) {
+        CartState state = states(List.of(userId)).get(userId);
+        if (state == null) {
+            return CartState.fromCart(createCartRow(userId)).toCart();
+        }
+        if (state.cartId() == null) {
+            // Snapshot anterior a guardar cart_id y sin fila: se le da una y se reescribe el snapshot con ella
+            state.assignCartId(createCartRow(userId).getId());
+            cartSnapshotRepository.save(state.toSnapshot());
+        }
+        return state.toCart();
+    }
+
+    // Carrito actual sólo si existe (tiene eventos o estaba en shopping_carts)
+    public Optional<ShoppingCart> find(Long userId) {
+        CartState state = states(List.of(userId)).get(userId);
+        return Optional.ofNullable(state).map(CartState::toCart);
+    }
+
+    // Carritos existentes de varios usuarios: snapshots y colas de todos ellos con una consulta cada uno
+    public List<ShoppingCart> findAll(List<Long> userIds) {
+        List<ShoppingCart> carts = new ArrayList<>();
+        states(userIds).values().forEach(state -> carts.add(state.toCart()));
+        return carts;
+    }
+
+    public Optional<Long> version(Long userId) {
+        Optional<Long> sequence = cartEventRepository.findLastSequenceByUserId(userId);
+        if (sequence.isPresent()) {
+            return sequence;
+        }
+        return shoppingCartRepository.findVersionByUserId(userId).map(legacyVersion -> 0L);
+    }
+
+    // --- Escrituras: un evento cada una. Devuelven el carrito resultante, la línea afectada y los totales ---
+
+    // La versión del carrito es su número de evento: se comprueba contra el estado recién cargado y, si otra petición
+    // añade un evento después, la restricción única de (user_id, event_seq) hace fallar esta
+    public CartLineChange addProduct(Long userId, Long productId, Integer quantity, BigDecimal priceAtAddition,
+                                     ExpectedVersion expectedVersion) {
+        CartState state = state(userId);
+        expectedVersion.check(state.sequence());
+        return append(state, CartEventType.ITEM_ADDED, productId, quantity, priceAtAddition);
+    }
+
+    public CartLineChange updateQuantity(Long userId, Long productId, Integer newQuantity, ExpectedVersion expectedVersion) {
+        CartState state = existingState(userId, expectedVersion);
+        if (!state.contains(productId)) {
+            throw new RuntimeException("Producto con ID " + productId + " no encontrado en el carrito para actualizar.");
+        }
+        return append(state, CartEventType.QUANTITY_SET, productId, newQuantity, null);
+    }
+
+    public CartLineChange removeProduct(Long userId, Long productId, ExpectedVersion expectedVersion) {
+        CartState state = existingState(userId, expectedVersion);
+        if (!state.contains(productId)) {
+            throw new RuntimeException("Producto con ID " + productId + " no encontrado en el carrito para eliminar.");
+        }
+        return append(state, CartEventType.ITEM_REMOVED, productId, null, null);
+    }
+
+    public CartLineChange clear(Long userId, ExpectedVersion expectedVersion) {
+        return append(existingState(userId, expectedVersion), CartEventType.CLEARED, null, null, null);
+    }
+
+    private CartLineChange append(CartState state, CartEventType type, Long productId, Integer quantity, BigDecimal price) {
+        if (state.cartId() == null) {
+            state.assignCartId(createCartRow(state.userId()).getId());
+        }
+        // Estado de partida de un carrito sin snapshot (vacío o el de shopping_carts), antes de su primer evento
+        if (!state.snapshotted()) {
+            cartSnapshotRepository.save(state.toSnapshot());
+        }
+        CartEvent event = new CartEvent(null, state.userId(), state.sequence() + 1, type, productId, quantity, price,
+                LocalDateTime.now());
+        // Si otra petición ya ha escrito ese número de evento, la restricción única hace fallar esta transacción
+        cartEventRepository.save(event);
+        state.apply(event);
+        if (state.sequence() % snapshotEvery == 0) {
+            cartSnapshotRepository.save(state.toSnapshot());
+        }
+        ShoppingCart cart = state.toCart();
+        return new CartLineChange(cart, productId, state.item(cart, productId), state.totals());
+    }
+
+    // Fila del carrito en shopping_carts: sólo da el ID, las líneas van en los eventos
+    private ShoppingCart createCartRow(Long userId) {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUserId(userId);
+        return shoppingCartRepository.save(cart);
+    }
+
+    private CartState state(Long userId) {
+        CartState state = states(List.of(userId)).get(userId);
+        return state != null ? state : CartState.empty(userId);
+    }
+
+    private CartState existingState(Long userId, ExpectedVersion expectedVersion) {
+        CartState state = states(List.of(userId)).get(userId);
+        if (state == null) {
+            throw new RuntimeException("Carrito no encontrado para el usuario: " + userId);
+        }
+        expectedVersion.check(state.sequence());
+        return state;
+    }
+
+    // Estado de cada usuario que tiene carrito, en el orden pedido: snapshot + cola, o el carrito de shopping_carts
+    private Map<Long, CartState> states(Collection<Long> userIds) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(userIds));
+        Map<Long, CartState> byUserId = new HashMap<>();
+        for (CartSnapshot snapshot : cartSnapshotRepository.findAllById(distinct)) {
+            byUserId.put(snapshot.getUserId(), CartState.fromSnapshot(snapshot));
+        }
+        List<CartEvent> tails = cartEventRepository.findTailsByUserIdIn(distinct);
+        // Sin snapshot, o con uno anterior a guardar cart_id: hace falta su fila de shopping_carts
+        List<Long> withoutCartId = distinct.stream()
+                .filter(userId -> !byUserId.containsKey(userId) || byUserId.get(userId).cartId() == null)
+                .toList();
+        if (!withoutCartId.isEmpty()) {
+            for (ShoppingCart cart : shoppingCartRepository.findByUserIdIn(withoutCartId)) {
+                CartState snapshotted = byUserId.get(cart.getUserId());
+                if (snapshotted != null) {
+                    snapshotted.assignCartId(cart.getId());
+                } else {
+                    byUserId.put(cart.getUserId(), CartState.fromCart(cart));
+                }
+            }
+        }
+        for (CartEvent event : tails) {
+            byUserId.computeIfAbsent(event.getUserId(), CartState::empty).apply(event);
+        }
+
+        Map<Long, CartState> ordered = new LinkedHashMap<>();
+        for (Long userId : distinct) {
+            CartState state = byUserId.get(userId);
+            if (state != null) {
+                ordered.put(userId, state);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,19 @@
+package com.programthis.order_cart_service.service;
+
+// Versión que espera quien modifica un carrito o un pedido (If-Match). Los servicios la comprueban dentro de la
+// transacción de la modificación, contra la versión recién cargada: una escritura que se haya confirmado antes no se
+// pisa (VersionMismatchException) y una posterior a esa carga la detecta @Version (o el número de evento) al escribir
+@FunctionalInterface
+public interface ExpectedVersion {
+
+    // Sin condición
+    ExpectedVersion ANY = currentVersion -> true;
+
+    boolean matches(Long currentVersion);
+
+    default void check(Long currentVersion) {
+        if (!matches(currentVersion)) {
+            throw new VersionMismatchException(currentVersion);
+        }
+    }
+}
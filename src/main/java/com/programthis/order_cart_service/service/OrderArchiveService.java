@@ -0,0 +1,66 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.repository.ArchivedOrderRepository;
+import com.programthis.order_cart_service.repository.OrderItemRepository;
+import com.programthis.order_cart_service.repository.OrderRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class OrderArchiveService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+
+    @Value("${orders.archive.max-age-days:365}")
+    private int maxAgeDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    // Sólo se archivan pedidos que ya no pueden cambiar; uno antiguo pero aún pendiente o enviado se queda en orders
+    @Value("${orders.archive.statuses:DELIVERED,CANCELLED}")
+    private Set<String> archivableStatuses = Set.of("DELIVERED", "CANCELLED");
+
+    @Autowired
+    public OrderArchiveService(OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository,
+                               ArchivedOrderRepository archivedOrderRepository) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+    }
+
+    // Fecha a partir de la cual un pedido se considera archivable
+    public LocalDateTime archiveCutoff() {
+        return LocalDateTime.now().minusDays(maxAgeDays);
+    }
+
+    // Mueve un lote de pedidos en estado final anteriores a la fecha de corte a las tablas de archivo.
+    // Cada lote es una transacción propia para no mantener bloqueos largos sobre orders/order_items.
+    // Devuelve el número de pedidos archivados (0 cuando ya no queda nada por mover).
+    @Transactional
+    public int archiveBatch(LocalDateTime cutoff) {
+        List<Long> orderIds = orderRepository.findIdsByOrderDateBeforeAndStatusIn(cutoff, archivableStatuses,
+                PageRequest.of(0, batchSize));
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime archivedAt = LocalDateTime.now();
+        archivedOrderRepository.copyOrdersToArchive(orderIds, archivedAt);
+        archivedOrderRepository.copyOrderItemsToArchive(orderIds);
+
+        // Primero las líneas por la clave foránea order_items.order_id
+        orderItemRepository.deleteAllByOrderIdIn(orderIds);
+        return orderRepository.deleteAllByIdIn(orderIds);
+    }
+}
@@ -0,0 +1,156 @@
+package com.programthis.order_cart_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.programthis.order_cart_service.export.CsvOrderExportWriter;
+import com.programthis.order_cart_service.export.NdjsonOrderExportWriter;
+import com.programthis.order_cart_service.export.OrderExportFormat;
+import com.programthis.order_cart_service.export.OrderExportWriter;
+import com.programthis.order_cart_service.model.ArchivedOrder;
+import com.programthis.order_cart_service.model.ArchivedOrderItem;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.repository.ArchivedOrderRepository;
+import com.programthis.order_cart_service.repository.OrderItemRepository;
+import com.programthis.order_cart_service.repository.OrderRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+public class OrderExportService {
+
+    // Pedidos por lote: se cargan sus líneas con un solo IN y después se vacía el contexto de persistencia
+    static final int BATCH_SIZE = 200;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final EntityManager entityManager;
+    private final ShardExecutor shardExecutor;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    public OrderExportService(OrderRepository orderRepository,
+                              OrderItemRepository orderItemRepository,
+                              ArchivedOrderRepository archivedOrderRepository,
+                              EntityManager entityManager,
+                              ShardExecutor shardExecutor) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.entityManager = entityManager;
+        this.shardExecutor = shardExecutor;
+    }
+
+    // Exporta los pedidos con order_date en [from, to) escribiendo directamente en el stream de salida.
+    // La memoria usada depende del tamaño de lote, no del número de pedidos del rango.
+    // Incluye los archivados (orders_archive): en cada shard van primero los activos y después los archivados,
+    // cada grupo ordenado por ID. Con sharding se recorre un shard detrás de otro, cada uno en su transacción
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public long exportOrders(LocalDateTime from, LocalDateTime to, OrderExportFormat format, OutputStream out) throws IOException {
+        OrderExportWriter writer = format == OrderExportFormat.CSV
+                ? new CsvOrderExportWriter(out)
+                : new NdjsonOrderExportWriter(jsonFactory, out);
+
+        long exported = 0;
+        try {
+            for (long shardExported : shardExecutor.onEachShard(() -> exportShard(from, to, writer))) {
+                exported += shardExported;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return exported;
+    }
+
+    private long exportShard(LocalDateTime from, LocalDateTime to, OrderExportWriter writer) {
+        try {
+            return streamOrders(from, to, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long streamOrders(LocalDateTime from, LocalDateTime to, OrderExportWriter writer) throws IOException {
+        long exported;
+        try (Stream<Order> orders = orderRepository.streamByOrderDateRange(from, to)) {
+            exported = writeInBatches(orders, this::activeItems, writer);
+        }
+        // Las líneas archivadas se cargan por lote igual que las activas, así que el pedido se copia sin ellas
+        try (Stream<Order> archived = archivedOrderRepository.streamByOrderDateRange(from, to)
+                .map(ArchivedOrder::toOrderWithoutItems)) {
+            exported += writeInBatches(archived, this::archivedItems, writer);
+        }
+        return exported;
+    }
+
+    private long writeInBatches(Stream<Order> orders, Function<List<Long>, Map<Long, List<OrderItem>>> itemLoader,
+                                OrderExportWriter writer) throws IOException {
+        long exported = 0;
+        List<Order> batch = new ArrayList<>(BATCH_SIZE);
+        Iterator<Order> iterator = orders.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == BATCH_SIZE) {
+                exported += writeBatch(batch, itemLoader, writer);
+            }
+        }
+        exported += writeBatch(batch, itemLoader, writer);
+        return exported;
+    }
+
+    private Map<Long, List<OrderItem>> activeItems(List<Long> orderIds) {
+        Map<Long, List<OrderItem>> itemsByOrderId = new HashMap<>();
+        for (OrderItem item : orderItemRepository.findByOrderIdIn(orderIds)) {
+            itemsByOrderId.computeIfAbsent(item.getOrder().getId(), id -> new ArrayList<>()).add(item);
+        }
+        return itemsByOrderId;
+    }
+
+    private Map<Long, List<OrderItem>> archivedItems(List<Long> orderIds) {
+        Map<Long, List<OrderItem>> itemsByOrderId = new HashMap<>();
+        for (ArchivedOrderItem item : archivedOrderRepository.findItemsByOrderIdIn(orderIds)) {
+            itemsByOrderId.computeIfAbsent(item.getOrder().getId(), id -> new ArrayList<>()).add(item.toOrderItem());
+        }
+        return itemsByOrderId;
+    }
+
+    private int writeBatch(List<Order> batch, Function<List<Long>, Map<Long, List<OrderItem>>> itemLoader,
+                           OrderExportWriter writer) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> orderIds = new ArrayList<>(batch.size());
+        for (Order order : batch) {
+            orderIds.add(order.getId());
+        }
+
+        Map<Long, List<OrderItem>> itemsByOrderId = itemLoader.apply(orderIds);
+
+        for (Order order : batch) {
+            writer.write(order, itemsByOrderId.getOrDefault(order.getId(), Collections.emptyList()));
+        }
+        writer.flush();
+
+        // Desvincula los pedidos y líneas ya escritos para que el contexto de persistencia no crezca
+        int written = batch.size();
+        batch.clear();
+        entityManager.clear();
+        return written;
+    }
+}
@@ -0,0 +1,157 @@
+package com.programthis.order_cart_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.model.OrderOutboxEvent;
+import com.programthis.order_cart_service.model.OrderOutboxEventType;
+import com.programthis.order_cart_service.outbox.OrderEventSink;
+import com.programthis.order_cart_service.repository.OrderOutboxRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+// Outbox transaccional de eventos de pedidos: OrderService escribe el evento en order_outbox dentro de su propia
+// transacción (o se guardan el cambio y el evento, o ninguno) y OrderOutboxRelay lo publica después en el
+// OrderEventSink. Con sharding cada evento va al shard de su pedido y el relay recorre todos.
+@Service
+public class OrderOutboxService {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final OrderEventSink orderEventSink;
+    private final ShardExecutor shardExecutor;
+
+    @Value("${orders.outbox.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${orders.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    // Eventos pendientes y fecha del más antiguo (null si no queda ninguno)
+    public record Backlog(long pending, LocalDateTime oldestCreatedAt) {
+        public static final Backlog EMPTY = new Backlog(0, null);
+
+        Backlog merge(Backlog other) {
+            LocalDateTime oldest = oldestCreatedAt == null || (other.oldestCreatedAt != null
+                    && other.oldestCreatedAt.isBefore(oldestCreatedAt)) ? other.oldestCreatedAt : oldestCreatedAt;
+            return new Backlog(pending + other.pending, oldest);
+        }
+    }
+
+    @Autowired
+    public OrderOutboxService(OrderOutboxRepository orderOutboxRepository, OrderEventSink orderEventSink,
+                              ShardExecutor shardExecutor) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.orderEventSink = orderEventSink;
+        this.shardExecutor = shardExecutor;
+    }
+
+    // --- Escritura: siempre dentro de la transacción de OrderService (MANDATORY) ---
+
+    // Pedido recién guardado (ya con ID), con sus líneas
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrderCreated(Order order) {
+        if (!enabled) {
+            return;
+        }
+        append(order, OrderOutboxEventType.ORDER_CREATED, json(generator -> {
+            writeOrderFields(generator, order);
+            generator.writeStringField("orderDate", order.getOrderDate() != null ? order.getOrderDate().toString() : null);
+            generator.writeNumberField("totalAmount", order.getTotalAmount());
+            generator.writeArrayFieldStart("items");
+            for (OrderItem item : order.getItems()) {
+                generator.writeStartObject();
+                generator.writeNumberField("productId", item.getProductId());
+                generator.writeNumberField("quantity", item.getQuantity());
+                generator.writeNumberField("unitPrice", item.getUnitPrice());
+                generator.writeNumberField("subtotal", item.getSubtotal());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }));
+    }
+
+    // Cambio de estado; si el estado no cambia no hay evento
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Order order, String previousStatus) {
+        if (!enabled || Objects.equals(previousStatus, order.getStatus())) {
+            return;
+        }
+        append(order, OrderOutboxEventType.ORDER_STATUS_CHANGED, json(generator -> {
+            writeOrderFields(generator, order);
+            generator.writeStringField("previousStatus", previousStatus);
+        }));
+    }
+
+    private void append(Order order, OrderOutboxEventType type, String payload) {
+        orderOutboxRepository.save(new OrderOutboxEvent(null, order.getId(), order.getUserId(), type, payload,
+                LocalDateTime.now()));
+    }
+
+    // --- Publicación (OrderOutboxRelay, con el shard ya fijado) ---
+
+    // Publica los "batch-size" eventos más antiguos en orden de id y los borra en la misma transacción. Si el sink
+    // falla no se borra nada y la excepción llega al relay; si el commit falla después de publicar, el lote se
+    // vuelve a entregar (al menos una vez). Los eventos de un mismo pedido se escriben en transacciones que se
+    // serializan sobre su fila (control de versión), así que el orden de id es también el de sus cambios.
+    // READ COMMITTED: el bloqueo de la lectura se queda en las filas leídas, sin bloqueos de hueco que hagan esperar
+    // a los pedidos nuevos mientras el sink publica. Devuelve el lote publicado (vacío si no había nada)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<OrderOutboxEvent> relayBatch() {
+        List<OrderOutboxEvent> events = orderOutboxRepository.findOldestForUpdate(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return events;
+        }
+        try {
+            orderEventSink.publish(events);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron publicar " + events.size() + " eventos de pedidos", e);
+        }
+        orderOutboxRepository.deleteAllByIdIn(events.stream().map(OrderOutboxEvent::getId).toList());
+        return events;
+    }
+
+    // Pendientes de todos los shards, para las métricas de retraso del relay (transacción de sólo lectura por shard)
+    public Backlog backlog() {
+        return shardExecutor.onEachShard(() -> new Backlog(orderOutboxRepository.count(),
+                        orderOutboxRepository.findOldestCreatedAt().orElse(null))).stream()
+                .reduce(Backlog::merge)
+                .orElse(Backlog.EMPTY);
+    }
+
+    private interface JsonBody {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private String json(JsonBody body) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            body.write(generator);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void writeOrderFields(JsonGenerator generator, Order order) throws IOException {
+        generator.writeNumberField("orderId", order.getId());
+        generator.writeNumberField("userId", order.getUserId());
+        generator.writeStringField("status", order.getStatus());
+    }
+}
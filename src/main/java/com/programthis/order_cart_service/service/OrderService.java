@@ -1,36 +1,73 @@
 package com.programthis.order_cart_service.service;
 
+import com.programthis.order_cart_service.cache.CompletedOrderCache;
+import com.programthis.order_cart_service.model.CartItem;
 import com.programthis.order_cart_service.model.Order;
 import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.model.ArchivedOrder;
 import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.ArchivedOrderRepository;
 import com.programthis.order_cart_service.repository.OrderRepository;
 import com.programthis.order_cart_service.repository.OrderItemRepository;
+import com.programthis.order_cart_service.client.CatalogFanOut;
 import com.programthis.order_cart_service.client.ProductCatalogServiceClient; // ¡Añadido!
 import com.programthis.order_cart_service.dto.ProductDto; // ¡Añadido!
-import jakarta.transaction.Transactional;
+import com.programthis.order_cart_service.money.Money;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+// Un timer con histograma por método público (etiquetas class y method, ver MetricsConfig)
 @Service
+@Timed(value = "order.service", description = "Métodos de OrderService", histogram = true)
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
     private final ShoppingCartService shoppingCartService;
+    private final SalesRollupService salesRollupService;
+    private final OrderOutboxService orderOutboxService;
+    private final CompletedOrderCache completedOrderCache;
     private final ProductCatalogServiceClient productCatalogServiceClient; // ¡Añadido!
+    private final CatalogFanOut catalogFanOut;
+    private final ShardExecutor shardExecutor;
 
     @Autowired
     public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                        ArchivedOrderRepository archivedOrderRepository,
                         ShoppingCartService shoppingCartService,
-                        ProductCatalogServiceClient productCatalogServiceClient) { // ¡Añadido!
+                        SalesRollupService salesRollupService,
+                        OrderOutboxService orderOutboxService,
+                        CompletedOrderCache completedOrderCache,
+                        ProductCatalogServiceClient productCatalogServiceClient, // ¡Añadido!
+                        CatalogFanOut catalogFanOut,
+                        ShardExecutor shardExecutor) {
         this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
         this.shoppingCartService = shoppingCartService;
+        this.salesRollupService = salesRollupService;
+        this.orderOutboxService = orderOutboxService;
+        this.completedOrderCache = completedOrderCache;
         this.productCatalogServiceClient = productCatalogServiceClient; // ¡Añadido!
+        this.catalogFanOut = catalogFanOut;
+        this.shardExecutor = shardExecutor;
     }
 
     // Crear un pedido a partir del carrito de un usuario
@@ -48,41 +85,50 @@ public class OrderService {
         newOrder.setShippingAddress(shippingAddress);
         newOrder.setPaymentMethod(paymentMethod);
 
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        List<OrderItem> orderItems = cart.getItems().stream()
-                .map(cartItem -> {
-                    OrderItem orderItem = new OrderItem();
-                    orderItem.setProductId(cartItem.getProductId());
-
-                    // *** Obtener el nombre del producto del Product Catalog Service ***
-                    Optional<ProductDto> productDtoOptional = productCatalogServiceClient.getProductById(cartItem.getProductId());
-                    if (productDtoOptional.isEmpty()) {
-                        // Si el producto no existe en el catálogo, lanzamos un error o manejamos como prefieras
-                        throw new RuntimeException("Producto con ID " + cartItem.getProductId() + " en el carrito no encontrado en el catálogo. No se puede crear el pedido.");
-                    }
-                    ProductDto productDto = productDtoOptional.get();
-                    orderItem.setProductName(productDto.getName()); // Usar el nombre real del producto
-
-                    orderItem.setQuantity(cartItem.getQuantity());
-                    orderItem.setUnitPrice(cartItem.getPriceAtAddition()); // Usar el precio que se guardó en el carrito
-                    orderItem.setSubtotal(cartItem.getPriceAtAddition().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
-                    orderItem.setOrder(newOrder); // Establece la relación bidireccional
-                    return orderItem;
-                })
-                .collect(Collectors.toList());
-
-        for (OrderItem item : orderItems) {
-            totalAmount = totalAmount.add(item.getSubtotal());
-            newOrder.addOrderItem(item); // Añade al pedido y actualiza la relación
+        // Consulta el catálogo para todas las líneas a la vez en lugar de una tras otra
+        // (una llamada por producto distinto; con hilos virtuales, un hilo virtual por llamada)
+        Map<Long, CompletableFuture<Optional<ProductDto>>> productLookups = new LinkedHashMap<>();
+        for (CartItem cartItem : cart.getItems()) {
+            productLookups.computeIfAbsent(cartItem.getProductId(),
+                    productId -> catalogFanOut.submit(() -> productCatalogServiceClient.getProductById(productId)));
         }
 
-        newOrder.setTotalAmount(totalAmount);
+        // Aritmética en céntimos (Money): sólo se convierte a BigDecimal al asignar los campos persistidos
+        Money totalAmount = Money.ZERO;
+        for (CartItem cartItem : cart.getItems()) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProductId(cartItem.getProductId());
+
+            // *** Obtener el nombre del producto del Product Catalog Service ***
+            Optional<ProductDto> productDtoOptional = productLookups.get(cartItem.getProductId()).join();
+            if (productDtoOptional.isEmpty()) {
+                // Si el producto no existe en el catálogo, lanzamos un error o manejamos como prefieras
+                throw new RuntimeException("Producto con ID " + cartItem.getProductId() + " en el carrito no encontrado en el catálogo. No se puede crear el pedido.");
+            }
+            ProductDto productDto = productDtoOptional.get();
+            orderItem.setProductName(productDto.getName()); // Usar el nombre real del producto
+
+            Money subtotal = Money.of(cartItem.getPriceAtAddition(), cartItem.getQuantity());
+            totalAmount = totalAmount.plus(subtotal);
+
+            orderItem.setQuantity(cartItem.getQuantity());
+            orderItem.setUnitPrice(cartItem.getPriceAtAddition()); // Usar el precio que se guardó en el carrito
+            orderItem.setSubtotal(subtotal.toBigDecimal());
+            newOrder.addOrderItem(orderItem); // Añade al pedido y actualiza la relación bidireccional
+        }
+
+        newOrder.setTotalAmount(totalAmount.toBigDecimal());
 
         // Guardar el pedido y sus ítems
         Order savedOrder = orderRepository.save(newOrder);
         // Hibernate debería guardar los OrderItems automáticamente debido a CascadeType.ALL en Order
         // orderItemRepository.saveAll(orderItems); // Esta línea podría ser redundante si el cascade está bien configurado
 
+        // Actualizar los acumulados de ventas en la misma transacción
+        salesRollupService.recordOrderPlaced(savedOrder);
+        // Evento ORDER_CREATED en el outbox, también en esta transacción
+        orderOutboxService.recordOrderCreated(savedOrder);
+
         // Limpiar el carrito después de crear el pedido
         shoppingCartService.clearCart(userId);
 
@@ -90,27 +136,147 @@ public class OrderService {
     }
 
     // Obtener un pedido por su ID
+    // Si ya no está en la tabla activa se busca en el archivo, de forma transparente para el cliente.
+    // Las lecturas de pedidos son de sólo lectura: con réplicas configuradas van a una de ellas, y las líneas se
+    // cargan dentro de la transacción para que no las traiga después el primario
+    @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long orderId) {
-        return orderRepository.findById(orderId);
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isPresent()) {
+            order.get().getItems().size();
+            return order;
+        }
+        return archivedOrderRepository.findById(orderId).map(ArchivedOrder::toOrder);
+    }
+
+    // Versión actual del pedido (activo o archivado) sin cargarlo, para ETag / If-None-Match / If-Match
+    @Transactional(readOnly = true)
+    public Optional<Long> getOrderVersion(Long orderId) {
+        Optional<Long> version = orderRepository.findVersionById(orderId);
+        if (version.isPresent()) {
+            return version;
+        }
+        return archivedOrderRepository.findVersionById(orderId);
+    }
+
+    // Varios pedidos por ID (activos o archivados), en el orden pedido y sin repetir; los que no existen se omiten.
+    // Por cada shard implicado, una consulta IN para los pedidos y otra, por lotes (@BatchSize), para todas sus líneas.
+    // SUPPORTS: no abre conexión propia; cada shard trabaja en su transacción (ShardExecutor)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Order> getOrdersByIds(Collection<Long> orderIds) {
+        Map<Long, Order> found = new HashMap<>();
+        for (Order order : shardExecutor.scatter(orderIds, shardExecutor.router()::shardForOrder, this::loadOrders)) {
+            found.put(order.getId(), order);
+        }
+
+        List<Order> orders = new ArrayList<>(found.size());
+        for (Long orderId : new LinkedHashSet<>(orderIds)) {
+            Order order = found.get(orderId);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    // Pedidos de un mismo shard, con las líneas ya inicializadas: el primer acceso las trae para todo el lote
+    private List<Order> loadOrders(List<Long> orderIds) {
+        List<Order> orders = new ArrayList<>(orderRepository.findAllById(orderIds));
+        for (Order order : orders) {
+            order.getItems().size();
+        }
+        Set<Long> active = new HashSet<>();
+        orders.forEach(order -> active.add(order.getId()));
+        List<Long> missing = orderIds.stream().filter(id -> !active.contains(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            for (ArchivedOrder archived : archivedOrderRepository.findAllById(missing)) {
+                orders.add(archived.toOrder());
+            }
+        }
+        return orders;
     }
 
-    // Obtener todos los pedidos de un usuario
+    // Obtener todos los pedidos de un usuario, con sus líneas (por lotes, @BatchSize)
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserIdOrderByOrderDateDesc(userId);
+        return getOrdersByUserId(userId, false);
+    }
+
+    // Historial completo de un usuario: pedidos activos más, si se pide, los archivados.
+    // Con sharding, los pedidos de antes de activarlo siguen en el shard 0 aunque el usuario esté en otro: se añaden
+    // con una consulta más a ese shard
+    @Transactional(readOnly = true)
+    public List<Order> getOrdersByUserId(Long userId, boolean includeArchived) {
+        List<Order> orders = userOrders(userId, includeArchived, null);
+        if (!shardExecutor.router().hasLegacyOrdersElsewhere(userId)) {
+            return orders;
+        }
+        Long legacyMaxOrderId = shardExecutor.router().legacyMaxOrderId();
+        List<Order> history = new ArrayList<>(orders);
+        history.addAll(shardExecutor.onShard(0, () -> userOrders(userId, includeArchived, legacyMaxOrderId)));
+        history.sort(Comparator.comparing(Order::getOrderDate, Comparator.nullsLast(Comparator.reverseOrder())));
+        return history;
+    }
+
+    // Pedidos del usuario en el shard actual (sólo hasta maxOrderId si no es null), con las líneas ya cargadas
+    private List<Order> userOrders(Long userId, boolean includeArchived, Long maxOrderId) {
+        List<Order> orders = maxOrderId == null
+                ? orderRepository.findByUserIdOrderByOrderDateDesc(userId)
+                : orderRepository.findByUserIdAndIdLessThanEqualOrderByOrderDateDesc(userId, maxOrderId);
+        orders.forEach(order -> order.getItems().size());
+        if (!includeArchived) {
+            return orders;
+        }
+        List<ArchivedOrder> archived = maxOrderId == null
+                ? archivedOrderRepository.findByUserIdOrderByOrderDateDesc(userId)
+                : archivedOrderRepository.findByUserIdAndIdLessThanEqualOrderByOrderDateDesc(userId, maxOrderId);
+        List<Order> history = new ArrayList<>(orders);
+        archived.stream()
+                .map(ArchivedOrder::toOrder)
+                .forEach(history::add);
+        history.sort(Comparator.comparing(Order::getOrderDate, Comparator.nullsLast(Comparator.reverseOrder())));
+        return history;
     }
 
     // Actualizar el estado de un pedido (ej: de PENDING a PAID, SHIPPED, etc.)
     @Transactional
     public Order updateOrderStatus(Long orderId, String newStatus) {
+        return updateOrderStatus(orderId, newStatus, ExpectedVersion.ANY);
+    }
+
+    // Con If-Match: la versión se comprueba sobre el pedido cargado en esta transacción; una escritura posterior a
+    // esa lectura la detecta @Version al hacer flush
+    @Transactional
+    public Order updateOrderStatus(Long orderId, String newStatus, ExpectedVersion expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + orderId));
+        expectedVersion.check(order.getVersion());
+        String previousStatus = order.getStatus();
         order.setStatus(newStatus);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        salesRollupService.recordStatusChange(savedOrder, previousStatus);
+        orderOutboxService.recordStatusChange(savedOrder, previousStatus);
+        completedOrderCache.evict(orderId, savedOrder::getVersion);
+        return savedOrder;
     }
 
     // (Opcional) Eliminar un pedido - tener cuidado con esto en producción
     @Transactional
     public void deleteOrder(Long orderId) {
+        // Retirar su aportación de los acumulados de ventas antes de borrarlo
+        orderRepository.findById(orderId).ifPresent(salesRollupService::recordOrderRemoved);
         orderRepository.deleteById(orderId);
+        completedOrderCache.evict(orderId);
+    }
+
+    // Con If-Match: el borrado lleva la versión comprobada (DELETE ... WHERE version = ?)
+    @Transactional
+    public void deleteOrder(Long orderId, ExpectedVersion expectedVersion) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + orderId));
+        expectedVersion.check(order.getVersion());
+        salesRollupService.recordOrderRemoved(order);
+        orderRepository.delete(order);
+        completedOrderCache.evict(orderId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.model.DailySalesRollup;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.model.ProductSalesRollup;
+import com.programthis.order_cart_service.repository.DailySalesRollupRepository;
+import com.programthis.order_cart_service.repository.ProductSalesRollupRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class SalesRollupService {
+
+    private final DailySalesRollupRepository dailySalesRollupRepository;
+    private final ProductSalesRollupRepository productSalesRollupRepository;
+    private final ShardExecutor shardExecutor;
+
+    // Estados que no cuentan como venta (p. ej. pedidos cancelados)
+    @Value("${analytics.rollup.excluded-statuses:CANCELLED}")
+    private Set<String> excludedStatuses = Set.of("CANCELLED");
+
+    // Filas por día de sales_rollup_daily. Cada pedido suma en una al azar: con una sola, todos los checkouts del día
+    // esperarían al bloqueo de la misma fila hasta el commit de la transacción anterior
+    @Value("${analytics.rollup.daily-buckets:16}")
+    private int dailyBuckets = 16;
+
+    @Autowired
+    public SalesRollupService(DailySalesRollupRepository dailySalesRollupRepository,
+                              ProductSalesRollupRepository productSalesRollupRepository,
+                              ShardExecutor shardExecutor) {
+        this.dailySalesRollupRepository = dailySalesRollupRepository;
+        this.productSalesRollupRepository = productSalesRollupRepository;
+        this.shardExecutor = shardExecutor;
+    }
+
+    // Se llama en la misma transacción en la que se crea el pedido
+    @Transactional
+    public void recordOrderPlaced(Order order) {
+        if (countsAsSale(order.getStatus())) {
+            apply(order, 1);
+        }
+    }
+
+    // Un cambio de estado sólo afecta a los acumulados si el pedido entra o sale de un estado excluido
+    @Transactional
+    public void recordStatusChange(Order order, String previousStatus) {
+        boolean counted = countsAsSale(previousStatus);
+        boolean counts = countsAsSale(order.getStatus());
+        if (counted != counts) {
+            apply(order, counts ? 1 : -1);
+        }
+    }
+
+    // Se llama antes de borrar un pedido para retirar su aportación
+    @Transactional
+    public void recordOrderRemoved(Order order) {
+        if (countsAsSale(order.getStatus())) {
+            apply(order, -1);
+        }
+    }
+
+    // Lecturas por clave primaria: coste constante independientemente del volumen de pedidos.
+    // Se suman los buckets de cada día y, con sharding (cada shard acumula las ventas de sus usuarios), los de todos
+    public DailySalesRollup getDailyRollup(LocalDate salesDate) {
+        return shardExecutor.onEachShard(() -> dailySalesRollupRepository.findBySalesDate(salesDate)).stream()
+                .flatMap(List::stream)
+                .reduce(SalesRollupService::merge)
+                .orElseGet(() -> DailySalesRollup.empty(salesDate));
+    }
+
+    public List<DailySalesRollup> getDailyRollups(LocalDate from, LocalDate to) {
+        Map<LocalDate, DailySalesRollup> byDate = new TreeMap<>();
+        for (List<DailySalesRollup> shardRollups : shardExecutor.onEachShard(
+                () -> dailySalesRollupRepository.findBySalesDateBetweenOrderBySalesDate(from, to))) {
+            for (DailySalesRollup rollup : shardRollups) {
+                byDate.merge(rollup.getSalesDate(), rollup, SalesRollupService::merge);
+            }
+        }
+        return new ArrayList<>(byDate.values());
+    }
+
+    public ProductSalesRollup getProductRollup(Long productId) {
+        return shardExecutor.onEachShard(() -> productSalesRollupRepository.findById(productId)).stream()
+                .flatMap(Optional::stream)
+                .reduce(SalesRollupService::merge)
+                .orElseGet(() -> ProductSalesRollup.empty(productId));
+    }
+
+    private static DailySalesRollup merge(DailySalesRollup a, DailySalesRollup b) {
+        return new DailySalesRollup(a.getSalesDate(), a.getOrderCount() + b.getOrderCount(), a.getUnits() + b.getUnits(),
+                a.getRevenue().add(b.getRevenue()), latest(a.getUpdatedAt(), b.getUpdatedAt()));
+    }
+
+    private static ProductSalesRollup merge(ProductSalesRollup a, ProductSalesRollup b) {
+        return new ProductSalesRollup(a.getProductId(), a.getOrderCount() + b.getOrderCount(), a.getUnits() + b.getUnits(),
+                a.getRevenue().add(b.getRevenue()), latest(a.getUpdatedAt(), b.getUpdatedAt()));
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private boolean countsAsSale(String status) {
+        return status != null && !excludedStatuses.contains(status);
+    }
+
+    private void apply(Order order, int sign) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate salesDate = (order.getOrderDate() != null ? order.getOrderDate() : now).toLocalDate();
+
+        long units = 0;
+        // Agrupa por producto por si el pedido tuviera varias líneas del mismo producto
+        Map<Long, long[]> unitsByProduct = new LinkedHashMap<>();
+        Map<Long, BigDecimal> revenueByProduct = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            units += item.getQuantity();
+            unitsByProduct.computeIfAbsent(item.getProductId(), id -> new long[1])[0] += item.getQuantity();
+            revenueByProduct.merge(item.getProductId(), item.getSubtotal(), BigDecimal::add);
+        }
+
+        BigDecimal revenue = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        int bucket = ThreadLocalRandom.current().nextInt(dailyBuckets);
+        dailySalesRollupRepository.increment(salesDate, bucket, sign, sign * units, signed(revenue, sign), now);
+
+        for (Map.Entry<Long, long[]> entry : unitsByProduct.entrySet()) {
+            Long productId = entry.getKey();
+            productSalesRollupRepository.increment(productId, sign, sign * entry.getValue()[0],
+                    signed(revenueByProduct.get(productId), sign), now);
+        }
+    }
+
+    private static BigDecimal signed(BigDecimal amount, int sign) {
+        return sign < 0 ? amount.negate() : amount;
+    }
+}
@@ -6,46 +6,130 @@ import com.programthis.order_cart_service.repository.CartItemRepository;
 import com.programthis.order_cart_service.repository.ShoppingCartRepository;
 import com.programthis.order_cart_service.client.ProductCatalogServiceClient; // ¡Añadido!
 import com.programthis.order_cart_service.dto.ProductDto; // ¡Añadido!
-import jakarta.transaction.Transactional;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
+// Un timer con histograma por método público (etiquetas class y method, ver MetricsConfig).
+// Con cart.event-sourcing.enabled=true cada operación delega en EventSourcedCartStore: las escrituras añaden un
+// evento y los carritos devueltos se reconstruyen a partir de él (no están gestionados por JPA)
 @Service
+@Timed(value = "cart.service", description = "Métodos de ShoppingCartService", histogram = true)
 public class ShoppingCartService {
 
     private final ShoppingCartRepository shoppingCartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductCatalogServiceClient productCatalogServiceClient; // ¡Añadido!
+    private final ShardExecutor shardExecutor;
+    private final EventSourcedCartStore eventSourcedCarts;
+    private final EntityManager entityManager;
 
     @Autowired
     public ShoppingCartService(ShoppingCartRepository shoppingCartRepository,
                                CartItemRepository cartItemRepository,
-                               ProductCatalogServiceClient productCatalogServiceClient) { // ¡Añadido!
+                               ProductCatalogServiceClient productCatalogServiceClient, // ¡Añadido!
+                               ShardExecutor shardExecutor,
+                               EventSourcedCartStore eventSourcedCarts,
+                               EntityManager entityManager) {
         this.shoppingCartRepository = shoppingCartRepository;
         this.cartItemRepository = cartItemRepository;
         this.productCatalogServiceClient = productCatalogServiceClient; // ¡Añadido!
+        this.shardExecutor = shardExecutor;
+        this.eventSourcedCarts = eventSourcedCarts;
+        this.entityManager = entityManager;
     }
 
     // Obtener o crear un carrito para un usuario
     @Transactional
     public ShoppingCart getOrCreateShoppingCart(Long userId) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.loadOrCreate(userId);
+        }
         Optional<ShoppingCart> existingCart = shoppingCartRepository.findByUserId(userId);
         if (existingCart.isPresent()) {
             return existingCart.get();
         } else {
-            ShoppingCart newCart = new ShoppingCart();
-            newCart.setUserId(userId);
-            return shoppingCartRepository.save(newCart);
+            return createCart(userId);
+        }
+    }
+
+    // Carrito existente, con sus líneas ya cargadas, sin crearlo si falta. Sólo lectura: con réplicas configuradas
+    // se lee de una de ellas (salvo en la ventana read-your-writes del usuario)
+    @Transactional(readOnly = true)
+    public Optional<ShoppingCart> findShoppingCart(Long userId) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.find(userId);
+        }
+        Optional<ShoppingCart> cart = shoppingCartRepository.findByUserId(userId);
+        cart.ifPresent(existing -> existing.getItems().size());
+        return cart;
+    }
+
+    // Carritos existentes de varios usuarios, en el orden pedido; no crea los que faltan.
+    // Por cada shard implicado, una consulta IN para los carritos y otra, por lotes (@BatchSize), para sus líneas.
+    // SUPPORTS: no abre conexión propia; cada shard trabaja en su transacción (ShardExecutor)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ShoppingCart> getCartsByUserIds(Collection<Long> userIds) {
+        Function<List<Long>, List<ShoppingCart>> loader = eventSourcedCarts.isEnabled()
+                ? eventSourcedCarts::findAll
+                : this::loadCarts;
+        Map<Long, ShoppingCart> byUserId = new HashMap<>();
+        for (ShoppingCart cart : shardExecutor.scatter(userIds, shardExecutor.router()::shardForUser, loader)) {
+            byUserId.put(cart.getUserId(), cart);
         }
+        List<ShoppingCart> carts = new ArrayList<>(byUserId.size());
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            ShoppingCart cart = byUserId.get(userId);
+            if (cart != null) {
+                carts.add(cart);
+            }
+        }
+        return carts;
+    }
+
+    // Carritos de un mismo shard, con las líneas ya inicializadas: el primer acceso las trae para todo el lote
+    private List<ShoppingCart> loadCarts(List<Long> userIds) {
+        List<ShoppingCart> carts = shoppingCartRepository.findByUserIdIn(userIds);
+        for (ShoppingCart cart : carts) {
+            cart.getItems().size();
+        }
+        return carts;
+    }
+
+    // Versión actual del carrito (sin cargar sus líneas), para ETag / If-None-Match / If-Match
+    @Transactional(readOnly = true)
+    public Optional<Long> getCartVersion(Long userId) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.version(userId);
+        }
+        return shoppingCartRepository.findVersionByUserId(userId);
     }
 
     // Añadir producto al carrito
     // Ahora solo necesita productId y quantity, el precio se obtiene del Product Catalog Service
     @Transactional
     public ShoppingCart addProductToCart(Long userId, Long productId, Integer quantity) {
+        return addProductToCart(userId, productId, quantity, ExpectedVersion.ANY);
+    }
+
+    // Las variantes con ExpectedVersion (If-Match) comprueban la versión del carrito cargado en la propia transacción
+    @Transactional
+    public ShoppingCart addProductToCart(Long userId, Long productId, Integer quantity, ExpectedVersion expectedVersion) {
         // 1. Obtener información del producto del Product Catalog Service
         Optional<ProductDto> productDtoOptional = productCatalogServiceClient.getProductById(productId);
         if (productDtoOptional.isEmpty()) {
@@ -53,9 +137,12 @@ public class ShoppingCartService {
         }
         ProductDto productDto = productDtoOptional.get();
         BigDecimal priceAtAddition = productDto.getPrice(); // Usar el precio del catálogo
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.addProduct(userId, productId, quantity, priceAtAddition, expectedVersion).cart();
+        }
 
         // 2. Obtener o crear el carrito
-        ShoppingCart cart = getOrCreateShoppingCart(userId);
+        ShoppingCart cart = cartToAddTo(userId, expectedVersion);
 
         // 3. Buscar si el producto ya está en el carrito
         Optional<CartItem> existingItem = cart.getItems().stream()
@@ -78,14 +165,22 @@ public class ShoppingCartService {
             cart.addCartItem(newItem); // Añade al carrito y actualiza la relación
             cartItemRepository.save(newItem);
         }
+        cart.touch();
         return shoppingCartRepository.save(cart); // Guarda el carrito para actualizar updated_at
     }
 
     // Actualizar cantidad de un producto en el carrito
     @Transactional
     public ShoppingCart updateProductQuantityInCart(Long userId, Long productId, Integer newQuantity) {
-        ShoppingCart cart = shoppingCartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Carrito no encontrado para el usuario: " + userId));
+        return updateProductQuantityInCart(userId, productId, newQuantity, ExpectedVersion.ANY);
+    }
+
+    @Transactional
+    public ShoppingCart updateProductQuantityInCart(Long userId, Long productId, Integer newQuantity, ExpectedVersion expectedVersion) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.updateQuantity(userId, productId, newQuantity, expectedVersion).cart();
+        }
+        ShoppingCart cart = existingCart(userId, expectedVersion);
 
         Optional<CartItem> existingItem = cart.getItems().stream()
                 .filter(item -> item.getProductId().equals(productId))
@@ -101,6 +196,7 @@ public class ShoppingCartService {
                 item.setQuantity(newQuantity);
                 cartItemRepository.save(item);
             }
+            cart.touch();
             return shoppingCartRepository.save(cart); // Guarda el carrito para actualizar updated_at
         } else {
             throw new RuntimeException("Producto con ID " + productId + " no encontrado en el carrito para actualizar.");
@@ -110,8 +206,15 @@ public class ShoppingCartService {
     // Eliminar un producto del carrito
     @Transactional
     public ShoppingCart removeProductFromCart(Long userId, Long productId) {
-        ShoppingCart cart = shoppingCartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Carrito no encontrado para el usuario: " + userId));
+        return removeProductFromCart(userId, productId, ExpectedVersion.ANY);
+    }
+
+    @Transactional
+    public ShoppingCart removeProductFromCart(Long userId, Long productId, ExpectedVersion expectedVersion) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.removeProduct(userId, productId, expectedVersion).cart();
+        }
+        ShoppingCart cart = existingCart(userId, expectedVersion);
 
         Optional<CartItem> itemToRemove = cart.getItems().stream()
                 .filter(item -> item.getProductId().equals(productId))
@@ -121,6 +224,7 @@ public class ShoppingCartService {
             CartItem item = itemToRemove.get();
             cart.removeCartItem(item); // Elimina del carrito y actualiza la relación
             cartItemRepository.delete(item); // Elimina el item de la base de datos
+            cart.touch();
             return shoppingCartRepository.save(cart); // Guarda el carrito para actualizar updated_at
         } else {
             throw new RuntimeException("Producto con ID " + productId + " no encontrado en el carrito para eliminar.");
@@ -130,14 +234,132 @@ public class ShoppingCartService {
     // Vaciar el carrito
     @Transactional
     public ShoppingCart clearCart(Long userId) {
+        return clearCart(userId, ExpectedVersion.ANY);
+    }
+
+    @Transactional
+    public ShoppingCart clearCart(Long userId, ExpectedVersion expectedVersion) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.clear(userId, expectedVersion).cart();
+        }
+        ShoppingCart cart = existingCart(userId, expectedVersion);
+
+        // Un único DELETE para todas las líneas, sin cargarlas ni borrarlas una a una
+        cartItemRepository.deleteAllByCartId(cart.getId());
+        cart = forgetDeletedItems(cart);
+        cart.touch();
+        return shoppingCartRepository.save(cart); // Guarda el carrito para actualizar updated_at
+    }
+
+    // Variantes "por línea" para Prefer: return=minimal / return=delta.
+    // Trabajan sólo con la línea afectada y no inicializan cart.items; los totales salen de una consulta agregada.
+
+    @Transactional
+    public CartLineChange addProductToCartLine(Long userId, Long productId, Integer quantity, ExpectedVersion expectedVersion) {
+        ProductDto productDto = productCatalogServiceClient.getProductById(productId)
+                .orElseThrow(() -> new RuntimeException("Producto con ID " + productId + " no encontrado en el catálogo. No se puede añadir al carrito."));
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.addProduct(userId, productId, quantity, productDto.getPrice(), expectedVersion);
+        }
+        ShoppingCart cart = cartToAddTo(userId, expectedVersion);
+
+        CartItem item = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId).orElse(null);
+        if (item != null) {
+            // El priceAtAddition se mantiene el original del momento de la primera adición
+            item.setQuantity(item.getQuantity() + quantity);
+        } else {
+            item = new CartItem();
+            item.setProductId(productId);
+            item.setQuantity(quantity);
+            item.setPriceAtAddition(productDto.getPrice());
+            item.setCart(cart);
+        }
+        item = cartItemRepository.save(item);
+        return flushLineChange(cart, productId, item);
+    }
+
+    @Transactional
+    public CartLineChange updateProductQuantityInCartLine(Long userId, Long productId, Integer newQuantity, ExpectedVersion expectedVersion) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.updateQuantity(userId, productId, newQuantity, expectedVersion);
+        }
+        ShoppingCart cart = existingCart(userId, expectedVersion);
+        CartItem item = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
+                .orElseThrow(() -> new RuntimeException("Producto con ID " + productId + " no encontrado en el carrito para actualizar."));
+
+        if (newQuantity <= 0) {
+            cartItemRepository.delete(item);
+            return flushLineChange(cart, productId, null);
+        }
+        item.setQuantity(newQuantity);
+        item = cartItemRepository.save(item);
+        return flushLineChange(cart, productId, item);
+    }
+
+    @Transactional
+    public CartLineChange removeProductFromCartLine(Long userId, Long productId, ExpectedVersion expectedVersion) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.removeProduct(userId, productId, expectedVersion);
+        }
+        ShoppingCart cart = existingCart(userId, expectedVersion);
+        CartItem item = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
+                .orElseThrow(() -> new RuntimeException("Producto con ID " + productId + " no encontrado en el carrito para eliminar."));
+
+        cartItemRepository.delete(item);
+        return flushLineChange(cart, productId, null);
+    }
+
+    @Transactional
+    public CartLineChange clearCartLines(Long userId, ExpectedVersion expectedVersion) {
+        if (eventSourcedCarts.isEnabled()) {
+            return eventSourcedCarts.clear(userId, expectedVersion);
+        }
+        ShoppingCart cart = existingCart(userId, expectedVersion);
+
+        cartItemRepository.deleteAllByCartId(cart.getId());
+        return flushLineChange(forgetDeletedItems(cart), null, null);
+    }
+
+    private ShoppingCart createCart(Long userId) {
+        ShoppingCart newCart = new ShoppingCart();
+        newCart.setUserId(userId);
+        return shoppingCartRepository.save(newCart);
+    }
+
+    // Carrito al que se añade un producto: si aún no existe sólo se crea cuando no se esperaba ninguna versión
+    private ShoppingCart cartToAddTo(Long userId, ExpectedVersion expectedVersion) {
+        Optional<ShoppingCart> existingCart = shoppingCartRepository.findByUserId(userId);
+        expectedVersion.check(existingCart.map(ShoppingCart::getVersion).orElse(null));
+        return existingCart.orElseGet(() -> createCart(userId));
+    }
+
+    // Carrito existente con la versión que espera la modificación. Si otra escritura se confirma después de esta
+    // lectura, el UPDATE de la versión (@Version) no encuentra la fila y la transacción falla
+    private ShoppingCart existingCart(Long userId, ExpectedVersion expectedVersion) {
         ShoppingCart cart = shoppingCartRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado para el usuario: " + userId));
+        expectedVersion.check(cart.getVersion());
+        return cart;
+    }
 
-        // Solo eliminar si hay ítems para evitar errores con deleteAll(empty list)
-        if (!cart.getItems().isEmpty()) {
-            cartItemRepository.deleteAll(cart.getItems()); // Elimina todos los ítems del carrito
+    // Tras el DELETE en bloque, las líneas que ya estuvieran cargadas en esta transacción (p. ej. en el checkout)
+    // siguen en el contexto de persistencia y en cart.items. No se vacía la colección (orphanRemoval volvería a
+    // borrar cada línea al hacer flush): se escribe lo pendiente, se separa el carrito (en cascada, sus líneas) y se
+    // vuelve a leer, así el carrito devuelto sale sin líneas
+    private ShoppingCart forgetDeletedItems(ShoppingCart cart) {
+        if (!Hibernate.isInitialized(cart.getItems()) || cart.getItems().isEmpty()) {
+            return cart;
         }
-        cart.getItems().clear(); // Limpia la lista en memoria
-        return shoppingCartRepository.save(cart); // Guarda el carrito para actualizar updated_at
+        entityManager.flush();
+        entityManager.detach(cart);
+        return shoppingCartRepository.findById(cart.getId())
+                .orElseThrow(() -> new RuntimeException("Carrito no encontrado: " + cart.getId()));
+    }
+
+    // Incrementa la versión del carrito, escribe los cambios y recalcula los totales con ellos ya aplicados
+    private CartLineChange flushLineChange(ShoppingCart cart, Long productId, CartItem item) {
+        cart.touch();
+        ShoppingCart savedCart = shoppingCartRepository.saveAndFlush(cart);
+        return new CartLineChange(savedCart, productId, item, cartItemRepository.summarizeByCartId(savedCart.getId()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package com.programthis.order_cart_service.service;
+
+// La versión actual no es la que esperaba la modificación (ExpectedVersion); en la API, 412 con el ETag actual
+public class VersionMismatchException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public VersionMismatchException(Long currentVersion) {
+        super("La versión actual (" + currentVersion + ") no es la esperada");
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,36 @@
+package com.programthis.order_cart_service.sharding;
+
+// Shard de la petición o tarea en curso; ShardRoutingDataSource lo consulta al pedir una conexión.
+// Se fija antes de abrir la transacción (ShardRoutingInterceptor en la web, ShardExecutor en el resto): una
+// transacción usa siempre la conexión del shard que estaba fijado al empezar.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    // null si no hay ninguno fijado (se usa el shard 0)
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    // Fija "shard" como shard actual del hilo; al cerrar el resultado se restaura el anterior
+    public static Binding bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,112 @@
+package com.programthis.order_cart_service.sharding;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// Ejecuta trabajo en un shard concreto o en todos: consultas con claves de varios usuarios, exportación, archivado
+// y acumulados de ventas. Con sharding cada shard va en una transacción nueva (REQUIRES_NEW) con un EntityManager
+// propio, así que toma una conexión del pool de su shard. REQUIRES_NEW sólo aparta el EntityManager de una
+// transacción en curso; el de la petición (open-in-view) no es una transacción y JpaTransactionManager lo
+// reutilizaría con la conexión que ya tiene (la del primer shard), por eso se desliga mientras dura el trabajo.
+// Las entidades devueltas quedan separadas: lo perezoso se inicializa dentro de "work".
+// Sin sharding se une a la transacción en curso y el comportamiento es el de siempre.
+// onEachShard y scatter sólo se usan para leer: sus transacciones son de sólo lectura (réplicas, si las hay).
+@Component
+public class ShardExecutor {
+
+    private final ShardRouter shardRouter;
+    private final JpaTransactionManager jpaTransactionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+
+    @Autowired
+    public ShardExecutor(ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter;
+        this.jpaTransactionManager = transactionManager instanceof JpaTransactionManager jpa ? jpa : null;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(shardRouter.isSharded()
+                ? TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                : TransactionDefinition.PROPAGATION_REQUIRED);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager, transactionTemplate);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    public ShardRouter router() {
+        return shardRouter;
+    }
+
+    // "work" en una transacción sobre el shard indicado
+    public <T> T onShard(int shard, Supplier<T> work) {
+        return onShard(shard, transactionTemplate, work);
+    }
+
+    private <T> T onShard(int shard, TransactionTemplate template, Supplier<T> work) {
+        try (ShardContext.Binding ignored = ShardContext.bind(shard);
+             ShardContext.Binding detached = detachRequestEntityManager()) {
+            return template.execute(status -> work.get());
+        }
+    }
+
+    // Con sharding y fuera de una transacción, desliga del hilo el EntityManager de open-in-view (si lo hay) para que
+    // la transacción del shard cree el suyo; al cerrar el resultado se vuelve a ligar
+    private ShardContext.Binding detachRequestEntityManager() {
+        EntityManagerFactory entityManagerFactory = jpaTransactionManager != null
+                ? jpaTransactionManager.getEntityManagerFactory() : null;
+        if (!shardRouter.isSharded() || entityManagerFactory == null
+                || TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.hasResource(entityManagerFactory)) {
+            return () -> {
+            };
+        }
+        Object requestEntityManager = TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        return () -> TransactionSynchronizationManager.bindResource(entityManagerFactory, requestEntityManager);
+    }
+
+    // "work" (de sólo lectura) en cada shard, en orden; un resultado por shard
+    public <T> List<T> onEachShard(Supplier<T> work) {
+        List<T> results = new ArrayList<>(shardRouter.shardCount());
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            results.add(onShard(shard, readOnlyTemplate, work));
+        }
+        return results;
+    }
+
+    // Fija cada shard y llama a "work" sin abrir transacción, para tareas que hacen varias transacciones cortas
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardContext.Binding ignored = ShardContext.bind(shard)) {
+                work.accept(shard);
+            }
+        }
+    }
+
+    // Agrupa las claves por shard y llama a "query" una vez por shard con sus claves; los resultados se concatenan
+    // por orden de shard (el llamante reordena si hace falta)
+    public <K, T> List<T> scatter(Collection<K> keys, ToIntFunction<K> shardOf, Function<List<K>, List<T>> query) {
+        Map<Integer, List<K>> keysByShard = new TreeMap<>();
+        for (K key : keys) {
+            keysByShard.computeIfAbsent(shardOf.applyAsInt(key), shard -> new ArrayList<>()).add(key);
+        }
+        List<T> results = new ArrayList<>();
+        for (Map.Entry<Integer, List<K>> entry : keysByShard.entrySet()) {
+            results.addAll(onShard(entry.getKey(), readOnlyTemplate, () -> query.apply(entry.getValue())));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,102 @@
+package com.programthis.order_cart_service.sharding;
+
+import java.util.Arrays;
+
+// Decide en qué shard viven los datos de un usuario y en cuál se creó un pedido.
+// Usuarios: anillo de hash consistente con "virtualNodes" puntos por shard, así al añadir un shard sólo cambia de
+// sitio ~1/N de los usuarios. Pedidos: el shard va codificado en el propio ID, porque cada shard genera sus IDs con
+// auto_increment_increment = ORDER_ID_STRIDE y auto_increment_offset = shard + 1 (ver ShardingConfig); los IDs
+// anteriores al sharding (hasta legacyMaxOrderId) están todos en el shard 0.
+public final class ShardRouter {
+
+    // Máximo de shards que admite la codificación de los IDs; no se puede cambiar sin renumerar pedidos
+    public static final int ORDER_ID_STRIDE = 16;
+
+    private static final ShardRouter SINGLE = new ShardRouter(1, 1, Long.MAX_VALUE);
+
+    private final int shardCount;
+    private final long legacyMaxOrderId;
+    // Puntos del anillo ordenados y el shard de cada uno
+    private final long[] ringPoints;
+    private final int[] ringShards;
+
+    public ShardRouter(int shardCount, int virtualNodes, long legacyMaxOrderId) {
+        if (shardCount < 1 || shardCount > ORDER_ID_STRIDE) {
+            throw new IllegalArgumentException("El número de shards debe estar entre 1 y " + ORDER_ID_STRIDE + ": " + shardCount);
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes debe ser positivo: " + virtualNodes);
+        }
+        this.shardCount = shardCount;
+        this.legacyMaxOrderId = legacyMaxOrderId;
+
+        long[][] points = new long[shardCount * virtualNodes][];
+        int i = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                points[i++] = new long[]{mix(((long) shard << 32) | replica), shard};
+            }
+        }
+        Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+        this.ringPoints = new long[points.length];
+        this.ringShards = new int[points.length];
+        for (i = 0; i < points.length; i++) {
+            ringPoints[i] = points[i][0];
+            ringShards[i] = (int) points[i][1];
+        }
+    }
+
+    // Sin sharding: todo va al shard 0
+    public static ShardRouter single() {
+        return SINGLE;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    // Primer punto del anillo a partir del hash del usuario (dando la vuelta al final)
+    public int shardForUser(long userId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(ringPoints, mix(userId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return ringShards[index == ringPoints.length ? 0 : index];
+    }
+
+    // true si el usuario puede tener pedidos anteriores al sharding fuera de su shard: todos ellos siguen en el 0
+    public boolean hasLegacyOrdersElsewhere(long userId) {
+        return shardCount > 1 && legacyMaxOrderId > 0 && shardForUser(userId) != 0;
+    }
+
+    public long legacyMaxOrderId() {
+        return legacyMaxOrderId;
+    }
+
+    // Un ID que no puede haber generado ningún shard existente se busca en el 0, donde tampoco existe
+    public int shardForOrder(long orderId) {
+        if (shardCount == 1 || orderId <= legacyMaxOrderId) {
+            return 0;
+        }
+        int shard = (int) Math.floorMod(orderId - 1, (long) ORDER_ID_STRIDE);
+        return shard < shardCount ? shard : 0;
+    }
+
+    // Finalizador de MurmurHash3 (fmix64): reparte bien IDs consecutivos
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,93 @@
+package com.programthis.order_cart_service.web;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Límite de concurrencia adaptativo AIMD (aumento aditivo, disminución multiplicativa):
+// - Petición lenta (por encima de latencyThreshold) o fallida: el límite baja a limit * backoffRatio.
+// - Petición rápida con el límite casi lleno (al menos la mitad en vuelo): el límite sube en 1.
+// Las peticiones que superan el límite se rechazan al momento en lugar de esperar en la cola del pool.
+public class AimdConcurrencyLimit {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int limit;
+
+    public AimdConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit,
+                                double backoffRatio, Duration latencyThreshold) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Límites inválidos para " + name + ": min=" + minLimit + ", max=" + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio debe estar entre 0 y 1: " + backoffRatio);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    // true si hay hueco; quien lo obtiene debe llamar después a onSuccess u onDropped exactamente una vez
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            backOff();
+        } else if (inFlightBefore * 2 >= limit) {
+            increase();
+        }
+    }
+
+    // Error o timeout: se trata como señal de sobrecarga
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        backOff();
+    }
+
+    private synchronized void increase() {
+        if (limit < maxLimit) {
+            limit = limit + 1;
+        }
+    }
+
+    private synchronized void backOff() {
+        limit = Math.max(minLimit, (int) (limit * backoffRatio));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,21 @@
+package com.programthis.order_cart_service.web;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+// Formatos binarios de Jackson para el tráfico entre servicios: mismo contenido que el JSON (HAL incluido), menos bytes.
+// Sólo se usan si el cliente los pide en Accept; sin Accept la respuesta sigue siendo HAL JSON.
+public final class BinaryMediaTypes {
+
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    public static final List<MediaType> ALL = List.of(CBOR, SMILE);
+
+    private BinaryMediaTypes() {
+    }
+
+    public static boolean isBinary(MediaType mediaType) {
+        return ALL.stream().anyMatch(mediaType::equalsTypeAndSubtype);
+    }
+}
@@ -0,0 +1,124 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.controller.OrderController;
+import com.programthis.order_cart_service.controller.ShoppingCartController;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.List;
+
+// Descarta carga antes de que llegue al pool de MySQL y al catálogo: cada petición de carritos/pedidos
+// ocupa un hueco de su límite (lecturas, modificaciones o checkout) y, si no queda, recibe 503 con Retry-After.
+// Los límites se ajustan solos (AimdConcurrencyLimit) según la latencia y los errores observados.
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    static final String CHECKOUT_METHOD = "createOrderFromCart";
+    private static final String ACQUIRED = ConcurrencyLimitInterceptor.class.getName() + ".acquired";
+    private static final String STARTED_AT = ConcurrencyLimitInterceptor.class.getName() + ".startedAt";
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final AimdConcurrencyLimit reads;
+    private final AimdConcurrencyLimit writes;
+    private final AimdConcurrencyLimit checkout;
+    private final String retryAfterSeconds;
+
+    @Autowired
+    public ConcurrencyLimitInterceptor(MeterRegistry meterRegistry,
+                                       @Value("${concurrency-limit.min-limit:4}") int minLimit,
+                                       @Value("${concurrency-limit.reads.max-limit:200}") int readsMaxLimit,
+                                       @Value("${concurrency-limit.reads.latency-threshold-ms:250}") long readsLatencyMs,
+                                       @Value("${concurrency-limit.writes.max-limit:100}") int writesMaxLimit,
+                                       @Value("${concurrency-limit.writes.latency-threshold-ms:500}") long writesLatencyMs,
+                                       @Value("${concurrency-limit.checkout.max-limit:40}") int checkoutMaxLimit,
+                                       @Value("${concurrency-limit.checkout.latency-threshold-ms:2000}") long checkoutLatencyMs,
+                                       @Value("${concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        this(meterRegistry,
+                limit("reads", minLimit, readsMaxLimit, readsLatencyMs),
+                limit("writes", minLimit, writesMaxLimit, writesLatencyMs),
+                limit("checkout", minLimit, checkoutMaxLimit, checkoutLatencyMs),
+                retryAfterSeconds);
+    }
+
+    public ConcurrencyLimitInterceptor(MeterRegistry meterRegistry, AimdConcurrencyLimit reads, AimdConcurrencyLimit writes,
+                                       AimdConcurrencyLimit checkout, int retryAfterSeconds) {
+        this.reads = reads;
+        this.writes = writes;
+        this.checkout = checkout;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        for (AimdConcurrencyLimit limit : List.of(reads, writes, checkout)) {
+            Gauge.builder("http.concurrency.limit", limit, AimdConcurrencyLimit::getLimit)
+                    .tag("limiter", limit.getName())
+                    .description("Límite de concurrencia actual")
+                    .register(meterRegistry);
+            Gauge.builder("http.concurrency.in-flight", limit, AimdConcurrencyLimit::getInFlight)
+                    .tag("limiter", limit.getName())
+                    .register(meterRegistry);
+            FunctionCounter.builder("http.concurrency.rejected", limit, AimdConcurrencyLimit::getRejected)
+                    .tag("limiter", limit.getName())
+                    .description("Peticiones rechazadas con 503")
+                    .register(meterRegistry);
+        }
+    }
+
+    // Arranca en la mitad del máximo y deja que AIMD encuentre el punto de equilibrio
+    private static AimdConcurrencyLimit limit(String name, int minLimit, int maxLimit, long latencyThresholdMs) {
+        return new AimdConcurrencyLimit(name, Math.max(minLimit, maxLimit / 2), minLimit, maxLimit,
+                BACKOFF_RATIO, Duration.ofMillis(latencyThresholdMs));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AimdConcurrencyLimit limit = limitFor(request, handler);
+        if (limit == null) {
+            return true;
+        }
+        if (!limit.tryAcquire()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return false;
+        }
+        request.setAttribute(ACQUIRED, limit);
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(ACQUIRED) instanceof AimdConcurrencyLimit limit)) {
+            return;
+        }
+        request.removeAttribute(ACQUIRED);
+        if (ex != null || response.getStatus() >= 500) {
+            limit.onDropped();
+        } else {
+            limit.onSuccess(System.nanoTime() - (long) request.getAttribute(STARTED_AT));
+        }
+    }
+
+    // Sólo los controladores de carritos y pedidos; null deja pasar la petición sin límite
+    private AimdConcurrencyLimit limitFor(HttpServletRequest request, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return null;
+        }
+        Class<?> controller = handlerMethod.getBeanType();
+        if (controller != ShoppingCartController.class && controller != OrderController.class) {
+            return null;
+        }
+        if (CHECKOUT_METHOD.equals(handlerMethod.getMethod().getName())) {
+            return checkout;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? reads : writes;
+    }
+}
@@ -0,0 +1,97 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.controller.OrderController;
+import com.programthis.order_cart_service.controller.ShoppingCartController;
+import com.programthis.order_cart_service.service.OrderService;
+import com.programthis.order_cart_service.service.ShoppingCartService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Resuelve las peticiones condicionales sobre carritos y pedidos consultando sólo la columna version:
+// - GET/HEAD con If-None-Match que coincide: 304 sin cargar líneas ni serializar.
+// - Escrituras con If-Match que no coincide (o sobre un recurso inexistente): 412 sin abrir la transacción.
+// Esta comprobación es sólo un atajo: entre ella y la escritura puede confirmarse otra. Los handlers pasan If-Match a los
+// servicios (ETags.expectedVersion), que vuelven a comparar la versión dentro de la transacción de la modificación.
+@Component
+public class ConditionalRequestInterceptor implements HandlerInterceptor {
+
+    private final ShoppingCartService shoppingCartService;
+    private final OrderService orderService;
+
+    @Autowired
+    public ConditionalRequestInterceptor(ShoppingCartService shoppingCartService, OrderService orderService) {
+        this.shoppingCartService = shoppingCartService;
+        this.orderService = orderService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        String condition = request.getHeader(read ? HttpHeaders.IF_NONE_MATCH : HttpHeaders.IF_MATCH);
+        if (condition == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Optional<Long> resourceVersion = currentVersion(handlerMethod.getBeanType(), request);
+        if (resourceVersion == null) {
+            return true;
+        }
+
+        String etag = resourceVersion.map(ETags::of).orElse(null);
+        if (read) {
+            if (etag != null && ETags.noneMatchHits(condition, etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                response.setHeader(HttpHeaders.ETAG, etag);
+                // El 304 lleva las mismas cabeceras de caché que tendría el 200 (ver VersionETagResponseAdvice)
+                VaryHeaders.add(response, HttpHeaders.ACCEPT);
+                return false;
+            }
+            return true;
+        }
+        if (etag == null || !ETags.ifMatchPasses(condition, etag)) {
+            response.setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, etag);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    // Versión del recurso de la ruta, vacía si no existe, o null si la ruta no es un carrito ni un pedido
+    private Optional<Long> currentVersion(Class<?> controller, HttpServletRequest request) {
+        if (controller == ShoppingCartController.class) {
+            return lookup(request, "userId", shoppingCartService::getCartVersion);
+        }
+        if (controller == OrderController.class) {
+            return lookup(request, "orderId", orderService::getOrderVersion);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Long> lookup(HttpServletRequest request, String variable, Function<Long, Optional<Long>> versionLookup) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(variables instanceof Map<?, ?> map)) {
+            return null;
+        }
+        String id = ((Map<String, String>) map).get(variable);
+        if (id == null) {
+            return null;
+        }
+        try {
+            return versionLookup.apply(Long.valueOf(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
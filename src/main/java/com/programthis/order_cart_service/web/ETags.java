@@ -0,0 +1,62 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.service.ExpectedVersion;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// ETags fuertes derivados de la columna @Version y comparación con If-None-Match / If-Match (RFC 9110)
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-None-Match usa comparación débil: W/"3" coincide con "3"
+    public static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        return matches(ifNoneMatch, etag, true);
+    }
+
+    // If-Match usa comparación fuerte: un ETag débil nunca coincide
+    public static boolean ifMatchPasses(String ifMatch, String etag) {
+        return matches(ifMatch, etag, false);
+    }
+
+    // Versión que exige una escritura con If-Match (cualquiera si no lo lleva); un recurso inexistente no la cumple
+    public static ExpectedVersion expectedVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return ExpectedVersion.ANY;
+        }
+        return currentVersion -> currentVersion != null && ifMatchPasses(ifMatch, of(currentVersion));
+    }
+
+    // 412 de una escritura cuyo If-Match ya no se cumple, con el ETag de la versión actual si se conoce
+    public static <T> ResponseEntity<T> preconditionFailed(Long currentVersion) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+        if (currentVersion != null) {
+            response.eTag(of(currentVersion));
+        }
+        return response.build();
+    }
+
+    private static boolean matches(String header, String etag, boolean weak) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.replica.ReadYourWrites;
+import com.programthis.order_cart_service.replica.ReplicaContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Decide, antes de que nada toque la base de datos, si las lecturas de la petición pueden ir a una réplica.
+// Van al primario las peticiones que escriben (If-Match compara con la versión real, no con la de una réplica) y
+// las lecturas de un {userId} u {orderId} con la ventana read-your-writes abierta.
+@Component
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String BINDING_ATTRIBUTE = ReadYourWritesInterceptor.class.getName() + ".binding";
+
+    private final ReadYourWrites readYourWrites;
+
+    @Autowired
+    public ReadYourWritesInterceptor(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (readYourWrites.isEnabled() && (!isRead(request) || isPinned(request))) {
+            request.setAttribute(BINDING_ATTRIBUTE, ReplicaContext.pinToPrimary());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    // La respuesta asíncrona sigue en otro hilo: el del contenedor no debe quedarse con el primario fijado
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    boolean isPinned(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            return false;
+        }
+        try {
+            if (variables.containsKey("userId")) {
+                return readYourWrites.isUserPinned(Long.parseLong(variables.get("userId")));
+            }
+            if (variables.containsKey("orderId")) {
+                return readYourWrites.isOrderPinned(Long.parseLong(variables.get("orderId")));
+            }
+        } catch (NumberFormatException e) {
+            // El controlador responderá 400 sin llegar a la base de datos
+        }
+        return false;
+    }
+
+    private static void release(HttpServletRequest request) {
+        if (request.getAttribute(BINDING_ATTRIBUTE) instanceof ReplicaContext.Binding binding) {
+            request.removeAttribute(BINDING_ATTRIBUTE);
+            binding.close();
+        }
+    }
+}
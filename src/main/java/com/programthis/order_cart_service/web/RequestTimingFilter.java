@@ -0,0 +1,137 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.metrics.RequestTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Desglose por petición de /api/**: tiempo en JDBC (y número de sentencias), espera por conexión del pool y tiempo en
+// el catálogo (RequestTimings). Se envía en la cabecera Server-Timing justo antes de escribir la respuesta (o al
+// terminar la cadena si no hay cuerpo: 204, 304, 412...), y si la petición supera slow-threshold-ms se registra además
+// una línea clave=valor en el log.
+// Lo que ocurre después de empezar a escribir la respuesta (p. ej. cargas perezosas durante la serialización) sólo
+// aparece en el log.
+@Component
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestTimingFilter.class);
+    static final String SERVER_TIMING = "Server-Timing";
+
+    @Value("${request-timing.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${request-timing.server-timing-header:true}")
+    private boolean serverTimingHeader = true;
+
+    @Value("${request-timing.slow-threshold-ms:500}")
+    private long slowThresholdMs = 500;
+
+    // La ruta se compara sin el context path (server.servlet.context-path)
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/", request.getContextPath().length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = new RequestTimings();
+        ServerTimingResponse target = serverTimingHeader ? new ServerTimingResponse(response, timings) : null;
+        try (RequestTimings.Binding ignored = RequestTimings.bind(timings)) {
+            chain.doFilter(request, target != null ? target : response);
+        } finally {
+            // Respuestas sin cuerpo: nada ha confirmado aún la respuesta, así que la cabecera sale con los tiempos
+            // finales. Si la petición pasó a asíncrona, la respuesta todavía no está completa y no se toca
+            if (target != null && !request.isAsyncStarted()) {
+                target.writeHeader();
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(timings.elapsedNanos());
+            if (elapsedMs >= slowThresholdMs) {
+                log.warn("slow_request method={} path={} status={} total_ms={} db_ms={} db_statements={} "
+                                + "db_connection_wait_ms={} db_connections={} catalog_ms={} catalog_calls={}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMs,
+                        millis(timings.jdbcNanos()), timings.statements(),
+                        millis(timings.connectionWaitNanos()), timings.connections(),
+                        millis(timings.catalogNanos()), timings.catalogCalls());
+            }
+        }
+    }
+
+    static String serverTiming(RequestTimings timings) {
+        return "db;dur=" + millis(timings.jdbcNanos()) + ";desc=\"" + timings.statements() + " statements\", "
+                + "db-wait;dur=" + millis(timings.connectionWaitNanos()) + ", "
+                + "catalog;dur=" + millis(timings.catalogNanos()) + ";desc=\"" + timings.catalogCalls() + " calls\", "
+                + "app;dur=" + millis(timings.elapsedNanos());
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    // Añade Server-Timing cada vez que la respuesta puede confirmarse (cuerpo, flush, error o un estado sin cuerpo);
+    // después las cabeceras ya no se pueden modificar, así que mientras no esté confirmada se actualiza el valor
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTimings timings;
+
+        ServerTimingResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        void writeHeader() {
+            if (!isCommitted()) {
+                setHeader(SERVER_TIMING, serverTiming(timings));
+            }
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            super.setStatus(sc);
+            writeHeader();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.programthis.order_cart_service.web;
+
+import java.util.Locale;
+
+// Preferencia "return" de la cabecera Prefer (RFC 7240). DELTA es una extensión propia de este servicio.
+public enum ReturnPreference {
+    REPRESENTATION("return=representation"),
+    MINIMAL("return=minimal"),
+    DELTA("return=delta");
+
+    public static final String PREFER = "Prefer";
+    public static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    private final String token;
+
+    ReturnPreference(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    // Sin preferencia "return" reconocible se devuelve la representación completa, como hasta ahora
+    public static ReturnPreference from(String preferHeader) {
+        if (preferHeader == null) {
+            return REPRESENTATION;
+        }
+        for (String preference : preferHeader.split("[,;]")) {
+            String value = preference.trim().toLowerCase(Locale.ROOT).replace(" ", "");
+            if (value.equals(MINIMAL.token)) {
+                return MINIMAL;
+            }
+            if (value.equals(DELTA.token)) {
+                return DELTA;
+            }
+        }
+        return REPRESENTATION;
+    }
+}
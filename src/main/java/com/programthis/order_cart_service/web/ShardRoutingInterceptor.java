@@ -0,0 +1,77 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.sharding.ShardContext;
+import com.programthis.order_cart_service.sharding.ShardRouter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Fija el shard de la petición a partir de la variable de ruta {userId} o {orderId}, antes de que nada toque la base
+// de datos: con open-in-view la petición usa una sola conexión, la del primer acceso. Las rutas sin ninguna de las
+// dos (consultas de varios carritos/pedidos, exportación, analítica) reparten el trabajo con ShardExecutor.
+@Component
+public class ShardRoutingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String BINDING_ATTRIBUTE = ShardRoutingInterceptor.class.getName() + ".binding";
+
+    private final ShardRouter shardRouter;
+
+    @Autowired
+    public ShardRoutingInterceptor(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!shardRouter.isSharded()) {
+            return true;
+        }
+        Integer shard = shardOf(request);
+        if (shard != null) {
+            request.setAttribute(BINDING_ATTRIBUTE, ShardContext.bind(shard));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    // La respuesta asíncrona sigue en otro hilo: el del contenedor no debe quedarse con el shard fijado
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    Integer shardOf(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            return null;
+        }
+        try {
+            if (variables.containsKey("userId")) {
+                return shardRouter.shardForUser(Long.parseLong(variables.get("userId")));
+            }
+            if (variables.containsKey("orderId")) {
+                return shardRouter.shardForOrder(Long.parseLong(variables.get("orderId")));
+            }
+        } catch (NumberFormatException e) {
+            // El controlador responderá 400 sin llegar a la base de datos
+        }
+        return null;
+    }
+
+    private static void release(HttpServletRequest request) {
+        if (request.getAttribute(BINDING_ATTRIBUTE) instanceof ShardContext.Binding binding) {
+            request.removeAttribute(BINDING_ATTRIBUTE);
+            binding.close();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.programthis.order_cart_service.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Añade nombres a la cabecera Vary sin duplicarlos ni pisar los que ya hubiera (p. ej. Origin de CORS)
+public final class VaryHeaders {
+
+    private VaryHeaders() {
+    }
+
+    public static void add(ServerHttpResponse response, String name) {
+        HttpHeaders headers = response.getHeaders();
+        if (contains(headers.getVary(), name)) {
+            return;
+        }
+        if (response instanceof ServletServerHttpResponse servletResponse) {
+            // Directamente en la respuesta servlet: la lista de HttpHeaders puede ser de sólo lectura
+            // (la que se copia de un ResponseEntity con varyBy)
+            add(servletResponse.getServletResponse(), name);
+        } else {
+            List<String> values = new ArrayList<>(headers.getOrEmpty(HttpHeaders.VARY));
+            values.add(name);
+            headers.put(HttpHeaders.VARY, values);
+        }
+    }
+
+    public static void add(HttpServletResponse response, String name) {
+        if (!contains(response.getHeaders(HttpHeaders.VARY), name)) {
+            response.addHeader(HttpHeaders.VARY, name);
+        }
+    }
+
+    private static boolean contains(Collection<String> values, String name) {
+        for (String value : values) {
+            for (String token : value.split(",")) {
+                String trimmed = token.trim();
+                if (trimmed.equals("*") || trimmed.equalsIgnoreCase(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
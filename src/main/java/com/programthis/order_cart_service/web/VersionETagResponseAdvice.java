@@ -0,0 +1,42 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.dto.Versioned;
+import org.springframework.core.MethodParameter;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Añade el ETag (versión) a toda respuesta cuyo contenido sea un carrito, pedido o delta versionado,
+// de modo que el cliente pueda usarlo después en If-None-Match o If-Match.
+// El ETag no depende del formato (HAL JSON, JSON, CBOR o Smile), así que toda respuesta con ETag lleva también
+// Vary: Accept: una caché intermedia no debe servir a un cliente el formato negociado por otro
+@ControllerAdvice
+public class VersionETagResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        Object content = body instanceof EntityModel<?> model ? model.getContent() : body;
+        HttpHeaders headers = response.getHeaders();
+        if (content instanceof Versioned versioned
+                && versioned.version() != null
+                && !headers.containsKey(HttpHeaders.ETAG)) {
+            headers.setETag(ETags.of(versioned.version()));
+        }
+        if (headers.containsKey(HttpHeaders.ETAG)) {
+            VaryHeaders.add(response, HttpHeaders.ACCEPT);
+        }
+        return body;
+    }
+}
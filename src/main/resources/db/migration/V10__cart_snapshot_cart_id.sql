@@ -0,0 +1,4 @@
+-- ID estable del carrito con event sourcing: el de su fila en shopping_carts (existente o creada al obtener el
+-- carrito por primera vez), guardado también en el snapshot para no tener que consultarla al reconstruirlo.
+-- Los snapshots anteriores quedan con NULL y se completan con el siguiente evento o al obtener el carrito.
+ALTER TABLE cart_snapshots ADD COLUMN cart_id BIGINT;
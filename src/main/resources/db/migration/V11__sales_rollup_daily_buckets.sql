@@ -0,0 +1,5 @@
+-- El acumulado diario se reparte en varias filas por día (bucket) para que los checkouts concurrentes no esperen todos
+-- al bloqueo de la misma fila; las lecturas suman las filas del día. Las filas existentes quedan como bucket 0
+ALTER TABLE sales_rollup_daily ADD COLUMN bucket INT NOT NULL DEFAULT 0;
+ALTER TABLE sales_rollup_daily DROP PRIMARY KEY;
+ALTER TABLE sales_rollup_daily ADD PRIMARY KEY (sales_date, bucket);
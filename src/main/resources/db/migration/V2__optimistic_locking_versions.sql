@@ -0,0 +1,4 @@
+-- Versión para bloqueo optimista (@Version) y ETags de carritos y pedidos.
+-- DEFAULT 0 para que las filas ya existentes sean válidas sin rellenarlas aparte
+ALTER TABLE shopping_carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Pedidos de un usuario ordenados por fecha (historial) y recorridos por fecha (archivado, exportación, analítica)
+CREATE INDEX idx_orders_user_date ON orders (user_id, order_date);
+CREATE INDEX idx_orders_order_date ON orders (order_date);
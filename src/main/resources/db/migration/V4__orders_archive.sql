@@ -0,0 +1,32 @@
+-- Archivo de pedidos antiguos (OrderArchiveService): misma estructura que orders / order_items más archived_at.
+-- Los pedidos archivados conservan el ID original, sin AUTO_INCREMENT
+CREATE TABLE orders_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    order_date DATETIME(6) NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    shipping_address VARCHAR(255),
+    payment_method VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    version BIGINT NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_orders_archive_user_date (user_id, order_date)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_items_archive (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    subtotal DECIMAL(10, 2) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_order_items_archive_order (order_id),
+    CONSTRAINT fk_order_items_archive_order FOREIGN KEY (order_id) REFERENCES orders_archive (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,18 @@
+-- Acumulados de ventas por día y por producto (SalesRollupService)
+CREATE TABLE sales_rollup_daily (
+    sales_date DATE NOT NULL,
+    order_count BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (sales_date)
+) ENGINE = InnoDB;
+
+CREATE TABLE sales_rollup_product (
+    product_id BIGINT NOT NULL,
+    order_count BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (product_id)
+) ENGINE = InnoDB;
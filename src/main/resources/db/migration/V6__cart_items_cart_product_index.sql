@@ -0,0 +1,3 @@
+-- Búsqueda de la línea de un producto dentro de un carrito (CartItemRepository.findByCartIdAndProductId).
+-- El índice empieza por cart_id, así que también sirve a la clave ajena y al vaciado del carrito.
+CREATE INDEX idx_cart_items_cart_product ON cart_items (cart_id, product_id);
@@ -0,0 +1,23 @@
+-- Carrito con event sourcing (cart.event-sourcing.enabled): registro de eventos sólo de inserción y último snapshot
+-- por usuario. El carrito actual es el snapshot más los eventos posteriores (event_seq mayor que el del snapshot).
+CREATE TABLE cart_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    event_seq BIGINT NOT NULL,
+    event_type VARCHAR(1) NOT NULL,
+    product_id BIGINT,
+    quantity INT,
+    price DECIMAL(10, 2),
+    occurred_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_cart_events_user_seq UNIQUE (user_id, event_seq)
+) ENGINE = InnoDB;
+
+CREATE TABLE cart_snapshots (
+    user_id BIGINT NOT NULL,
+    event_seq BIGINT NOT NULL,
+    cart_lines TEXT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
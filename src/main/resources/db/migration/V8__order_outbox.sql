@@ -0,0 +1,11 @@
+-- Outbox transaccional de eventos de pedidos: se inserta en la misma transacción que crea el pedido o cambia su
+-- estado, y OrderOutboxRelay lo vacía por lotes (en orden de id) hacia el sink configurado, borrando lo publicado.
+CREATE TABLE order_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,3 @@
+-- La exportación por rango de fechas también recorre el archivo (ArchivedOrderRepository.streamByOrderDateRange);
+-- idx_orders_archive_user_date empieza por user_id y no sirve para ese rango
+CREATE INDEX idx_orders_archive_order_date ON orders_archive (order_date);
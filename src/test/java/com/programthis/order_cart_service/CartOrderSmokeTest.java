@@ -0,0 +1,140 @@
+package com.programthis.order_cart_service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Recorrido completo de los endpoints de carrito y pedido con la aplicación levantada en un puerto real, sobre H2
+// (modo MySQL) y con un catálogo HTTP local. En la JVM corre con ./mvnw test; con ./mvnw -PnativeTest test se compila
+// junto a la aplicación como imagen nativa y comprueba que los metadatos de reflexión (NativeHints) bastan para
+// persistir entidades, serializar HAL y llamar al catálogo. Por eso no usa Mockito (@MockBean no existe en nativo).
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:smoke;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "orders.archive.enabled=false"
+})
+class CartOrderSmokeTest {
+
+    private static final long USER_ID = 7L;
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {
+    };
+
+    private static final HttpServer CATALOG = startCatalog();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    // GET /api/products/{id}: cualquier producto existe, a 12.50
+    private static HttpServer startCatalog() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/products/", CartOrderSmokeTest::product);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void product(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String id = exchange.getRequestURI().getPath().substring("/api/products/".length());
+            byte[] body = ("{\"id\":" + id + ",\"name\":\"Producto " + id + "\",\"price\":12.50,\"stockQuantity\":100}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @DynamicPropertySource
+    static void catalogUrl(DynamicPropertyRegistry registry) {
+        registry.add("product-catalog-service.url", () -> "http://localhost:" + CATALOG.getAddress().getPort());
+        registry.add("product-catalog-service.accept", () -> MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    @AfterAll
+    static void stopCatalog() {
+        CATALOG.stop(0);
+    }
+
+    private ResponseEntity<Map<String, Object>> call(HttpMethod method, String path, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaTypes.HAL_JSON));
+        if (body != null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        return restTemplate.exchange(path, method, new HttpEntity<>(body, headers), JSON_OBJECT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> items(Map<String, Object> body) {
+        return (List<Map<String, Object>>) body.get("items");
+    }
+
+    @Test
+    void cartAndOrderLifecycle() {
+        assertEquals(HttpStatus.OK, call(HttpMethod.POST, "/api/carts/" + USER_ID + "/items?productId=1&quantity=2", null).getStatusCode());
+        assertEquals(HttpStatus.OK, call(HttpMethod.POST, "/api/carts/" + USER_ID + "/items?productId=2&quantity=1", null).getStatusCode());
+        assertEquals(HttpStatus.OK, call(HttpMethod.PUT, "/api/carts/" + USER_ID + "/items/1?newQuantity=3", null).getStatusCode());
+
+        ResponseEntity<Map<String, Object>> cart = call(HttpMethod.GET, "/api/carts/" + USER_ID, null);
+        assertEquals(HttpStatus.OK, cart.getStatusCode());
+        assertNotNull(cart.getHeaders().getETag());
+        assertEquals(2, items(cart.getBody()).size());
+        assertNotNull(cart.getBody().get("_links"));
+
+        ResponseEntity<Map<String, Object>> created = call(HttpMethod.POST, "/api/orders/" + USER_ID + "/createFromCart",
+                Map.of("shippingAddress", "Calle Falsa 123", "paymentMethod", "CARD"));
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        Number orderId = (Number) created.getBody().get("id");
+        assertEquals("PENDING", created.getBody().get("status"));
+        assertEquals(0, new BigDecimal("50.00").compareTo(new BigDecimal(created.getBody().get("totalAmount").toString())));
+        assertTrue(items(call(HttpMethod.GET, "/api/carts/" + USER_ID, null).getBody()).isEmpty());
+
+        assertEquals(HttpStatus.OK, call(HttpMethod.PUT, "/api/orders/" + orderId + "/status?newStatus=DELIVERED", null).getStatusCode());
+        // Dos lecturas: la primera llena la caché de pedidos finalizados y la segunda sale de ella
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<Map<String, Object>> order = call(HttpMethod.GET, "/api/orders/" + orderId, null);
+            assertEquals(HttpStatus.OK, order.getStatusCode());
+            assertEquals("DELIVERED", order.getBody().get("status"));
+            assertEquals(2, items(order.getBody()).size());
+        }
+
+        ResponseEntity<Map<String, Object>> userOrders = call(HttpMethod.GET, "/api/orders/user/" + USER_ID, null);
+        assertEquals(HttpStatus.OK, userOrders.getStatusCode());
+        assertNotNull(userOrders.getBody().get("_embedded"));
+    }
+}
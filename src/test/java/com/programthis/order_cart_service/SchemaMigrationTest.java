@@ -0,0 +1,89 @@
+package com.programthis.order_cart_service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Las migraciones de db/migration sobre H2 en modo MySQL:
+// - en una base de datos vacía se aplican todas y Hibernate valida las entidades contra el resultado
+//   (el contexto no arrancaría con ddl-auto=validate si faltara una tabla o columna);
+// - una base de datos anterior a Flyway (la que dejaba ddl-auto=update, igual a V1) se toma como versión 1 y, con las
+//   migraciones posteriores, queda con el mismo esquema que la nueva.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void existingDatabase_ShouldBeBaselinedAndMigratedToTheSameSchema() throws SQLException {
+        DataSource existing = new DriverManagerDataSource(
+                "jdbc:h2:mem:preflyway;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = existing.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline_schema.sql"));
+            connection.createStatement().execute(
+                    "INSERT INTO shopping_carts (user_id, created_at, updated_at) VALUES (1, NOW(), NOW())");
+        }
+        // V1 es sólo el esquema de entonces: las cuatro tablas, sin columnas version
+        Set<String> baseline = columns(existing);
+        assertEquals(Set.of("cart_items", "order_items", "orders", "shopping_carts"),
+                new TreeSet<>(baseline.stream().map(column -> column.substring(0, column.indexOf('.'))).toList()));
+        assertTrue(baseline.stream().noneMatch(column -> column.contains(".version ")));
+
+        Flyway.configure()
+                .dataSource(existing)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertEquals(columns(dataSource), columns(existing));
+        try (Connection connection = existing.getConnection();
+             ResultSet version = connection.createStatement().executeQuery("SELECT version FROM shopping_carts")) {
+            assertTrue(version.next());
+            assertEquals(0, version.getLong(1));
+        }
+    }
+
+    // "tabla.columna tipo nullable" de todas las tablas de la aplicación
+    private static Set<String> columns(DataSource dataSource) throws SQLException {
+        Set<String> columns = new TreeSet<>();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet resultSet = connection.createStatement().executeQuery(
+                     "SELECT table_name, column_name, data_type, is_nullable FROM information_schema.columns "
+                             + "WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history'")) {
+            while (resultSet.next()) {
+                columns.add(resultSet.getString(1) + "." + resultSet.getString(2) + " "
+                        + resultSet.getString(3) + " " + resultSet.getString(4));
+            }
+        }
+        assertFalse(columns.isEmpty());
+        return columns;
+    }
+}
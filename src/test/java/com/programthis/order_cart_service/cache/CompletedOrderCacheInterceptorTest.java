@@ -0,0 +1,69 @@
+package com.programthis.order_cart_service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CompletedOrderCacheInterceptorTest {
+
+    private CompletedOrderCache completedOrderCache;
+    private CompletedOrderCacheInterceptor interceptor;
+    private int released;
+
+    @BeforeEach
+    void setUp() {
+        completedOrderCache = mock(CompletedOrderCache.class);
+        when(completedOrderCache.isEnabled()).thenReturn(true);
+        when(completedOrderCache.get(eq(1L), any())).thenReturn(Optional.of(new CompletedOrderCache.CachedJson(
+                ByteBuffer.wrap("{\"id\":1}".getBytes(StandardCharsets.UTF_8)), () -> released++)));
+        when(completedOrderCache.getETag(1L)).thenReturn(Optional.empty());
+        interceptor = new CompletedOrderCacheInterceptor(completedOrderCache);
+    }
+
+    private static MockHttpServletRequest request(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("orderId", "1"));
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        return request;
+    }
+
+    @Test
+    void preHandle_HalJson_ShouldServeCachedBytes() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request("application/hal+json"), response, null));
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertEquals("Accept", response.getHeader("Vary"));
+        // El bloque de la arena se devuelve al terminar de escribir la respuesta
+        assertEquals(1, released);
+    }
+
+    @Test
+    void preHandle_PrefersCbor_ShouldContinueToController() throws IOException {
+        assertTrue(interceptor.preHandle(request("application/cbor, application/json;q=0.9"), new MockHttpServletResponse(), null));
+        verify(completedOrderCache, never()).get(anyLong(), any());
+    }
+
+    @Test
+    void preHandle_CborWithLowerQuality_ShouldServeCachedJson() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request("application/json, application/cbor;q=0.5"), response, null));
+        assertEquals("application/json", response.getContentType());
+    }
+}
@@ -0,0 +1,184 @@
+package com.programthis.order_cart_service.cache;
+
+import com.programthis.order_cart_service.dto.OrderResponse;
+import com.programthis.order_cart_service.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CompletedOrderCacheTest {
+
+    private static final String BASE_URI = "http://localhost";
+
+    private ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+    private CompletedOrderCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RequestMappingHandlerAdapter adapter = new RequestMappingHandlerAdapter();
+        adapter.setMessageConverters(List.of(new MappingJackson2HttpMessageConverter()));
+        handlerAdapter = mock(ObjectProvider.class);
+        when(handlerAdapter.getIfAvailable()).thenReturn(adapter);
+
+        cache = new CompletedOrderCache(handlerAdapter);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void putIfCompleted_FinalStatus_ShouldServeJsonBytes() {
+        cache.putIfCompleted(1L, "DELIVERED", EntityModel.of(order(1L, "DELIVERED")));
+
+        try (CompletedOrderCache.CachedJson cached = cache.get(1L, BASE_URI).orElseThrow()) {
+            ByteBuffer json = cached.json();
+            assertTrue(json.isReadOnly());
+            assertTrue(StandardCharsets.UTF_8.decode(json).toString().contains("\"status\":\"DELIVERED\""));
+        }
+    }
+
+    @Test
+    void putIfCompleted_VersionedRepresentation_ShouldKeepETag() {
+        Order order = order(1L, "DELIVERED");
+        order.setVersion(6L);
+        cache.putIfCompleted(1L, "DELIVERED", EntityModel.of(OrderResponse.from(order)));
+
+        assertEquals(Optional.of("\"6\""), cache.getETag(1L));
+    }
+
+    @Test
+    void putIfCompleted_PendingOrder_ShouldNotCache() {
+        cache.putIfCompleted(1L, "PENDING", EntityModel.of(order(1L, "PENDING")));
+
+        assertTrue(cache.get(1L, BASE_URI).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_DifferentBaseUri_ShouldMiss() {
+        cache.putIfCompleted(1L, "CANCELLED", EntityModel.of(order(1L, "CANCELLED")));
+
+        assertTrue(cache.get(1L, "https://shop.example.com").isEmpty());
+    }
+
+    @Test
+    void evict_ShouldRemoveEntryAndReleaseBytes() {
+        cache.putIfCompleted(1L, "DELIVERED", EntityModel.of(order(1L, "DELIVERED")));
+        assertTrue(cache.usedBytes() > 0);
+
+        cache.evict(1L);
+
+        assertTrue(cache.get(1L, BASE_URI).isEmpty());
+        assertEquals(0, cache.usedBytes());
+    }
+
+    @Test
+    void putIfCompleted_AfterEvictWithOlderVersion_ShouldNotRecacheStaleRepresentation() {
+        Order stale = order(1L, "DELIVERED");
+        stale.setVersion(3L);
+
+        cache.evict(1L, () -> 4L);
+        cache.putIfCompleted(1L, "DELIVERED", EntityModel.of(OrderResponse.from(stale)));
+
+        assertTrue(cache.get(1L, BASE_URI).isEmpty());
+    }
+
+    @Test
+    void putIfCompleted_AfterEvictWithCommittedVersion_ShouldCache() {
+        Order current = order(1L, "CANCELLED");
+        current.setVersion(4L);
+
+        cache.evict(1L, () -> 4L);
+        cache.putIfCompleted(1L, "CANCELLED", EntityModel.of(OrderResponse.from(current)));
+
+        assertEquals(Optional.of("\"4\""), cache.getETag(1L));
+    }
+
+    @Test
+    void putIfCompleted_OlderThanCachedVersion_ShouldKeepNewerEntry() {
+        Order newer = order(1L, "CANCELLED");
+        newer.setVersion(5L);
+        Order older = order(1L, "DELIVERED");
+        older.setVersion(4L);
+
+        cache.putIfCompleted(1L, "CANCELLED", EntityModel.of(OrderResponse.from(newer)));
+        cache.putIfCompleted(1L, "DELIVERED", EntityModel.of(OrderResponse.from(older)));
+
+        assertEquals(Optional.of("\"5\""), cache.getETag(1L));
+    }
+
+    @Test
+    void putIfCompleted_AfterDeleteEvict_ShouldNotCache() {
+        cache.evict(1L);
+        cache.putIfCompleted(1L, "DELIVERED", EntityModel.of(order(1L, "DELIVERED")));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void putIfCompleted_OverCapacity_ShouldEvictLeastRecentlyUsed() {
+        cache.putIfCompleted(1L, "DELIVERED", EntityModel.of(order(1L, "DELIVERED")));
+        long entrySize = cache.usedBytes();
+        ReflectionTestUtils.setField(cache, "maxBytes", entrySize * 2 + entrySize / 2);
+
+        cache.putIfCompleted(2L, "DELIVERED", EntityModel.of(order(2L, "DELIVERED")));
+        cache.get(1L, BASE_URI);
+        cache.putIfCompleted(3L, "DELIVERED", EntityModel.of(order(3L, "DELIVERED")));
+
+        assertTrue(cache.get(1L, BASE_URI).isPresent());
+        assertTrue(cache.get(2L, BASE_URI).isEmpty());
+        assertTrue(cache.get(3L, BASE_URI).isPresent());
+    }
+
+    @Test
+    void putIfCompleted_EvictedWhileBeingRead_ShouldNotReuseItsBlockUntilClosed() {
+        cache.putIfCompleted(1L, "DELIVERED", EntityModel.of(order(1L, "DELIVERED")));
+        long entrySize = cache.usedBytes();
+        // Arena de un solo bloque
+        CompletedOrderCache oneEntry = new CompletedOrderCache(handlerAdapter);
+        ReflectionTestUtils.setField(oneEntry, "maxBytes", entrySize);
+        oneEntry.reserveArena();
+        oneEntry.putIfCompleted(1L, "DELIVERED", EntityModel.of(order(1L, "DELIVERED")));
+
+        try (CompletedOrderCache.CachedJson reading = oneEntry.get(1L, BASE_URI).orElseThrow()) {
+            oneEntry.putIfCompleted(2L, "DELIVERED", EntityModel.of(order(2L, "DELIVERED")));
+
+            // La entrada 1 sale del índice, pero su bloque no se entrega a la 2 mientras se lee
+            assertTrue(oneEntry.get(1L, BASE_URI).isEmpty());
+            assertTrue(oneEntry.get(2L, BASE_URI).isEmpty());
+            assertTrue(StandardCharsets.UTF_8.decode(reading.json()).toString().contains("\"id\":1,"));
+        }
+        oneEntry.putIfCompleted(3L, "DELIVERED", EntityModel.of(order(3L, "DELIVERED")));
+
+        assertTrue(oneEntry.get(3L, BASE_URI).isPresent());
+        assertEquals(entrySize, oneEntry.usedBytes());
+    }
+
+    private static Order order(Long id, String status) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(1L);
+        order.setStatus(status);
+        return order;
+    }
+}
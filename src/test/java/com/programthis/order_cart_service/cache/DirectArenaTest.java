@@ -0,0 +1,67 @@
+package com.programthis.order_cart_service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectArenaTest {
+
+    @Test
+    void allocate_ShouldRoundUpToPowerOfTwoBlocks() {
+        assertEquals(256, DirectArena.blockSize(1));
+        assertEquals(256, DirectArena.blockSize(256));
+        assertEquals(512, DirectArena.blockSize(257));
+        assertEquals(4096, DirectArena.blockSize(4096));
+    }
+
+    @Test
+    void allocate_Full_ShouldFailUntilBlocksAreFreed() {
+        DirectArena arena = new DirectArena(1024);
+
+        int first = arena.allocate(300);
+        int second = arena.allocate(300);
+
+        assertEquals(1024, arena.capacity());
+        assertNotEquals(first, second);
+        assertEquals(-1, arena.allocate(1));
+        arena.free(first, 300);
+        assertEquals(first, arena.allocate(200));
+    }
+
+    @Test
+    void free_ShouldMergeBuddiesBackIntoTheWholeArena() {
+        DirectArena arena = new DirectArena(1024);
+        int a = arena.allocate(100);
+        int b = arena.allocate(100);
+        int c = arena.allocate(500);
+
+        arena.free(b, 100);
+        arena.free(a, 100);
+        arena.free(c, 500);
+
+        assertEquals(0, arena.allocate(1024));
+    }
+
+    @Test
+    void capacity_ShouldNotExceedTheConfiguredBytes() {
+        assertEquals(3 * DirectArena.MAX_BLOCK, new DirectArena(3L * DirectArena.MAX_BLOCK + 1000).capacity());
+        assertEquals(512, new DirectArena(1000).capacity());
+        assertEquals(0, new DirectArena(100).capacity());
+        assertEquals(-1, new DirectArena(100).allocate(1));
+        assertEquals(-1, new DirectArena(1024).allocate(2048));
+    }
+
+    @Test
+    void view_ShouldExposeOnlyTheWrittenBytes() {
+        DirectArena arena = new DirectArena(1024);
+        byte[] json = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        int offset = arena.allocate(json.length);
+
+        arena.write(offset, json);
+
+        assertEquals("{\"id\":1}", StandardCharsets.UTF_8.decode(arena.view(offset, json.length)).toString());
+        assertTrue(arena.view(offset, json.length).isReadOnly());
+    }
+}
@@ -0,0 +1,70 @@
+package com.programthis.order_cart_service.client;
+
+import com.programthis.order_cart_service.dto.ProductDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ProductCatalogServiceClientTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockRestServiceServer server;
+    private ProductCatalogServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        meterRegistry = new SimpleMeterRegistry();
+        client = new ProductCatalogServiceClient(restTemplate, meterRegistry);
+        ReflectionTestUtils.setField(client, "productCatalogServiceUrl", "http://catalog");
+        ReflectionTestUtils.setField(client, "accept", "application/json");
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.get("catalog.client.requests").tag("outcome", outcome).timer().count();
+    }
+
+    @Test
+    void getProductById_Found_ShouldRecordFoundOutcome() {
+        server.expect(requestTo("http://catalog/api/products/1"))
+                .andRespond(withSuccess("{\"id\":1,\"name\":\"Manzana\",\"price\":1.50}", MediaType.APPLICATION_JSON));
+
+        Optional<ProductDto> product = client.getProductById(1L);
+
+        assertTrue(product.isPresent());
+        assertEquals("Manzana", product.get().getName());
+        assertEquals(1, count("found"));
+        assertEquals(0, count("error"));
+    }
+
+    @Test
+    void getProductById_NotFound_ShouldRecordNotFoundOutcome() {
+        server.expect(requestTo("http://catalog/api/products/2")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        assertTrue(client.getProductById(2L).isEmpty());
+        assertEquals(1, count("not_found"));
+    }
+
+    @Test
+    void getProductById_ServerError_ShouldRecordErrorOutcome() {
+        server.expect(requestTo("http://catalog/api/products/3")).andRespond(withServerError());
+
+        assertTrue(client.getProductById(3L).isEmpty());
+        assertEquals(1, count("error"));
+        assertEquals(0, count("found"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.programthis.order_cart_service.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.programthis.order_cart_service.dto.OrderResponse;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.web.BinaryMediaTypes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebConfigTest {
+
+    private List<HttpMessageConverter<?>> converters;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        WebConfig webConfig = new WebConfig(null, null, null, null, null, objectMapper, new DefaultLinkRelationProvider());
+        converters = new ArrayList<>(List.of(new MappingJackson2HttpMessageConverter(objectMapper),
+                new MappingJackson2CborHttpMessageConverter()));
+        webConfig.extendMessageConverters(converters);
+    }
+
+    @Test
+    void extendMessageConverters_ShouldReplaceBinaryConvertersAfterJson() {
+        assertEquals(3, converters.size());
+        assertInstanceOf(MappingJackson2HttpMessageConverter.class, converters.get(0));
+        assertInstanceOf(MappingJackson2CborHttpMessageConverter.class, converters.get(1));
+        assertInstanceOf(MappingJackson2SmileHttpMessageConverter.class, converters.get(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cborConverter_ShouldWriteHalLinks() throws IOException {
+        Order order = new Order();
+        order.setId(1L);
+        order.setUserId(2L);
+        order.setStatus("PENDING");
+        order.setTotalAmount(new BigDecimal("55.50"));
+        order.setOrderDate(LocalDateTime.of(2024, 5, 1, 10, 0));
+        EntityModel<OrderResponse> model = EntityModel.of(OrderResponse.from(order), Link.of("http://localhost/api/orders/1"));
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        ((HttpMessageConverter<Object>) converters.get(1)).write(model, BinaryMediaTypes.CBOR, output);
+
+        JsonNode tree = new ObjectMapper(new CBORFactory()).readTree(output.getBodyAsBytes());
+        assertEquals("http://localhost/api/orders/1", tree.at("/_links/self/href").asText());
+        assertEquals("PENDING", tree.at("/status").asText());
+    }
+}
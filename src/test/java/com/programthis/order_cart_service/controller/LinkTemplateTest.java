@@ -0,0 +1,77 @@
+package com.programthis.order_cart_service.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+class LinkTemplateTest {
+
+    private static final LinkTemplate CART = LinkTemplate.of(ShoppingCartController.class, "getOrCreateCart", Long.class);
+    private static final LinkTemplate ADD_ITEM = LinkTemplate.of(ShoppingCartController.class, "addProductToCart", Long.class, Long.class, Integer.class, String.class, String.class);
+    private static final LinkTemplate USER_ORDERS = LinkTemplate.of(OrderController.class, "getOrdersByUserId", Long.class, Boolean.class);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts/7");
+        request.setServerName("shop.example.com");
+        request.setServerPort(8083);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    // Mismo rel y misma URI que linkTo(methodOn(...)), que además lleva affordances (LinkTemplate no las genera).
+    // Los parámetros sin valor se escriben de otra forma ({?productId,quantity} frente a ?productId={productId}...),
+    // así que las plantillas se comparan ya expandidas
+    private static void assertSameLink(Link expected, Link actual, Map<String, ?> parameters) {
+        assertEquals(expected.getRel(), actual.getRel());
+        assertEquals(expected.isTemplated(), actual.isTemplated());
+        assertEquals(expected.expand(parameters).getHref(), actual.expand(parameters).getHref());
+    }
+
+    @Test
+    void toLink_ShouldMatchMethodOnLinks() {
+        bindRequest();
+        String baseUri = LinkTemplate.currentBaseUri();
+
+        assertSameLink(linkTo(methodOn(ShoppingCartController.class).getOrCreateCart(7L)).withSelfRel(),
+                CART.toLink(baseUri, IanaLinkRelations.SELF, 7L), Map.of());
+        assertSameLink(linkTo(methodOn(ShoppingCartController.class).addProductToCart(7L, null, null, null, null)).withRel("add-item"),
+                ADD_ITEM.toLink(baseUri, LinkRelation.of("add-item"), 7L, null, null), Map.of("productId", 3, "quantity", 2));
+        assertSameLink(linkTo(methodOn(OrderController.class).getOrdersByUserId(7L, true)).withSelfRel(),
+                USER_ORDERS.toLink(baseUri, IanaLinkRelations.SELF, 7L, true), Map.of());
+    }
+
+    @Test
+    void expand_UnboundRequestParams_ShouldBeTemplated() {
+        Link link = ADD_ITEM.toLink("", LinkRelation.of("add-item"), 7L, null, null);
+
+        assertEquals("/api/carts/7/items{?productId,quantity}", link.getHref());
+        assertTrue(link.isTemplated());
+        assertEquals("/api/carts/7/items?productId=3{&quantity}", ADD_ITEM.expand("", 7L, 3L, null));
+    }
+
+    @Test
+    void currentBaseUri_WithoutRequest_ShouldBeEmpty() {
+        assertEquals("", LinkTemplate.currentBaseUri());
+        assertEquals("/api/carts/7", CART.expand(LinkTemplate.currentBaseUri(), 7L));
+    }
+
+    @Test
+    void expand_WrongArgumentCount_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> CART.expand("", 7L, 8L));
+    }
+}
@@ -1,6 +1,9 @@
 package com.programthis.order_cart_service.controller;
 
+import com.programthis.order_cart_service.cache.CompletedOrderCache;
+import com.programthis.order_cart_service.dto.OrderResponse;
 import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.service.ExpectedVersion;
 import com.programthis.order_cart_service.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,20 +14,29 @@ import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class OrderControllerTest {
 
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private CompletedOrderCache completedOrderCache;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -47,12 +59,12 @@ public class OrderControllerTest {
                 .thenReturn(mockOrder);
 
         // Act
-        ResponseEntity<EntityModel<Order>> response = orderController.createOrderFromCart(userId, request);
+        ResponseEntity<EntityModel<OrderResponse>> response = orderController.createOrderFromCart(userId, request);
 
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(mockOrder, response.getBody().getContent());
+        assertEquals(OrderResponse.from(mockOrder), response.getBody().getContent());
         assertTrue(response.getBody().getLink("self").isPresent());
     }
 
@@ -65,7 +77,7 @@ public class OrderControllerTest {
                 .thenThrow(new RuntimeException("Cart not found"));
 
         // Act
-        ResponseEntity<EntityModel<Order>> response = orderController.createOrderFromCart(userId, request);
+        ResponseEntity<EntityModel<OrderResponse>> response = orderController.createOrderFromCart(userId, request);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -78,13 +90,14 @@ public class OrderControllerTest {
         when(orderService.getOrderById(1L)).thenReturn(Optional.of(mockOrder));
 
         // Act
-        ResponseEntity<EntityModel<Order>> response = orderController.getOrderById(1L);
+        ResponseEntity<EntityModel<OrderResponse>> response = orderController.getOrderById(1L);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(mockOrder, response.getBody().getContent());
+        assertEquals(OrderResponse.from(mockOrder), response.getBody().getContent());
         assertTrue(response.getBody().getLink("self").isPresent());
+        verify(completedOrderCache, times(1)).putIfCompleted(mockOrder.getId(), mockOrder.getStatus(), response.getBody());
     }
 
     @Test
@@ -93,7 +106,7 @@ public class OrderControllerTest {
         when(orderService.getOrderById(1L)).thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<EntityModel<Order>> response = orderController.getOrderById(1L);
+        ResponseEntity<EntityModel<OrderResponse>> response = orderController.getOrderById(1L);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -104,10 +117,10 @@ public class OrderControllerTest {
         // Arrange
         Long userId = 1L;
         List<Order> mockOrders = Arrays.asList(mockOrder, new Order());
-        when(orderService.getOrdersByUserId(userId)).thenReturn(mockOrders);
+        when(orderService.getOrdersByUserId(userId, false)).thenReturn(mockOrders);
 
         // Act
-        ResponseEntity<CollectionModel<EntityModel<Order>>> response = orderController.getOrdersByUserId(userId);
+        ResponseEntity<CollectionModel<EntityModel<OrderResponse>>> response = orderController.getOrdersByUserId(userId, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -116,6 +129,21 @@ public class OrderControllerTest {
         assertTrue(response.getBody().getLink("self").isPresent());
     }
 
+    @Test
+    public void testGetOrdersByUserId_IncludeArchived() {
+        // Arrange
+        Long userId = 1L;
+        when(orderService.getOrdersByUserId(userId, true)).thenReturn(List.of(mockOrder));
+
+        // Act
+        ResponseEntity<CollectionModel<EntityModel<OrderResponse>>> response = orderController.getOrdersByUserId(userId, true);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, Objects.requireNonNull(response.getBody()).getContent().size());
+        verify(orderService, never()).getOrdersByUserId(userId, false);
+    }
+
     @Test
     public void testUpdateOrderStatus_Success() {
         // Arrange
@@ -125,15 +153,15 @@ public class OrderControllerTest {
         updatedOrder.setId(orderId);
         updatedOrder.setUserId(1L);
         updatedOrder.setStatus(newStatus);
-        when(orderService.updateOrderStatus(orderId, newStatus)).thenReturn(updatedOrder);
+        when(orderService.updateOrderStatus(orderId, newStatus, ExpectedVersion.ANY)).thenReturn(updatedOrder);
 
         // Act
-        ResponseEntity<EntityModel<Order>> response = orderController.updateOrderStatus(orderId, newStatus);
+        ResponseEntity<EntityModel<OrderResponse>> response = orderController.updateOrderStatus(orderId, newStatus, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(newStatus, Objects.requireNonNull(response.getBody().getContent()).getStatus());
+        assertEquals(newStatus, Objects.requireNonNull(response.getBody().getContent()).status());
     }
 
     @Test
@@ -141,16 +169,49 @@ public class OrderControllerTest {
         // Arrange
         Long orderId = 1L;
         String newStatus = "SHIPPED";
-        when(orderService.updateOrderStatus(orderId, newStatus))
+        when(orderService.updateOrderStatus(orderId, newStatus, ExpectedVersion.ANY))
                 .thenThrow(new RuntimeException("Order not found"));
 
         // Act
-        ResponseEntity<EntityModel<Order>> response = orderController.updateOrderStatus(orderId, newStatus);
+        ResponseEntity<EntityModel<OrderResponse>> response = orderController.updateOrderStatus(orderId, newStatus, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    public void testUpdateOrderStatus_IfMatchStale_ShouldReturnPreconditionFailed() {
+        // Arrange: la versión se compara en la transacción del servicio, no sólo en el interceptor
+        Long orderId = 1L;
+        when(orderService.updateOrderStatus(eq(orderId), eq("SHIPPED"), any()))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(2, ExpectedVersion.class).check(3L);
+                    return new Order();
+                });
+
+        // Act
+        ResponseEntity<EntityModel<OrderResponse>> response = orderController.updateOrderStatus(orderId, "SHIPPED", "\"2\"");
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void testDeleteOrder_IfMatchConflictAfterCheck_ShouldReturnPreconditionFailed() {
+        // Arrange: otra escritura se confirmó después de comparar la versión y @Version hace fallar el borrado
+        Long orderId = 1L;
+        doThrow(new ObjectOptimisticLockingFailureException(Order.class, orderId))
+                .when(orderService).deleteOrder(eq(orderId), any(ExpectedVersion.class));
+
+        // Act
+        ResponseEntity<Void> response = orderController.deleteOrder(orderId, "\"2\"");
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(orderService, never()).deleteOrder(orderId);
+    }
+
     @Test
     public void testDeleteOrder_Success() {
         // Arrange
@@ -158,7 +219,7 @@ public class OrderControllerTest {
         doNothing().when(orderService).deleteOrder(orderId);
 
         // Act
-        ResponseEntity<Void> response = orderController.deleteOrder(orderId);
+        ResponseEntity<Void> response = orderController.deleteOrder(orderId, null);
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
@@ -172,9 +233,45 @@ public class OrderControllerTest {
         doThrow(new RuntimeException("Order not found")).when(orderService).deleteOrder(orderId);
 
         // Act
-        ResponseEntity<Void> response = orderController.deleteOrder(orderId);
+        ResponseEntity<Void> response = orderController.deleteOrder(orderId, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetOrdersByIds_Success() {
+        // Arrange
+        Order second = new Order();
+        second.setId(2L);
+        second.setUserId(1L);
+        when(orderService.getOrdersByIds(List.of(1L, 2L))).thenReturn(List.of(mockOrder, second));
+
+        // Act
+        ResponseEntity<CollectionModel<EntityModel<OrderResponse>>> response = orderController.getOrdersByIds(List.of(1L, 2L));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, Objects.requireNonNull(response.getBody()).getContent().size());
+    }
+
+    @Test
+    public void testGetOrdersByIds_TooManyIds_ShouldReturnBadRequest() {
+        List<Long> ids = LongStream.rangeClosed(1, OrderController.MAX_BATCH_IDS + 1).boxed().toList();
+
+        ResponseEntity<CollectionModel<EntityModel<OrderResponse>>> response = orderController.getOrdersByIds(ids);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    public void testGetOrdersByIds_EmptyId_ShouldReturnBadRequest() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(orderController).build();
+
+        mockMvc.perform(get("/api/orders").param("ids", "1,,2")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders").param("ids", ",")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders").param("ids", "")).andExpect(status().isBadRequest());
+        verifyNoInteractions(orderService);
+    }
+}
@@ -1,20 +1,36 @@
 package com.programthis.order_cart_service.controller;
 
+import com.programthis.order_cart_service.dto.CartDeltaResponse;
+import com.programthis.order_cart_service.dto.CartItemResponse;
+import com.programthis.order_cart_service.dto.ShoppingCartResponse;
+import com.programthis.order_cart_service.model.CartItem;
 import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.CartTotals;
+import com.programthis.order_cart_service.service.CartLineChange;
+import com.programthis.order_cart_service.service.ExpectedVersion;
 import com.programthis.order_cart_service.service.ShoppingCartService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class ShoppingCartControllerTest {
 
@@ -42,36 +58,49 @@ public class ShoppingCartControllerTest {
         when(shoppingCartService.getOrCreateShoppingCart(userId)).thenReturn(cart);
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.getOrCreateCart(userId);
+        ResponseEntity<EntityModel<ShoppingCartResponse>> response = shoppingCartController.getOrCreateCart(userId);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(cart, response.getBody().getContent());
+        assertEquals(ShoppingCartResponse.from(cart), response.getBody().getContent());
         assertTrue(response.getBody().getLink("self").isPresent());
     }
 
+    @Test
+    public void testGetOrCreateCart_ExistingCart_ShouldNotCreate() {
+        when(shoppingCartService.findShoppingCart(userId)).thenReturn(Optional.of(cart));
+
+        ResponseEntity<EntityModel<ShoppingCartResponse>> response = shoppingCartController.getOrCreateCart(userId);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ShoppingCartResponse.from(cart), Objects.requireNonNull(response.getBody()).getContent());
+        verify(shoppingCartService, never()).getOrCreateShoppingCart(anyLong());
+    }
+
     @Test
     public void testAddProductToCart_Success() {
         // Arrange
-        when(shoppingCartService.addProductToCart(userId, productId, 2)).thenReturn(cart);
+        when(shoppingCartService.addProductToCart(userId, productId, 2, ExpectedVersion.ANY)).thenReturn(cart);
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.addProductToCart(userId, productId, 2);
+        ResponseEntity<?> response = shoppingCartController.addProductToCart(userId, productId, 2, null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(cart, response.getBody().getContent());
+        assertEquals(ShoppingCartResponse.from(cart), content(response));
+        // Sin Prefer la representación también depende de Prefer (con él sería 204 o un delta)
+        assertEquals(List.of("Prefer"), response.getHeaders().getVary());
     }
 
     @Test
     public void testAddProductToCart_Failure() {
         // Arrange
-        when(shoppingCartService.addProductToCart(userId, productId, 2)).thenThrow(new RuntimeException("Product not found"));
+        when(shoppingCartService.addProductToCart(userId, productId, 2, ExpectedVersion.ANY)).thenThrow(new RuntimeException("Product not found"));
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.addProductToCart(userId, productId, 2);
+        ResponseEntity<?> response = shoppingCartController.addProductToCart(userId, productId, 2, null, null);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -81,23 +110,23 @@ public class ShoppingCartControllerTest {
     @Test
     public void testUpdateProductQuantityInCart_Success() {
         // Arrange
-        when(shoppingCartService.updateProductQuantityInCart(userId, productId, 3)).thenReturn(cart);
+        when(shoppingCartService.updateProductQuantityInCart(userId, productId, 3, ExpectedVersion.ANY)).thenReturn(cart);
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.updateProductQuantityInCart(userId, productId, 3);
+        ResponseEntity<?> response = shoppingCartController.updateProductQuantityInCart(userId, productId, 3, null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(cart, Objects.requireNonNull(response.getBody()).getContent());
+        assertEquals(ShoppingCartResponse.from(cart), content(response));
     }
 
     @Test
     public void testUpdateProductQuantityInCart_Failure() {
         // Arrange
-        when(shoppingCartService.updateProductQuantityInCart(userId, productId, 3)).thenThrow(new RuntimeException("Product not found"));
+        when(shoppingCartService.updateProductQuantityInCart(userId, productId, 3, ExpectedVersion.ANY)).thenThrow(new RuntimeException("Product not found"));
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.updateProductQuantityInCart(userId, productId, 3);
+        ResponseEntity<?> response = shoppingCartController.updateProductQuantityInCart(userId, productId, 3, null, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -107,23 +136,23 @@ public class ShoppingCartControllerTest {
     @Test
     public void testRemoveProductFromCart_Success() {
         // Arrange
-        when(shoppingCartService.removeProductFromCart(userId, productId)).thenReturn(cart);
+        when(shoppingCartService.removeProductFromCart(userId, productId, ExpectedVersion.ANY)).thenReturn(cart);
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.removeProductFromCart(userId, productId);
+        ResponseEntity<?> response = shoppingCartController.removeProductFromCart(userId, productId, null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(cart, Objects.requireNonNull(response.getBody()).getContent());
+        assertEquals(ShoppingCartResponse.from(cart), content(response));
     }
 
     @Test
     public void testRemoveProductFromCart_Failure() {
         // Arrange
-        when(shoppingCartService.removeProductFromCart(userId, productId)).thenThrow(new RuntimeException("Product not in cart"));
+        when(shoppingCartService.removeProductFromCart(userId, productId, ExpectedVersion.ANY)).thenThrow(new RuntimeException("Product not in cart"));
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.removeProductFromCart(userId, productId);
+        ResponseEntity<?> response = shoppingCartController.removeProductFromCart(userId, productId, null, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -133,26 +162,195 @@ public class ShoppingCartControllerTest {
     @Test
     public void testClearCart_Success() {
         // Arrange
-        when(shoppingCartService.clearCart(userId)).thenReturn(cart);
+        when(shoppingCartService.clearCart(userId, ExpectedVersion.ANY)).thenReturn(cart);
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.clearCart(userId);
+        ResponseEntity<?> response = shoppingCartController.clearCart(userId, null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(cart, Objects.requireNonNull(response.getBody()).getContent());
+        assertEquals(ShoppingCartResponse.from(cart), content(response));
     }
 
     @Test
     public void testClearCart_Failure() {
         // Arrange
-        when(shoppingCartService.clearCart(userId)).thenThrow(new RuntimeException("Cart not found"));
+        when(shoppingCartService.clearCart(userId, ExpectedVersion.ANY)).thenThrow(new RuntimeException("Cart not found"));
 
         // Act
-        ResponseEntity<EntityModel<ShoppingCart>> response = shoppingCartController.clearCart(userId);
+        ResponseEntity<?> response = shoppingCartController.clearCart(userId, null, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUpdateProductQuantityInCart_PreferMinimal() {
+        // Arrange
+        cart.setVersion(4L);
+        when(shoppingCartService.updateProductQuantityInCartLine(userId, productId, 3, ExpectedVersion.ANY))
+                .thenReturn(new CartLineChange(cart, productId, null, totals(1L, 3L, new BigDecimal("30.00"))));
+
+        // Act
+        ResponseEntity<?> response = shoppingCartController.updateProductQuantityInCart(userId, productId, 3, "return=minimal", null);
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        assertEquals("return=minimal", response.getHeaders().getFirst("Preference-Applied"));
+        assertEquals(List.of("Prefer"), response.getHeaders().getVary());
+        verify(shoppingCartService, never()).updateProductQuantityInCart(anyLong(), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    public void testAddProductToCart_PreferDelta() {
+        // Arrange
+        CartItem item = new CartItem();
+        item.setId(9L);
+        item.setProductId(productId);
+        item.setQuantity(2);
+        item.setPriceAtAddition(new BigDecimal("10.00"));
+        when(shoppingCartService.addProductToCartLine(userId, productId, 2, ExpectedVersion.ANY))
+                .thenReturn(new CartLineChange(cart, productId, item, totals(2L, 5L, new BigDecimal("55.00"))));
+
+        // Act
+        ResponseEntity<?> response = shoppingCartController.addProductToCart(userId, productId, 2, "return=delta", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        CartDeltaResponse delta = (CartDeltaResponse) Objects.requireNonNull(response.getBody());
+        assertEquals(CartItemResponse.from(item), delta.item());
+        assertEquals(2, delta.itemCount());
+        assertEquals(5, delta.totalQuantity());
+        assertEquals(new BigDecimal("55.00"), delta.totalAmount());
+        assertEquals(List.of("Prefer"), response.getHeaders().getVary());
+    }
+
+    @Test
+    public void testClearCart_PreferDelta_EmptyTotals() {
+        // Arrange
+        when(shoppingCartService.clearCartLines(userId, ExpectedVersion.ANY)).thenReturn(new CartLineChange(cart, null, null, totals(0L, null, null)));
+
+        // Act
+        ResponseEntity<?> response = shoppingCartController.clearCart(userId, "return=delta", null);
+
+        // Assert
+        CartDeltaResponse delta = (CartDeltaResponse) Objects.requireNonNull(response.getBody());
+        assertNull(delta.item());
+        assertEquals(0, delta.totalQuantity());
+        assertEquals(BigDecimal.ZERO, delta.totalAmount());
+    }
+
+    @Test
+    public void testRemoveProductFromCart_PreferRepresentation_ShouldReturnFullCart() {
+        // Arrange
+        when(shoppingCartService.removeProductFromCart(userId, productId, ExpectedVersion.ANY)).thenReturn(cart);
+
+        // Act
+        ResponseEntity<?> response = shoppingCartController.removeProductFromCart(userId, productId, "return=representation", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertInstanceOf(EntityModel.class, response.getBody());
+        verify(shoppingCartService, never()).removeProductFromCartLine(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void testRemoveProductFromCart_PreferMinimal_NotFound() {
+        // Arrange
+        when(shoppingCartService.removeProductFromCartLine(userId, productId, ExpectedVersion.ANY)).thenThrow(new RuntimeException("Product not in cart"));
+
+        // Act
+        ResponseEntity<?> response = shoppingCartController.removeProductFromCart(userId, productId, "return=minimal", null);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void testClearCart_IfMatchStale_ShouldReturnPreconditionFailedWithCurrentETag() {
+        // Arrange: el servicio compara If-Match con la versión del carrito que carga en su transacción
+        when(shoppingCartService.clearCartLines(eq(userId), any())).thenAnswer(invocation -> {
+            invocation.getArgument(1, ExpectedVersion.class).check(7L);
+            return new CartLineChange(cart, null, null, totals(0L, null, null));
+        });
+
+        // Act
+        ResponseEntity<?> response = shoppingCartController.clearCart(userId, "return=minimal", "\"6\"");
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertEquals("\"7\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void testAddProductToCart_IfMatchConflictAfterCheck_ShouldReturnPreconditionFailed() {
+        // Arrange: otra escritura se confirmó después de la comparación y @Version hace fallar ésta
+        when(shoppingCartService.addProductToCart(eq(userId), eq(productId), eq(2), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ShoppingCart.class, cart.getId()));
+
+        // Act
+        ResponseEntity<?> response = shoppingCartController.addProductToCart(userId, productId, 2, null, "\"3\"");
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertNull(response.getHeaders().getETag());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ShoppingCartResponse content(ResponseEntity<?> response) {
+        return ((EntityModel<ShoppingCartResponse>) Objects.requireNonNull(response.getBody())).getContent();
+    }
+
+    private static CartTotals totals(Long itemCount, Long totalQuantity, BigDecimal totalAmount) {
+        return new CartTotals() {
+            @Override
+            public Long getItemCount() {
+                return itemCount;
+            }
+
+            @Override
+            public Long getTotalQuantity() {
+                return totalQuantity;
+            }
+
+            @Override
+            public BigDecimal getTotalAmount() {
+                return totalAmount;
+            }
+        };
+    }
+
+    @Test
+    public void testGetCartsByUserIds_NoCarts_ShouldReturnNoContent() {
+        when(shoppingCartService.getCartsByUserIds(List.of(7L, 8L))).thenReturn(List.of());
+
+        ResponseEntity<CollectionModel<EntityModel<ShoppingCartResponse>>> response = shoppingCartController.getCartsByUserIds(List.of(7L, 8L));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetCartsByUserIds_EmptyId_ShouldReturnBadRequest() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(shoppingCartController).build();
+
+        mockMvc.perform(get("/api/carts").param("userIds", "7,,8")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/carts").param("userIds", ",")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/carts").param("userIds", "")).andExpect(status().isBadRequest());
+        verifyNoInteractions(shoppingCartService);
+    }
+
+    @Test
+    public void testGetCartsByUserIds_Success() {
+        when(shoppingCartService.getCartsByUserIds(List.of(userId))).thenReturn(List.of(cart));
+
+        ResponseEntity<CollectionModel<EntityModel<ShoppingCartResponse>>> response = shoppingCartController.getCartsByUserIds(List.of(userId));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        EntityModel<ShoppingCartResponse> model = Objects.requireNonNull(response.getBody()).getContent().iterator().next();
+        assertEquals(ShoppingCartResponse.from(cart), model.getContent());
+        assertTrue(model.getLink("self").isPresent());
+    }
+}
@@ -0,0 +1,74 @@
+package com.programthis.order_cart_service.dto;
+
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseMappingTest {
+
+    @Test
+    void orderResponse_ShouldCopyOrderAndLines() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setUserId(2L);
+        order.setOrderDate(LocalDateTime.of(2024, 5, 1, 10, 0));
+        order.setTotalAmount(new BigDecimal("25.50"));
+        order.setStatus("PENDING");
+        order.setShippingAddress("Fake Street");
+        order.setPaymentMethod("Credit Card");
+        OrderItem item = new OrderItem();
+        item.setId(10L);
+        item.setProductId(100L);
+        item.setProductName("Producto");
+        item.setQuantity(3);
+        item.setUnitPrice(new BigDecimal("8.50"));
+        item.setSubtotal(new BigDecimal("25.50"));
+        order.addOrderItem(item);
+
+        OrderResponse response = OrderResponse.from(order);
+
+        assertEquals(1L, response.id());
+        assertEquals(2L, response.userId());
+        assertEquals("PENDING", response.status());
+        assertEquals(new BigDecimal("25.50"), response.totalAmount());
+        assertEquals(1, response.items().size());
+        assertEquals(new OrderItemResponse(10L, 100L, "Producto", 3, new BigDecimal("8.50"), new BigDecimal("25.50"), null, null),
+                response.items().get(0));
+    }
+
+    @Test
+    void shoppingCartResponse_NullItems_ShouldBeEmptyList() {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setId(1L);
+        cart.setUserId(2L);
+        cart.setItems(null);
+
+        ShoppingCartResponse response = ShoppingCartResponse.from(cart);
+
+        assertEquals(2L, response.userId());
+        assertTrue(response.items().isEmpty());
+    }
+
+    @Test
+    void shoppingCartResponse_ShouldCopyLines() {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUserId(2L);
+        CartItem item = new CartItem();
+        item.setId(5L);
+        item.setProductId(100L);
+        item.setQuantity(2);
+        item.setPriceAtAddition(new BigDecimal("9.99"));
+        cart.addCartItem(item);
+
+        ShoppingCartResponse response = ShoppingCartResponse.from(cart);
+
+        assertEquals(new CartItemResponse(5L, 100L, 2, new BigDecimal("9.99"), null, null), response.items().get(0));
+    }
+}
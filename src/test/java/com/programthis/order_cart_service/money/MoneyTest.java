@@ -0,0 +1,56 @@
+package com.programthis.order_cart_service.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void of_ShouldConvertToMinorUnits() {
+        assertEquals(4550, Money.of(new BigDecimal("45.50")).minorUnits());
+        assertEquals(1000, Money.of(new BigDecimal("10")).minorUnits());
+        assertEquals(-199, Money.of(new BigDecimal("-1.99")).minorUnits());
+    }
+
+    @Test
+    void of_ShouldRoundHalfUpLikeTheDecimalColumn() {
+        assertEquals(1001, Money.of(new BigDecimal("10.005")).minorUnits());
+        assertEquals(1000, Money.of(new BigDecimal("10.004")).minorUnits());
+    }
+
+    @Test
+    void timesAndPlus_ShouldMatchBigDecimalArithmetic() {
+        Money total = Money.of(new BigDecimal("10.00")).times(2).plus(Money.of(new BigDecimal("25.50")));
+        assertEquals(new BigDecimal("45.50"), total.toBigDecimal());
+        assertEquals("45.50", total.toString());
+    }
+
+    @Test
+    void lineSubtotal_WithCents_ShouldMatchBigDecimalExactly() {
+        BigDecimal price = new BigDecimal("19.99");
+        assertEquals(price.multiply(BigDecimal.valueOf(7)), Money.of(price, 7).toBigDecimal());
+        assertEquals(new BigDecimal("30.00"), Money.of(new BigDecimal("10"), 3).toBigDecimal());
+    }
+
+    @Test
+    void lineSubtotal_ShouldRoundOnceAfterMultiplying() {
+        // 0.125 x 3 = 0.375 -> 0.38; redondeando antes el precio saldría 0.13 x 3 = 0.39
+        assertEquals(new BigDecimal("0.38"), Money.of(new BigDecimal("0.125"), 3).toBigDecimal());
+        assertEquals(new BigDecimal("20.00"), Money.of(new BigDecimal("10.00"), 2).toBigDecimal());
+    }
+
+    @Test
+    void times_Overflow_ShouldThrow() {
+        Money huge = Money.ofMinorUnits(Long.MAX_VALUE / 2);
+        assertThrows(ArithmeticException.class, () -> huge.times(3));
+    }
+
+    @Test
+    void plus_Overflow_ShouldThrow() {
+        Money huge = Money.ofMinorUnits(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> huge.plus(Money.ofMinorUnits(1)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.programthis.order_cart_service.reactive.controller;
+
+import com.programthis.order_cart_service.dto.ShoppingCartResponse;
+import com.programthis.order_cart_service.reactive.model.CartRow;
+import com.programthis.order_cart_service.reactive.service.CartView;
+import com.programthis.order_cart_service.reactive.service.ReactiveShoppingCartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ReactiveShoppingCartControllerTest {
+
+    private ReactiveShoppingCartService shoppingCartService;
+    private ReactiveShoppingCartController controller;
+    private final Long userId = 1L;
+    private CartView view;
+
+    @BeforeEach
+    void setUp() {
+        shoppingCartService = mock(ReactiveShoppingCartService.class);
+        controller = new ReactiveShoppingCartController(shoppingCartService);
+        view = new CartView(new CartRow(10L, userId, null, null, 3L), List.of());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts/1");
+        request.setServerPort(8083);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getOrCreateCart_ShouldReturnHalModelWithETag() {
+        when(shoppingCartService.getOrCreateShoppingCart(userId)).thenReturn(Mono.just(view));
+
+        ResponseEntity<EntityModel<ShoppingCartResponse>> response = controller.getOrCreateCart(userId, null).block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        EntityModel<ShoppingCartResponse> body = Objects.requireNonNull(response.getBody());
+        assertEquals(userId, Objects.requireNonNull(body.getContent()).userId());
+        assertEquals("http://localhost:8083/api/carts/1", body.getRequiredLink("self").getHref());
+    }
+
+    @Test
+    void getOrCreateCart_ServedBySpringMvc_ShouldResolveMonoAsyncWithAbsoluteLinks() throws Exception {
+        RequestContextHolder.resetRequestAttributes();
+        when(shoppingCartService.getOrCreateShoppingCart(userId)).thenReturn(Mono.just(view));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MvcResult result = mockMvc.perform(get("/api/carts/{userId}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.links[?(@.rel == 'self')].href").value("http://localhost/api/carts/1"));
+    }
+
+    @Test
+    void getOrCreateCart_IfNoneMatchCurrentVersion_ShouldReturnNotModified() {
+        when(shoppingCartService.getCartVersion(userId)).thenReturn(Mono.just(3L));
+
+        ResponseEntity<EntityModel<ShoppingCartResponse>> response = controller.getOrCreateCart(userId, "\"3\"").block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(shoppingCartService, never()).getOrCreateShoppingCart(anyLong());
+    }
+
+    @Test
+    void clearCart_IfMatchStaleVersion_ShouldReturnPreconditionFailed() {
+        when(shoppingCartService.getCartVersion(userId)).thenReturn(Mono.just(4L));
+
+        ResponseEntity<EntityModel<ShoppingCartResponse>> response = controller.clearCart(userId, "\"3\"").block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(shoppingCartService, never()).clearCart(anyLong());
+    }
+
+    @Test
+    void addProductToCart_ServiceError_ShouldReturnBadRequest() {
+        when(shoppingCartService.addProductToCart(userId, 100L, 2)).thenReturn(Mono.error(new RuntimeException("Product not found")));
+
+        ResponseEntity<EntityModel<ShoppingCartResponse>> response = controller.addProductToCart(userId, 100L, 2, null).block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
@@ -0,0 +1,127 @@
+package com.programthis.order_cart_service.reactive.service;
+
+import com.programthis.order_cart_service.dto.ProductDto;
+import com.programthis.order_cart_service.reactive.client.ReactiveProductCatalogClient;
+import com.programthis.order_cart_service.reactive.model.CartItemRow;
+import com.programthis.order_cart_service.reactive.model.CartRow;
+import com.programthis.order_cart_service.reactive.repository.CartItemRowRepository;
+import com.programthis.order_cart_service.reactive.repository.CartRowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveShoppingCartServiceTest {
+
+    @Mock
+    private CartRowRepository cartRowRepository;
+
+    @Mock
+    private CartItemRowRepository cartItemRowRepository;
+
+    @Mock
+    private ReactiveProductCatalogClient productCatalogClient;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private ReactiveShoppingCartService shoppingCartService;
+
+    private final Long userId = 1L;
+    private final Long productId = 101L;
+    private CartRow cart;
+
+    @BeforeEach
+    void setUp() {
+        shoppingCartService = new ReactiveShoppingCartService(cartRowRepository, cartItemRowRepository,
+                productCatalogClient, transactionalOperator);
+        cart = new CartRow(10L, userId, LocalDateTime.now(), LocalDateTime.now(), 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transactionsPassThrough() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void addProductToCart_newProduct_shouldInsertLineAndTouchCart() {
+        transactionsPassThrough();
+        ProductDto product = new ProductDto(productId, "Teclado", "", new BigDecimal("75.00"), 20);
+        CartItemRow saved = new CartItemRow(5L, cart.getId(), productId, 2, new BigDecimal("75.00"), null, null);
+        when(productCatalogClient.getProductById(productId)).thenReturn(Mono.just(product));
+        when(cartRowRepository.findByUserId(userId)).thenReturn(Mono.just(cart));
+        when(cartItemRowRepository.findByCartIdAndProductId(cart.getId(), productId)).thenReturn(Mono.empty());
+        when(cartItemRowRepository.save(any(CartItemRow.class))).thenReturn(Mono.just(saved));
+        when(cartRowRepository.save(cart)).thenReturn(Mono.just(cart));
+        when(cartItemRowRepository.findByCartIdOrderById(cart.getId())).thenReturn(Flux.just(saved));
+
+        StepVerifier.create(shoppingCartService.addProductToCart(userId, productId, 2))
+                .assertNext(view -> {
+                    assertSame(cart, view.cart());
+                    assertEquals(1, view.items().size());
+                    assertEquals(new BigDecimal("75.00"), view.items().get(0).getPriceAtAddition());
+                })
+                .verifyComplete();
+        verify(cartRowRepository, times(1)).save(cart);
+    }
+
+    @Test
+    void addProductToCart_productNotInCatalog_shouldFailWithoutWrites() {
+        when(productCatalogClient.getProductById(productId)).thenReturn(Mono.empty());
+
+        StepVerifier.create(shoppingCartService.addProductToCart(userId, productId, 1))
+                .expectErrorMessage("Producto con ID " + productId + " no encontrado en el catálogo. No se puede añadir al carrito.")
+                .verify();
+        verifyNoInteractions(cartRowRepository, cartItemRowRepository);
+    }
+
+    @Test
+    void updateProductQuantityInCart_zeroQuantity_shouldDeleteLine() {
+        transactionsPassThrough();
+        CartItemRow item = new CartItemRow(5L, cart.getId(), productId, 2, new BigDecimal("75.00"), null, null);
+        when(cartRowRepository.findByUserId(userId)).thenReturn(Mono.just(cart));
+        when(cartItemRowRepository.findByCartIdAndProductId(cart.getId(), productId)).thenReturn(Mono.just(item));
+        when(cartItemRowRepository.delete(item)).thenReturn(Mono.empty());
+        when(cartRowRepository.save(cart)).thenReturn(Mono.just(cart));
+        when(cartItemRowRepository.findByCartIdOrderById(cart.getId())).thenReturn(Flux.empty());
+
+        StepVerifier.create(shoppingCartService.updateProductQuantityInCart(userId, productId, 0))
+                .assertNext(view -> assertTrue(view.items().isEmpty()))
+                .verifyComplete();
+        verify(cartItemRowRepository, never()).save(any());
+    }
+
+    @Test
+    void removeProductFromCart_cartNotFound_shouldFail() {
+        transactionsPassThrough();
+        when(cartRowRepository.findByUserId(userId)).thenReturn(Mono.empty());
+
+        StepVerifier.create(shoppingCartService.removeProductFromCart(userId, productId))
+                .expectErrorMessage("Carrito no encontrado para el usuario: " + userId)
+                .verify();
+    }
+
+    @Test
+    void getOrCreateShoppingCart_concurrentInsert_shouldReadWinningCart() {
+        when(cartRowRepository.findByUserId(userId)).thenReturn(Mono.empty(), Mono.just(cart));
+        when(cartRowRepository.save(any(CartRow.class))).thenReturn(Mono.error(new DataIntegrityViolationException("duplicate user_id")));
+        when(cartItemRowRepository.findByCartIdOrderById(cart.getId())).thenReturn(Flux.empty());
+
+        StepVerifier.create(shoppingCartService.getOrCreateShoppingCart(userId))
+                .assertNext(view -> assertSame(cart, view.cart()))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,86 @@
+package com.programthis.order_cart_service.replica;
+
+import com.programthis.order_cart_service.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(true, 5000, nanos::get);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void userWritten_ShouldPinUserUntilWindowEnds() {
+        readYourWrites.userWritten(1L);
+
+        assertTrue(readYourWrites.isUserPinned(1L));
+        assertFalse(readYourWrites.isUserPinned(2L));
+        assertFalse(readYourWrites.isOrderPinned(1L));
+
+        nanos.addAndGet(5_000_000_000L);
+        assertFalse(readYourWrites.isUserPinned(1L));
+    }
+
+    @Test
+    void write_InsideTransaction_ShouldOpenWindowOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        readYourWrites.orderWritten(7L);
+        assertFalse(readYourWrites.isOrderPinned(7L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(readYourWrites.isOrderPinned(7L));
+    }
+
+    @Test
+    void disabled_ShouldNeverPin() {
+        ReadYourWrites disabled = new ReadYourWrites(false, 5000, nanos::get);
+
+        disabled.userWritten(1L);
+
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.isUserPinned(1L));
+    }
+
+    @Test
+    void listener_ShouldPinTheUserAndTheOrderOfAWrittenOrder() {
+        ReadYourWritesListener listener = new ReadYourWritesListener();
+        listener.setReadYourWrites(new StaticListableBeanFactory(Map.of("readYourWrites", readYourWrites))
+                .getBeanProvider(ReadYourWrites.class));
+        Order order = new Order();
+        order.setId(3L);
+        order.setUserId(1L);
+
+        listener.written(order);
+
+        assertTrue(readYourWrites.isUserPinned(1L));
+        assertTrue(readYourWrites.isOrderPinned(3L));
+    }
+
+    @Test
+    void listener_WithoutTheBean_ShouldDoNothing() {
+        ReadYourWritesListener withoutBean = new ReadYourWritesListener();
+        withoutBean.setReadYourWrites(new DefaultListableBeanFactory().getBeanProvider(ReadYourWrites.class));
+        Order order = new Order();
+        order.setUserId(1L);
+
+        assertDoesNotThrow(() -> withoutBean.written(order));
+        assertDoesNotThrow(() -> new ReadYourWritesListener().written(order));
+    }
+}
@@ -0,0 +1,88 @@
+package com.programthis.order_cart_service.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaSelector selector;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        selector = new ReplicaSelector(2, 1000);
+        selector.update(0, 0L);
+        selector.update(1, 500L);
+        dataSource = new ReplicaRoutingDataSource(mock(HikariDataSource.class),
+                List.of(mock(HikariDataSource.class), mock(HikariDataSource.class)), selector);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readWriteWork_ShouldUsePrimary() {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(0, dataSource.reads(ReplicaRoutingDataSource.ReadRoute.REPLICA));
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldRoundRobinAcrossHealthyReplicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object first = dataSource.determineCurrentLookupKey();
+        Object second = dataSource.determineCurrentLookupKey();
+
+        assertNotEquals(first, second);
+        assertTrue(List.of(0, 1).containsAll(List.of(first, second)));
+        assertEquals(2, dataSource.reads(ReplicaRoutingDataSource.ReadRoute.REPLICA));
+    }
+
+    @Test
+    void readOnlyTransaction_LaggingReplica_ShouldBeSkipped() {
+        selector.update(1, 5000L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(0, dataSource.determineCurrentLookupKey());
+        assertEquals(0, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransaction_NoHealthyReplica_ShouldFallBackToPrimary() {
+        selector.update(0, null);
+        selector.update(1, 5000L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1, dataSource.reads(ReplicaRoutingDataSource.ReadRoute.REPLICA_LAG));
+    }
+
+    @Test
+    void readOnlyTransaction_PinnedToPrimary_ShouldUsePrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (ReplicaContext.Binding ignored = ReplicaContext.pinToPrimary()) {
+            assertEquals(ReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+        }
+        assertFalse(ReplicaContext.isPinnedToPrimary());
+        assertEquals(1, dataSource.reads(ReplicaRoutingDataSource.ReadRoute.READ_YOUR_WRITES));
+    }
+
+    @Test
+    void replicaWithoutMeasurement_ShouldNotBeHealthy() {
+        ReplicaSelector fresh = new ReplicaSelector(1, 1000);
+
+        assertFalse(fresh.isHealthy(0));
+        assertEquals(-1, fresh.next());
+    }
+}
@@ -0,0 +1,197 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.client.ProductCatalogServiceClient;
+import com.programthis.order_cart_service.config.ShardingConfig;
+import com.programthis.order_cart_service.dto.ProductDto;
+import com.programthis.order_cart_service.model.CartEvent;
+import com.programthis.order_cart_service.model.CartEventType;
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.CartSnapshot;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.replica.ReadYourWrites;
+import com.programthis.order_cart_service.repository.CartEventRepository;
+import com.programthis.order_cart_service.repository.CartItemRepository;
+import com.programthis.order_cart_service.repository.CartSnapshotRepository;
+import com.programthis.order_cart_service.repository.ShoppingCartRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// Carrito con event sourcing contra H2 (modo MySQL): cada operación de ShoppingCartService es su propia transacción
+// y el carrito devuelto tiene que coincidir con el reconstruido después a partir del snapshot y la cola de eventos
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cartevents;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "cart.event-sourcing.enabled=true",
+        "cart.event-sourcing.snapshot-every=3"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ShoppingCartService.class, EventSourcedCartStore.class, ShardingConfig.class, ShardExecutor.class,
+        ReadYourWrites.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventSourcedCartStoreTest {
+
+    private static final long USER_ID = 7L;
+
+    @MockBean
+    private ProductCatalogServiceClient productCatalogServiceClient;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+    @Autowired
+    private CartEventRepository cartEventRepository;
+    @Autowired
+    private CartSnapshotRepository cartSnapshotRepository;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        when(productCatalogServiceClient.getProductById(anyLong())).thenAnswer(invocation -> {
+            Long productId = invocation.getArgument(0);
+            return Optional.of(new ProductDto(productId, "Producto " + productId, null, new BigDecimal("10.00"), 100));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartEventRepository.deleteAllInBatch();
+        cartSnapshotRepository.deleteAllInBatch();
+        cartItemRepository.deleteAllInBatch();
+        shoppingCartRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void operations_ShouldAppendEventsAndRebuildTheSameCart() {
+        shoppingCartService.addProductToCart(USER_ID, 1L, 2);
+        shoppingCartService.addProductToCart(USER_ID, 2L, 1);
+        shoppingCartService.addProductToCart(USER_ID, 1L, 3);
+        shoppingCartService.updateProductQuantityInCart(USER_ID, 2L, 4);
+        ShoppingCart written = shoppingCartService.removeProductFromCart(USER_ID, 1L);
+
+        ShoppingCart rebuilt = shoppingCartService.getOrCreateShoppingCart(USER_ID);
+
+        assertEquals(5L, rebuilt.getVersion());
+        assertEquals(List.of(2L), rebuilt.getItems().stream().map(CartItem::getProductId).toList());
+        assertEquals(4, rebuilt.getItems().get(0).getQuantity());
+        assertEquals(written.getItems().size(), rebuilt.getItems().size());
+        assertEquals(Optional.of(5L), shoppingCartService.getCartVersion(USER_ID));
+
+        List<CartEvent> events = cartEventRepository.findAll();
+        assertEquals(5, events.size());
+        assertEquals(List.of(CartEventType.ITEM_ADDED, CartEventType.ITEM_ADDED, CartEventType.ITEM_ADDED,
+                CartEventType.QUANTITY_SET, CartEventType.ITEM_REMOVED), events.stream().map(CartEvent::getType).toList());
+        // De las tablas "por filas" sólo se usa shopping_carts, como registro del ID del carrito; las líneas no
+        List<ShoppingCart> rows = shoppingCartRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals(rows.get(0).getId(), rebuilt.getId());
+        assertEquals(written.getId(), rebuilt.getId());
+        assertEquals(0, cartItemRepository.count());
+    }
+
+    @Test
+    void lineIds_ShouldBeStableAcrossSnapshotsAndRebuilds() {
+        ShoppingCart first = shoppingCartService.addProductToCart(USER_ID, 1L, 1);
+        Long lineId = first.getItems().get(0).getId();
+        assertNotNull(lineId);
+
+        // Cruza el snapshot (cada 3 eventos) y vuelve a reconstruir desde él más la cola
+        shoppingCartService.addProductToCart(USER_ID, 2L, 1);
+        shoppingCartService.addProductToCart(USER_ID, 3L, 1);
+        shoppingCartService.updateProductQuantityInCart(USER_ID, 1L, 5);
+        ShoppingCart rebuilt = shoppingCartService.getOrCreateShoppingCart(USER_ID);
+
+        assertEquals(first.getId(), rebuilt.getId());
+        assertEquals(lineId, rebuilt.getItems().get(0).getId());
+        assertEquals(3, rebuilt.getItems().stream().map(CartItem::getId).distinct().count());
+    }
+
+    @Test
+    void snapshot_ShouldBeRewrittenEveryNEvents() {
+        for (long productId = 1; productId <= 4; productId++) {
+            shoppingCartService.addProductToCart(USER_ID, productId, 1);
+        }
+
+        CartSnapshot snapshot = cartSnapshotRepository.findById(USER_ID).orElseThrow();
+        assertEquals(3L, snapshot.getSequence());
+        assertEquals(1, cartEventRepository.findTailsByUserIdIn(List.of(USER_ID)).size());
+        assertEquals(4, shoppingCartService.getOrCreateShoppingCart(USER_ID).getItems().size());
+    }
+
+    @Test
+    void clearCart_ShouldEmptyTheCartWithOneEvent() {
+        shoppingCartService.addProductToCart(USER_ID, 1L, 1);
+        shoppingCartService.addProductToCart(USER_ID, 2L, 1);
+
+        CartLineChange change = shoppingCartService.clearCartLines(USER_ID, ExpectedVersion.ANY);
+
+        assertTrue(change.cart().getItems().isEmpty());
+        assertEquals(0L, change.totals().getItemCount());
+        assertTrue(shoppingCartService.getOrCreateShoppingCart(USER_ID).getItems().isEmpty());
+    }
+
+    @Test
+    void existingRowCart_ShouldBeTheStartingPoint() {
+        ShoppingCart legacy = new ShoppingCart();
+        legacy.setUserId(USER_ID);
+        legacy = shoppingCartRepository.save(legacy);
+        CartItem item = new CartItem();
+        item.setCart(legacy);
+        item.setProductId(9L);
+        item.setQuantity(2);
+        item.setPriceAtAddition(new BigDecimal("5.00"));
+        cartItemRepository.save(item);
+
+        CartLineChange change = shoppingCartService.addProductToCartLine(USER_ID, 9L, 1, ExpectedVersion.ANY);
+
+        assertEquals(3, change.item().getQuantity());
+        assertEquals(new BigDecimal("5.00"), change.item().getPriceAtAddition());
+        assertEquals(new BigDecimal("15.00"), change.totals().getTotalAmount());
+        assertEquals(1L, change.cart().getVersion());
+        // Conserva los IDs del carrito y de la línea de partida
+        assertEquals(legacy.getId(), change.cart().getId());
+        assertEquals(item.getId(), change.item().getId());
+        assertEquals(legacy.getId(), cartSnapshotRepository.findById(USER_ID).orElseThrow().getCartId());
+    }
+
+    @Test
+    void missingCart_GetOrCreateShouldCreateItLikeTheRowModel() {
+        assertTrue(shoppingCartService.findShoppingCart(USER_ID).isEmpty());
+        assertTrue(shoppingCartService.getCartVersion(USER_ID).isEmpty());
+        assertThrows(RuntimeException.class, () -> shoppingCartService.clearCart(USER_ID));
+
+        ShoppingCart created = shoppingCartService.getOrCreateShoppingCart(USER_ID);
+
+        assertNotNull(created.getId());
+        assertTrue(created.getItems().isEmpty());
+        // La versión del carrito creado coincide con la que ven las peticiones condicionales
+        assertEquals(0L, created.getVersion());
+        assertEquals(Optional.of(0L), shoppingCartService.getCartVersion(USER_ID));
+        assertEquals(created.getId(), shoppingCartService.findShoppingCart(USER_ID).orElseThrow().getId());
+        assertEquals(created.getId(), shoppingCartService.getOrCreateShoppingCart(USER_ID).getId());
+        assertEquals(0, cartEventRepository.count());
+    }
+}
@@ -0,0 +1,91 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.repository.ArchivedOrderRepository;
+import com.programthis.order_cart_service.repository.OrderItemRepository;
+import com.programthis.order_cart_service.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchiveServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @InjectMocks
+    private OrderArchiveService orderArchiveService;
+
+    private LocalDateTime cutoff;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderArchiveService, "batchSize", 2);
+        ReflectionTestUtils.setField(orderArchiveService, "maxAgeDays", 365);
+        cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+    }
+
+    @Test
+    void archiveBatch_ShouldCopyThenDeleteInOrder() {
+        List<Long> ids = List.of(1L, 2L);
+        when(orderRepository.findIdsByOrderDateBeforeAndStatusIn(eq(cutoff), anyCollection(), any(Pageable.class))).thenReturn(ids);
+        when(orderRepository.deleteAllByIdIn(ids)).thenReturn(2);
+
+        int archived = orderArchiveService.archiveBatch(cutoff);
+
+        assertEquals(2, archived);
+        InOrder inOrder = inOrder(archivedOrderRepository, orderItemRepository, orderRepository);
+        inOrder.verify(archivedOrderRepository).copyOrdersToArchive(eq(ids), any(LocalDateTime.class));
+        inOrder.verify(archivedOrderRepository).copyOrderItemsToArchive(ids);
+        inOrder.verify(orderItemRepository).deleteAllByOrderIdIn(ids);
+        inOrder.verify(orderRepository).deleteAllByIdIn(ids);
+    }
+
+    @Test
+    void archiveBatch_NothingToArchive_ShouldReturnZero() {
+        when(orderRepository.findIdsByOrderDateBeforeAndStatusIn(eq(cutoff), anyCollection(), any(Pageable.class))).thenReturn(List.of());
+
+        int archived = orderArchiveService.archiveBatch(cutoff);
+
+        assertEquals(0, archived);
+        verifyNoInteractions(archivedOrderRepository, orderItemRepository);
+        verify(orderRepository, never()).deleteAllByIdIn(any());
+    }
+
+    @Test
+    void archiveBatch_ShouldOnlySelectFinalStatuses() {
+        when(orderRepository.findIdsByOrderDateBeforeAndStatusIn(eq(cutoff), anyCollection(), any(Pageable.class))).thenReturn(List.of());
+
+        orderArchiveService.archiveBatch(cutoff);
+
+        verify(orderRepository).findIdsByOrderDateBeforeAndStatusIn(eq(cutoff),
+                argThat(statuses -> statuses.size() == 2 && statuses.containsAll(Set.of("DELIVERED", "CANCELLED"))),
+                any(Pageable.class));
+    }
+
+    @Test
+    void archiveCutoff_ShouldUseConfiguredMaxAge() {
+        LocalDateTime expected = LocalDateTime.now().minusDays(365);
+        LocalDateTime actual = orderArchiveService.archiveCutoff();
+        assertTrue(Math.abs(java.time.Duration.between(expected, actual).toSeconds()) < 5);
+    }
+}
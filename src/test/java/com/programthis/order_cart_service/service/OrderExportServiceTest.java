@@ -0,0 +1,166 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.export.OrderExportFormat;
+import com.programthis.order_cart_service.model.ArchivedOrder;
+import com.programthis.order_cart_service.model.ArchivedOrderItem;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.repository.ArchivedOrderRepository;
+import com.programthis.order_cart_service.repository.OrderItemRepository;
+import com.programthis.order_cart_service.repository.OrderRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import com.programthis.order_cart_service.sharding.ShardRouter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    // Sin sharding: un único shard y el trabajo en la "transacción" del gestor simulado
+    @Spy
+    private ShardExecutor shardExecutor = new ShardExecutor(ShardRouter.single(), mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private OrderExportService orderExportService;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Order order;
+    private OrderItem item;
+
+    @BeforeEach
+    void setUp() {
+        from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        to = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        order = new Order();
+        order.setId(7L);
+        order.setUserId(1L);
+        order.setOrderDate(LocalDateTime.of(2025, 1, 15, 12, 30));
+        order.setStatus("PENDING");
+        order.setTotalAmount(new BigDecimal("45.50"));
+        order.setShippingAddress("123 Calle Falsa, Springfield");
+        order.setPaymentMethod("Credit Card");
+
+        item = new OrderItem();
+        item.setProductId(101L);
+        item.setProductName("Laptop \"Pro\"");
+        item.setQuantity(2);
+        item.setUnitPrice(new BigDecimal("10.00"));
+        item.setSubtotal(new BigDecimal("20.00"));
+        item.setOrder(order);
+    }
+
+    @Test
+    void exportOrders_Ndjson_ShouldWriteOneLinePerOrder() throws Exception {
+        when(orderRepository.streamByOrderDateRange(from, to)).thenReturn(Stream.of(order));
+        when(orderItemRepository.findByOrderIdIn(List.of(7L))).thenReturn(List.of(item));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = orderExportService.exportOrders(from, to, OrderExportFormat.NDJSON, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertEquals(1, exported);
+        assertTrue(body.endsWith("\n"));
+        assertEquals(1, body.split("\n").length);
+        assertTrue(body.contains("\"id\":7"));
+        assertTrue(body.contains("\"totalAmount\":45.50"));
+        assertTrue(body.contains("\"productName\":\"Laptop \\\"Pro\\\"\""));
+        verify(entityManager, times(1)).clear();
+    }
+
+    @Test
+    void exportOrders_Csv_ShouldEscapeValues() throws Exception {
+        when(orderRepository.streamByOrderDateRange(from, to)).thenReturn(Stream.of(order));
+        when(orderItemRepository.findByOrderIdIn(List.of(7L))).thenReturn(List.of(item));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportOrders(from, to, OrderExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("order_id,user_id,order_date"));
+        assertEquals("7,1,2025-01-15T12:30,PENDING,45.50,\"123 Calle Falsa, Springfield\",Credit Card,101,\"Laptop \"\"Pro\"\"\",2,10.00,20.00", lines[1]);
+    }
+
+    @Test
+    void exportOrders_ShouldFetchItemsOncePerBatch() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (long id = 1; id <= OrderExportService.BATCH_SIZE + 1; id++) {
+            Order o = new Order();
+            o.setId(id);
+            o.setUserId(1L);
+            orders.add(o);
+        }
+        when(orderRepository.streamByOrderDateRange(from, to)).thenReturn(orders.stream());
+
+        long exported = orderExportService.exportOrders(from, to, OrderExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        assertEquals(OrderExportService.BATCH_SIZE + 1, exported);
+        verify(orderItemRepository, times(2)).findByOrderIdIn(anyCollection());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void exportOrders_ShouldIncludeArchivedOrdersAfterActiveOnes() throws Exception {
+        ArchivedOrder archived = new ArchivedOrder();
+        archived.setId(3L);
+        archived.setUserId(1L);
+        archived.setOrderDate(LocalDateTime.of(2025, 1, 2, 9, 0));
+        archived.setStatus("DELIVERED");
+        archived.setTotalAmount(new BigDecimal("10.00"));
+        ArchivedOrderItem archivedItem = new ArchivedOrderItem();
+        archivedItem.setId(30L);
+        archivedItem.setOrder(archived);
+        archivedItem.setProductId(102L);
+        archivedItem.setProductName("Mouse");
+        archivedItem.setQuantity(1);
+        archivedItem.setUnitPrice(new BigDecimal("10.00"));
+        archivedItem.setSubtotal(new BigDecimal("10.00"));
+
+        when(orderRepository.streamByOrderDateRange(from, to)).thenReturn(Stream.of(order));
+        when(orderItemRepository.findByOrderIdIn(List.of(7L))).thenReturn(List.of(item));
+        when(archivedOrderRepository.streamByOrderDateRange(from, to)).thenReturn(Stream.of(archived));
+        when(archivedOrderRepository.findItemsByOrderIdIn(List.of(3L))).thenReturn(List.of(archivedItem));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = orderExportService.exportOrders(from, to, OrderExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exported);
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("7,1,"), lines[1]);
+        assertEquals("3,1,2025-01-02T09:00,DELIVERED,10.00,,,102,Mouse,1,10.00,10.00", lines[2]);
+        verify(entityManager, times(2)).clear();
+    }
+}
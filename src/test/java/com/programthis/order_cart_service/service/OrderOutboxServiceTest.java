@@ -0,0 +1,133 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.config.ShardingConfig;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.model.OrderOutboxEvent;
+import com.programthis.order_cart_service.model.OrderOutboxEventType;
+import com.programthis.order_cart_service.outbox.OrderEventSink;
+import com.programthis.order_cart_service.replica.ReadYourWrites;
+import com.programthis.order_cart_service.repository.OrderOutboxRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+// Outbox de pedidos contra H2 (modo MySQL): los eventos se escriben en la transacción de quien los genera y el relay
+// los entrega en orden, por lotes, y sólo los borra si el sink los ha aceptado
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "orders.outbox.batch-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderOutboxService.class, ShardingConfig.class, ShardExecutor.class, ReadYourWrites.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxServiceTest {
+
+    @MockBean
+    private OrderEventSink orderEventSink;
+
+    @Autowired
+    private OrderOutboxService orderOutboxService;
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        orderOutboxRepository.deleteAllInBatch();
+    }
+
+    private static Order order(long orderId, String status) {
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUserId(7L);
+        order.setStatus(status);
+        order.setOrderDate(LocalDateTime.now());
+        order.setTotalAmount(new BigDecimal("20.00"));
+        OrderItem item = new OrderItem();
+        item.setProductId(101L);
+        item.setQuantity(2);
+        item.setUnitPrice(new BigDecimal("10.00"));
+        item.setSubtotal(new BigDecimal("20.00"));
+        order.addOrderItem(item);
+        return order;
+    }
+
+    private void inTransaction(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+    }
+
+    @Test
+    void relayBatch_ShouldPublishInOrderAndDeleteWhatWasPublished() throws IOException {
+        List<OrderOutboxEvent> published = new ArrayList<>();
+        doAnswer(invocation -> published.addAll(invocation.getArgument(0))).when(orderEventSink).publish(anyList());
+        inTransaction(() -> orderOutboxService.recordOrderCreated(order(1L, "PENDING")));
+        inTransaction(() -> orderOutboxService.recordStatusChange(order(1L, "PAID"), "PENDING"));
+        inTransaction(() -> orderOutboxService.recordOrderCreated(order(2L, "PENDING")));
+
+        assertEquals(2, orderOutboxService.relayBatch().size());
+        assertEquals(1, orderOutboxService.relayBatch().size());
+        assertTrue(orderOutboxService.relayBatch().isEmpty());
+
+        assertEquals(List.of(OrderOutboxEventType.ORDER_CREATED, OrderOutboxEventType.ORDER_STATUS_CHANGED,
+                OrderOutboxEventType.ORDER_CREATED), published.stream().map(OrderOutboxEvent::getType).toList());
+        assertEquals(List.of(1L, 1L, 2L), published.stream().map(OrderOutboxEvent::getOrderId).toList());
+        assertTrue(published.get(0).getPayload().contains("\"items\":[{\"productId\":101"));
+        assertTrue(published.get(1).getPayload().contains("\"previousStatus\":\"PENDING\""));
+        assertEquals(0, orderOutboxRepository.count());
+        assertEquals(OrderOutboxService.Backlog.EMPTY, orderOutboxService.backlog());
+    }
+
+    @Test
+    void relayBatch_SinkFailure_ShouldKeepTheEventsForTheNextAttempt() throws IOException {
+        doThrow(new IOException("sink caído")).when(orderEventSink).publish(anyList());
+        inTransaction(() -> orderOutboxService.recordOrderCreated(order(1L, "PENDING")));
+
+        assertThrows(RuntimeException.class, () -> orderOutboxService.relayBatch());
+
+        OrderOutboxService.Backlog backlog = orderOutboxService.backlog();
+        assertEquals(1, backlog.pending());
+        assertNotNull(backlog.oldestCreatedAt());
+    }
+
+    @Test
+    void recordStatusChange_SameStatus_ShouldNotWriteAnEvent() {
+        inTransaction(() -> orderOutboxService.recordStatusChange(order(1L, "PAID"), "PAID"));
+
+        assertEquals(0, orderOutboxRepository.count());
+    }
+
+    @Test
+    void record_OutsideATransaction_ShouldFail() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> orderOutboxService.recordOrderCreated(order(1L, "PENDING")));
+    }
+}
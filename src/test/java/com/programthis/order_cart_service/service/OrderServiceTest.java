@@ -1,20 +1,30 @@
 package com.programthis.order_cart_service.service;
 
+import com.programthis.order_cart_service.cache.CompletedOrderCache;
+import com.programthis.order_cart_service.client.CatalogFanOut;
 import com.programthis.order_cart_service.client.ProductCatalogServiceClient;
 import com.programthis.order_cart_service.dto.ProductDto;
+import com.programthis.order_cart_service.model.ArchivedOrder;
+import com.programthis.order_cart_service.model.ArchivedOrderItem;
 import com.programthis.order_cart_service.model.CartItem; // Usando tu modelo real
 import com.programthis.order_cart_service.model.Order;
 import com.programthis.order_cart_service.model.ShoppingCart; // Usando tu modelo real
+import com.programthis.order_cart_service.repository.ArchivedOrderRepository;
 import com.programthis.order_cart_service.repository.OrderRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import com.programthis.order_cart_service.sharding.ShardRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,12 +37,32 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
     @Mock
     private ShoppingCartService shoppingCartService;
 
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OrderOutboxService orderOutboxService;
+
+    @Mock
+    private CompletedOrderCache completedOrderCache;
+
     @Mock
     private ProductCatalogServiceClient productCatalogServiceClient;
 
+    // Ejecuta las llamadas al catálogo en el hilo del test
+    @Spy
+    private CatalogFanOut catalogFanOut = new CatalogFanOut(Runnable::run, 8);
+
+    // Sin sharding: un único shard y el trabajo en la "transacción" del gestor simulado
+    @Spy
+    private ShardExecutor shardExecutor = new ShardExecutor(ShardRouter.single(), mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private OrderService orderService;
 
@@ -106,6 +136,8 @@ class OrderServiceTest {
         verify(productCatalogServiceClient, times(1)).getProductById(102L);
         verify(orderRepository, times(1)).save(any(Order.class));
         verify(shoppingCartService, times(1)).clearCart(userId);
+        verify(salesRollupService, times(1)).recordOrderPlaced(createdOrder);
+        verify(orderOutboxService, times(1)).recordOrderCreated(createdOrder);
     }
 
     @Test
@@ -175,6 +207,34 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void getOrderById_OrderIsArchived_ShouldReturnFromArchive() {
+        // Arrange
+        ArchivedOrder archivedOrder = new ArchivedOrder();
+        archivedOrder.setId(1L);
+        archivedOrder.setUserId(userId);
+        archivedOrder.setStatus("DELIVERED");
+        ArchivedOrderItem archivedItem = new ArchivedOrderItem();
+        archivedItem.setId(10L);
+        archivedItem.setProductId(101L);
+        archivedItem.setProductName("Laptop");
+        archivedItem.setQuantity(2);
+        archivedItem.setUnitPrice(new BigDecimal("10.00"));
+        archivedItem.setSubtotal(new BigDecimal("20.00"));
+        archivedOrder.getItems().add(archivedItem);
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findById(1L)).thenReturn(Optional.of(archivedOrder));
+
+        // Act
+        Optional<Order> foundOrder = orderService.getOrderById(1L);
+
+        // Assert
+        assertTrue(foundOrder.isPresent());
+        assertEquals("DELIVERED", foundOrder.get().getStatus());
+        assertEquals(1, foundOrder.get().getItems().size());
+        assertEquals("Laptop", foundOrder.get().getItems().get(0).getProductName());
+    }
+
     @Test
     void getOrdersByUserId_Success() {
         // Arrange
@@ -194,6 +254,41 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).findByUserIdOrderByOrderDateDesc(userId);
     }
 
+    @Test
+    void getOrdersByUserId_IncludeArchived_ShouldMergeByDateDesc() {
+        // Arrange
+        Order recent = new Order();
+        recent.setId(2L);
+        recent.setOrderDate(LocalDateTime.of(2025, 6, 1, 10, 0));
+        ArchivedOrder old = new ArchivedOrder();
+        old.setId(1L);
+        old.setOrderDate(LocalDateTime.of(2023, 1, 1, 10, 0));
+
+        when(orderRepository.findByUserIdOrderByOrderDateDesc(userId)).thenReturn(List.of(recent));
+        when(archivedOrderRepository.findByUserIdOrderByOrderDateDesc(userId)).thenReturn(List.of(old));
+
+        // Act
+        List<Order> result = orderService.getOrdersByUserId(userId, true);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+    }
+
+    @Test
+    void getOrdersByUserId_WithoutArchived_ShouldNotQueryArchive() {
+        // Arrange
+        when(orderRepository.findByUserIdOrderByOrderDateDesc(userId)).thenReturn(List.of(new Order()));
+
+        // Act
+        List<Order> result = orderService.getOrdersByUserId(userId, false);
+
+        // Assert
+        assertEquals(1, result.size());
+        verifyNoInteractions(archivedOrderRepository);
+    }
+
     @Test
     void updateOrderStatus_Success() {
         // Arrange
@@ -215,6 +310,9 @@ class OrderServiceTest {
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
         verify(orderRepository).save(orderCaptor.capture());
         assertEquals(newStatus, orderCaptor.getValue().getStatus());
+        verify(salesRollupService, times(1)).recordStatusChange(updatedOrder, "PENDING");
+        verify(orderOutboxService, times(1)).recordStatusChange(updatedOrder, "PENDING");
+        verify(completedOrderCache, times(1)).evict(eq(1L), any());
     }
 
     @Test
@@ -241,5 +339,109 @@ class OrderServiceTest {
 
         // Assert
         verify(orderRepository, times(1)).deleteById(orderId);
+        verify(completedOrderCache, times(1)).evict(orderId);
+    }
+
+    @Test
+    void deleteOrder_ExistingOrder_ShouldRetractRollups() {
+        // Arrange
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus("PAID");
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        // Act
+        orderService.deleteOrder(1L);
+
+        // Assert
+        verify(salesRollupService, times(1)).recordOrderRemoved(order);
+        verify(orderRepository, times(1)).deleteById(1L);
+    }
+
+    @Test
+    void getOrderVersion_OrderIsArchived_ShouldReadArchiveVersion() {
+        // Arrange
+        when(orderRepository.findVersionById(1L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        // Act
+        Optional<Long> version = orderService.getOrderVersion(1L);
+
+        // Assert
+        assertEquals(Optional.of(4L), version);
+        verify(orderRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void createOrderFromCart_RepeatedProduct_ShouldQueryCatalogOnce() {
+        // Arrange
+        CartItem repeated = new CartItem();
+        repeated.setProductId(101L);
+        repeated.setQuantity(1);
+        repeated.setPriceAtAddition(new BigDecimal("10.00"));
+        cart.addCartItem(repeated);
+        when(shoppingCartService.getOrCreateShoppingCart(userId)).thenReturn(cart);
+        when(productCatalogServiceClient.getProductById(101L)).thenReturn(Optional.of(productDto1));
+        when(productCatalogServiceClient.getProductById(102L)).thenReturn(Optional.of(productDto2));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Order createdOrder = orderService.createOrderFromCart(userId, "address", "payment");
+
+        // Assert
+        assertEquals(3, createdOrder.getItems().size());
+        assertEquals(new BigDecimal("55.50"), createdOrder.getTotalAmount());
+        verify(productCatalogServiceClient, times(1)).getProductById(101L);
+        verify(catalogFanOut, times(2)).submit(any());
+    }
+
+    @Test
+    void createOrderFromCart_SubCentPrices_TotalShouldBeTheSumOfTheLineSubtotals() {
+        // Precios con más de 2 decimales (el del catálogo sin pasar por una columna DECIMAL(10,2)):
+        // cada subtotal se redondea una vez y el total es la suma de los subtotales guardados
+        cart.getItems().get(0).setPriceAtAddition(new BigDecimal("0.125"));
+        cart.getItems().get(0).setQuantity(1);
+        cart.getItems().get(1).setPriceAtAddition(new BigDecimal("0.125"));
+        cart.getItems().get(1).setQuantity(1);
+        when(shoppingCartService.getOrCreateShoppingCart(userId)).thenReturn(cart);
+        when(productCatalogServiceClient.getProductById(101L)).thenReturn(Optional.of(productDto1));
+        when(productCatalogServiceClient.getProductById(102L)).thenReturn(Optional.of(productDto2));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order createdOrder = orderService.createOrderFromCart(userId, "address", "payment");
+
+        assertEquals(new BigDecimal("0.13"), createdOrder.getItems().get(0).getSubtotal());
+        assertEquals(new BigDecimal("0.13"), createdOrder.getItems().get(1).getSubtotal());
+        assertEquals(new BigDecimal("0.26"), createdOrder.getTotalAmount());
+    }
+
+    @Test
+    void getOrdersByIds_ShouldKeepRequestedOrderAndFallBackToArchive() {
+        // Arrange
+        Order active = new Order();
+        active.setId(2L);
+        active.setStatus("PENDING");
+        ArchivedOrder archivedOrder = new ArchivedOrder();
+        archivedOrder.setId(1L);
+        archivedOrder.setStatus("DELIVERED");
+        when(orderRepository.findAllById(List.of(1L, 2L, 3L, 2L))).thenReturn(List.of(active));
+        when(archivedOrderRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(archivedOrder));
+
+        // Act
+        List<Order> orders = orderService.getOrdersByIds(List.of(1L, 2L, 3L, 2L));
+
+        // Assert: sin duplicados, en el orden pedido y sin el 3, que no existe
+        assertEquals(List.of(1L, 2L), orders.stream().map(Order::getId).toList());
+        assertEquals("DELIVERED", orders.get(0).getStatus());
+    }
+
+    @Test
+    void getOrdersByIds_AllActive_ShouldNotQueryArchive() {
+        Order active = new Order();
+        active.setId(5L);
+        when(orderRepository.findAllById(List.of(5L))).thenReturn(List.of(active));
+
+        assertEquals(1, orderService.getOrdersByIds(List.of(5L)).size());
+        verifyNoInteractions(archivedOrderRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.model.DailySalesRollup;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.repository.DailySalesRollupRepository;
+import com.programthis.order_cart_service.repository.ProductSalesRollupRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import com.programthis.order_cart_service.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    @Mock
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Mock
+    private ProductSalesRollupRepository productSalesRollupRepository;
+
+    // Sin sharding: un único shard y el trabajo en la "transacción" del gestor simulado
+    @Spy
+    private ShardExecutor shardExecutor = new ShardExecutor(ShardRouter.single(), mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        order = new Order();
+        order.setId(1L);
+        order.setUserId(1L);
+        order.setStatus("PENDING");
+        order.setOrderDate(LocalDateTime.of(2025, 3, 10, 18, 0));
+        order.setTotalAmount(new BigDecimal("45.50"));
+        order.addOrderItem(item(101L, 2, "20.00"));
+        order.addOrderItem(item(102L, 1, "25.50"));
+    }
+
+    @Test
+    void recordOrderPlaced_ShouldIncrementDayAndProducts() {
+        salesRollupService.recordOrderPlaced(order);
+
+        verify(dailySalesRollupRepository).increment(eq(LocalDate.of(2025, 3, 10)), anyInt(), eq(1L), eq(3L),
+                eq(new BigDecimal("45.50")), any(LocalDateTime.class));
+        verify(productSalesRollupRepository).increment(eq(101L), eq(1L), eq(2L), eq(new BigDecimal("20.00")), any(LocalDateTime.class));
+        verify(productSalesRollupRepository).increment(eq(102L), eq(1L), eq(1L), eq(new BigDecimal("25.50")), any(LocalDateTime.class));
+    }
+
+    @Test
+    void recordOrderPlaced_ManyOrders_ShouldSpreadTheDayOverSeveralRows() {
+        for (int i = 0; i < 64; i++) {
+            salesRollupService.recordOrderPlaced(order);
+        }
+
+        ArgumentCaptor<Integer> buckets = ArgumentCaptor.forClass(Integer.class);
+        verify(dailySalesRollupRepository, times(64)).increment(eq(LocalDate.of(2025, 3, 10)), buckets.capture(),
+                eq(1L), eq(3L), eq(new BigDecimal("45.50")), any(LocalDateTime.class));
+        assertTrue(buckets.getAllValues().stream().allMatch(bucket -> bucket >= 0 && bucket < 16));
+        assertTrue(buckets.getAllValues().stream().distinct().count() > 1);
+    }
+
+    @Test
+    void recordStatusChange_ToCancelled_ShouldDecrement() {
+        order.setStatus("CANCELLED");
+
+        salesRollupService.recordStatusChange(order, "PENDING");
+
+        verify(dailySalesRollupRepository).increment(eq(LocalDate.of(2025, 3, 10)), anyInt(), eq(-1L), eq(-3L),
+                eq(new BigDecimal("-45.50")), any(LocalDateTime.class));
+        verify(productSalesRollupRepository).increment(eq(101L), eq(-1L), eq(-2L), eq(new BigDecimal("-20.00")), any(LocalDateTime.class));
+    }
+
+    @Test
+    void recordStatusChange_BetweenCountedStatuses_ShouldNotTouchRollups() {
+        order.setStatus("SHIPPED");
+
+        salesRollupService.recordStatusChange(order, "PENDING");
+
+        verifyNoInteractions(dailySalesRollupRepository, productSalesRollupRepository);
+    }
+
+    @Test
+    void getDailyRollup_NoSales_ShouldReturnEmptyRollup() {
+        LocalDate day = LocalDate.of(2025, 3, 11);
+        when(dailySalesRollupRepository.findBySalesDate(day)).thenReturn(List.of());
+
+        assertEquals(0, salesRollupService.getDailyRollup(day).getOrderCount());
+    }
+
+    @Test
+    void getDailyRollup_Sharded_ShouldSumEveryShard() {
+        ShardExecutor twoShards = new ShardExecutor(new ShardRouter(2, 16, 0), mock(PlatformTransactionManager.class));
+        SalesRollupService sharded = new SalesRollupService(dailySalesRollupRepository, productSalesRollupRepository, twoShards);
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        when(dailySalesRollupRepository.findBySalesDate(day)).thenReturn(
+                List.of(new DailySalesRollup(day, 2, 5, new BigDecimal("40.00"), LocalDateTime.of(2025, 3, 10, 9, 0))),
+                List.of(new DailySalesRollup(day, 1, 1, new BigDecimal("5.50"), LocalDateTime.of(2025, 3, 10, 20, 0))));
+
+        DailySalesRollup rollup = sharded.getDailyRollup(day);
+
+        assertEquals(3, rollup.getOrderCount());
+        assertEquals(6, rollup.getUnits());
+        assertEquals(new BigDecimal("45.50"), rollup.getRevenue());
+        assertEquals(LocalDateTime.of(2025, 3, 10, 20, 0), rollup.getUpdatedAt());
+    }
+
+    @Test
+    void getDailyRollup_ShouldSumTheBucketsOfTheDay() {
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        when(dailySalesRollupRepository.findBySalesDate(day)).thenReturn(List.of(
+                new DailySalesRollup(day, 3, 2, 4, new BigDecimal("30.00"), LocalDateTime.of(2025, 3, 10, 9, 0)),
+                new DailySalesRollup(day, 11, 1, 2, new BigDecimal("5.00"), LocalDateTime.of(2025, 3, 10, 12, 0))));
+
+        DailySalesRollup rollup = salesRollupService.getDailyRollup(day);
+
+        assertEquals(3, rollup.getOrderCount());
+        assertEquals(6, rollup.getUnits());
+        assertEquals(new BigDecimal("35.00"), rollup.getRevenue());
+        assertEquals(LocalDateTime.of(2025, 3, 10, 12, 0), rollup.getUpdatedAt());
+    }
+
+    private static OrderItem item(Long productId, int quantity, String subtotal) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setSubtotal(new BigDecimal(subtotal));
+        return item;
+    }
+}
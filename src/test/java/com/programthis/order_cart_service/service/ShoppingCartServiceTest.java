@@ -5,16 +5,23 @@ import com.programthis.order_cart_service.dto.ProductDto;
 import com.programthis.order_cart_service.model.CartItem;
 import com.programthis.order_cart_service.model.ShoppingCart;
 import com.programthis.order_cart_service.repository.CartItemRepository;
+import com.programthis.order_cart_service.repository.CartTotals;
 import com.programthis.order_cart_service.repository.ShoppingCartRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import com.programthis.order_cart_service.sharding.ShardRouter;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +39,17 @@ class ShoppingCartServiceTest {
     @Mock
     private ProductCatalogServiceClient productCatalogServiceClient;
 
+    // Sin sharding: un único shard y el trabajo en la "transacción" del gestor simulado
+    @Spy
+    private ShardExecutor shardExecutor = new ShardExecutor(ShardRouter.single(), mock(PlatformTransactionManager.class));
+
+    // Desactivado (isEnabled() = false): las pruebas cubren el almacenamiento en shopping_carts / cart_items
+    @Mock
+    private EventSourcedCartStore eventSourcedCarts;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private ShoppingCartService shoppingCartService;
 
@@ -202,12 +220,19 @@ class ShoppingCartServiceTest {
     void clearCart_WithItems_Success() {
         CartItem item1 = new CartItem(); item1.setProductId(101L);
         cart.addCartItem(item1);
+        // Con las líneas ya cargadas se separa el carrito y se vuelve a leer sin ellas
+        ShoppingCart reloaded = new ShoppingCart();
+        reloaded.setId(cart.getId());
+        reloaded.setUserId(userId);
         when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
-        when(shoppingCartRepository.save(cart)).thenReturn(cart);
-        doNothing().when(cartItemRepository).deleteAll(any());
-        shoppingCartService.clearCart(userId);
-        verify(cartItemRepository, times(1)).deleteAll(cart.getItems());
-        verify(shoppingCartRepository, times(1)).save(cart);
+        when(shoppingCartRepository.findById(cart.getId())).thenReturn(Optional.of(reloaded));
+        when(shoppingCartRepository.save(reloaded)).thenReturn(reloaded);
+        ShoppingCart cleared = shoppingCartService.clearCart(userId);
+        verify(cartItemRepository, times(1)).deleteAllByCartId(cart.getId());
+        verify(cartItemRepository, never()).deleteAll(any());
+        verify(entityManager).detach(cart);
+        verify(shoppingCartRepository, times(1)).save(reloaded);
+        assertTrue(cleared.getItems().isEmpty());
     }
 
     @Test
@@ -215,6 +240,7 @@ class ShoppingCartServiceTest {
         when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
         when(shoppingCartRepository.save(cart)).thenReturn(cart);
         shoppingCartService.clearCart(userId);
+        verify(cartItemRepository, times(1)).deleteAllByCartId(cart.getId());
         verify(cartItemRepository, never()).deleteAll(any());
         verify(shoppingCartRepository, times(1)).save(cart);
     }
@@ -226,4 +252,102 @@ class ShoppingCartServiceTest {
         RuntimeException exception = assertThrows(RuntimeException.class, () -> shoppingCartService.clearCart(userId));
         assertEquals("Carrito no encontrado para el usuario: " + userId, exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addProductToCartLine_newProduct_shouldNotTouchItemsCollection() {
+        CartTotals totals = mock(CartTotals.class);
+        when(productCatalogServiceClient.getProductById(productId)).thenReturn(Optional.of(productDto));
+        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
+        when(cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)).thenReturn(Optional.empty());
+        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(i -> i.getArgument(0));
+        when(shoppingCartRepository.saveAndFlush(cart)).thenReturn(cart);
+        when(cartItemRepository.summarizeByCartId(cart.getId())).thenReturn(totals);
+
+        CartLineChange change = shoppingCartService.addProductToCartLine(userId, productId, 2, ExpectedVersion.ANY);
+
+        assertEquals(productId, change.item().getProductId());
+        assertEquals(new BigDecimal("75.00"), change.item().getPriceAtAddition());
+        assertSame(cart, change.item().getCart());
+        assertSame(totals, change.totals());
+        assertTrue(cart.getItems().isEmpty());
+        assertNotNull(cart.getUpdatedAt());
+        verify(shoppingCartRepository, never()).save(any(ShoppingCart.class));
+    }
+
+    @Test
+    void updateProductQuantityInCartLine_zeroQuantity_shouldDeleteLine() {
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setQuantity(2);
+        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
+        when(cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)).thenReturn(Optional.of(item));
+        when(shoppingCartRepository.saveAndFlush(cart)).thenReturn(cart);
+
+        CartLineChange change = shoppingCartService.updateProductQuantityInCartLine(userId, productId, 0, ExpectedVersion.ANY);
+
+        assertNull(change.item());
+        verify(cartItemRepository, times(1)).delete(item);
+        verify(cartItemRepository, times(1)).summarizeByCartId(cart.getId());
+    }
+
+    @Test
+    void removeProductFromCartLine_productNotInCart_shouldThrowException() {
+        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
+        when(cartItemRepository.findByCartIdAndProductId(cart.getId(), 999L)).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> shoppingCartService.removeProductFromCartLine(userId, 999L, ExpectedVersion.ANY));
+
+        assertEquals("Producto con ID 999 no encontrado en el carrito para eliminar.", exception.getMessage());
+        verify(shoppingCartRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void clearCartLines_shouldBulkDelete() {
+        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.saveAndFlush(cart)).thenReturn(cart);
+
+        CartLineChange change = shoppingCartService.clearCartLines(userId, ExpectedVersion.ANY);
+
+        assertNull(change.productId());
+        verify(cartItemRepository, times(1)).deleteAllByCartId(cart.getId());
+        verify(cartItemRepository, never()).deleteAll(any());
+    }
+
+    @Test
+    void updateProductQuantityInCart_staleExpectedVersion_shouldFailBeforeWriting() {
+        cart.setVersion(5L);
+        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
+
+        VersionMismatchException exception = assertThrows(VersionMismatchException.class,
+                () -> shoppingCartService.updateProductQuantityInCart(userId, productId, 3, currentVersion -> currentVersion == 4L));
+
+        assertEquals(5L, exception.getCurrentVersion());
+        verify(cartItemRepository, never()).save(any());
+        verify(shoppingCartRepository, never()).save(any());
+    }
+
+    @Test
+    void addProductToCartLine_expectedVersionForMissingCart_shouldNotCreateIt() {
+        when(productCatalogServiceClient.getProductById(productId)).thenReturn(Optional.of(productDto));
+        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.empty());
+
+        VersionMismatchException exception = assertThrows(VersionMismatchException.class,
+                () -> shoppingCartService.addProductToCartLine(userId, productId, 1, currentVersion -> currentVersion != null));
+
+        assertNull(exception.getCurrentVersion());
+        verify(shoppingCartRepository, never()).save(any());
+    }
+
+    @Test
+    void getCartsByUserIds_shouldReturnExistingCartsInRequestedOrder() {
+        ShoppingCart otherCart = new ShoppingCart();
+        otherCart.setId(2L);
+        otherCart.setUserId(2L);
+        when(shoppingCartRepository.findByUserIdIn(List.of(2L, 3L, userId))).thenReturn(List.of(cart, otherCart));
+
+        List<ShoppingCart> carts = shoppingCartService.getCartsByUserIds(List.of(2L, 3L, userId));
+
+        assertEquals(List.of(2L, userId), carts.stream().map(ShoppingCart::getUserId).toList());
+        verify(shoppingCartRepository, never()).save(any(ShoppingCart.class));
+    }
+}
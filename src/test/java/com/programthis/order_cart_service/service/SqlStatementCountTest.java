@@ -0,0 +1,320 @@
+package com.programthis.order_cart_service.service;
+
+import com.programthis.order_cart_service.cache.CompletedOrderCache;
+import com.programthis.order_cart_service.client.CatalogFanOut;
+import com.programthis.order_cart_service.client.ProductCatalogServiceClient;
+import com.programthis.order_cart_service.config.OutboxConfig;
+import com.programthis.order_cart_service.config.ShardingConfig;
+import com.programthis.order_cart_service.dto.ProductDto;
+import com.programthis.order_cart_service.model.CartItem;
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.OrderItem;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.CartItemRepository;
+import com.programthis.order_cart_service.repository.DailySalesRollupRepository;
+import com.programthis.order_cart_service.repository.OrderOutboxRepository;
+import com.programthis.order_cart_service.repository.OrderRepository;
+import com.programthis.order_cart_service.repository.ProductSalesRollupRepository;
+import com.programthis.order_cart_service.replica.ReadYourWrites;
+import com.programthis.order_cart_service.repository.ShoppingCartRepository;
+import com.programthis.order_cart_service.sharding.ShardExecutor;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// Guardia de regresión por número de sentencias SQL: cada operación de ShoppingCartService / OrderService contra H2
+// (modo MySQL) con el DataSource envuelto por datasource-proxy, que cuenta SELECT/INSERT/UPDATE/DELETE por hilo.
+// Los límites no dependen del tamaño del carrito salvo donde el trabajo es inherentemente por línea (INSERT de las
+// líneas del pedido y de los acumulados por producto), así que una carga perezosa por línea (N+1), un save redundante
+// o un borrado fila a fila hacen fallar el test.
+// Sin transacción de test: cada llamada al servicio hace commit, y las sentencias del flush final también cuentan.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ShoppingCartService.class, OrderService.class, SalesRollupService.class, CompletedOrderCache.class,
+        CatalogFanOut.class, ShardingConfig.class, ShardExecutor.class, ReadYourWrites.class, EventSourcedCartStore.class,
+        OrderOutboxService.class, OutboxConfig.class, SqlStatementCountTest.StatementCounting.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SqlStatementCountTest {
+
+    private static final long USER_ID = 1L;
+    private static final int CART_LINES = 10;
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource).name(beanName).countQuery().build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @MockBean
+    private ProductCatalogServiceClient productCatalogServiceClient;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+    @Autowired
+    private ProductSalesRollupRepository productSalesRollupRepository;
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(productCatalogServiceClient.getProductById(anyLong())).thenAnswer(invocation -> {
+            Long productId = invocation.getArgument(0);
+            return Optional.of(new ProductDto(productId, "Producto " + productId, null, new BigDecimal("10.00"), 100));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartItemRepository.deleteAllInBatch();
+        shoppingCartRepository.deleteAllInBatch();
+        orderRepository.findAll().forEach(orderRepository::delete);
+        dailySalesRollupRepository.deleteAllInBatch();
+        productSalesRollupRepository.deleteAllInBatch();
+        orderOutboxRepository.deleteAllInBatch();
+    }
+
+    // Carrito de USER_ID (u otro usuario) con "lines" líneas, productos 1..lines
+    private ShoppingCart cartWithLines(long userId, int lines) {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUserId(userId);
+        cart = shoppingCartRepository.save(cart);
+        List<CartItem> items = new ArrayList<>();
+        for (long productId = 1; productId <= lines; productId++) {
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProductId(productId);
+            item.setQuantity(1);
+            item.setPriceAtAddition(new BigDecimal("10.00"));
+            items.add(item);
+        }
+        cartItemRepository.saveAll(items);
+        return cart;
+    }
+
+    private Order orderWithLines(int lines) {
+        Order order = new Order();
+        order.setUserId(USER_ID);
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus("PENDING");
+        order.setTotalAmount(new BigDecimal("10.00").multiply(BigDecimal.valueOf(lines)));
+        for (long productId = 1; productId <= lines; productId++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(productId);
+            item.setProductName("Producto " + productId);
+            item.setQuantity(1);
+            item.setUnitPrice(new BigDecimal("10.00"));
+            item.setSubtotal(new BigDecimal("10.00"));
+            order.addOrderItem(item);
+        }
+        return orderRepository.save(order);
+    }
+
+    private static QueryCount count(Runnable operation) {
+        QueryCountHolder.clear();
+        operation.run();
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        QueryCountHolder.clear();
+        return count;
+    }
+
+    private static void assertStatements(QueryCount count, int maxSelects, int maxInserts, int maxUpdates, int maxDeletes) {
+        String actual = "select=" + count.getSelect() + " insert=" + count.getInsert() + " update=" + count.getUpdate()
+                + " delete=" + count.getDelete() + " other=" + count.getOther();
+        assertAll(actual,
+                () -> assertTrue(count.getSelect() <= maxSelects, "SELECT: como mucho " + maxSelects + ", " + actual),
+                () -> assertTrue(count.getInsert() <= maxInserts, "INSERT: como mucho " + maxInserts + ", " + actual),
+                () -> assertTrue(count.getUpdate() <= maxUpdates, "UPDATE: como mucho " + maxUpdates + ", " + actual),
+                () -> assertTrue(count.getDelete() <= maxDeletes, "DELETE: como mucho " + maxDeletes + ", " + actual),
+                () -> assertEquals(0, count.getOther(), actual));
+    }
+
+    // --- ShoppingCartService ---
+
+    @Test
+    void getOrCreateShoppingCart_ExistingCart_ShouldOnlySelectTheCart() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        assertStatements(count(() -> shoppingCartService.getOrCreateShoppingCart(USER_ID)), 1, 0, 0, 0);
+    }
+
+    @Test
+    void findShoppingCart_ShouldSelectTheCartAndItsLinesWithoutWriting() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        assertStatements(count(() -> shoppingCartService.findShoppingCart(USER_ID)), 2, 0, 0, 0);
+    }
+
+    @Test
+    void addProductToCart_ExistingProduct_ShouldNotDependOnCartSize() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        // carrito + líneas (una consulta por lotes); UPDATE de la línea y de la versión del carrito
+        assertStatements(count(() -> shoppingCartService.addProductToCart(USER_ID, 1L, 2)), 2, 0, 2, 0);
+    }
+
+    @Test
+    void addProductToCart_NewProduct_ShouldInsertOnlyTheNewLine() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        assertStatements(count(() -> shoppingCartService.addProductToCart(USER_ID, 999L, 1)), 2, 1, 1, 0);
+    }
+
+    @Test
+    void updateProductQuantityInCart_ShouldNotDependOnCartSize() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        assertStatements(count(() -> shoppingCartService.updateProductQuantityInCart(USER_ID, 1L, 5)), 2, 0, 2, 0);
+    }
+
+    @Test
+    void removeProductFromCart_ShouldDeleteOnlyThatLine() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        assertStatements(count(() -> shoppingCartService.removeProductFromCart(USER_ID, 1L)), 2, 0, 1, 1);
+    }
+
+    @Test
+    void clearCart_ShouldDeleteAllLinesWithOneStatement() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        assertStatements(count(() -> shoppingCartService.clearCart(USER_ID)), 1, 0, 1, 1);
+        assertTrue(cartItemRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void clearCart_WithLinesAlreadyLoaded_ShouldReturnAnEmptyCartWithoutDeletingLineByLine() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        // Como en el checkout: las líneas se cargan en la misma transacción antes de vaciar el carrito
+        List<Integer> linesAfterClear = new ArrayList<>();
+        QueryCount count = count(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(CART_LINES, shoppingCartService.getOrCreateShoppingCart(USER_ID).getItems().size());
+            linesAfterClear.add(shoppingCartService.clearCart(USER_ID).getItems().size());
+        }));
+
+        // SELECT: carrito + líneas, el carrito al vaciarlo, su relectura y sus líneas (ya ninguna);
+        // las líneas se borran con un único DELETE
+        assertStatements(count, 5, 0, 1, 1);
+        assertEquals(List.of(0), linesAfterClear);
+        assertTrue(cartItemRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void getCartsByUserIds_ShouldLoadCartsAndLinesInTwoQueries() {
+        List<Long> userIds = new ArrayList<>();
+        for (long userId = 1; userId <= 5; userId++) {
+            cartWithLines(userId, 3);
+            userIds.add(userId);
+        }
+
+        assertStatements(count(() -> shoppingCartService.getCartsByUserIds(userIds)), 2, 0, 0, 0);
+    }
+
+    // --- OrderService ---
+
+    @Test
+    void createOrderFromCart_ShouldOnlyScaleInsertsWithLines() {
+        cartWithLines(USER_ID, CART_LINES);
+
+        QueryCount count = count(() -> orderService.createOrderFromCart(USER_ID, "Calle Falsa 123", "CARD"));
+
+        // SELECT: carrito + líneas, el carrito otra vez al vaciarlo y su relectura sin las líneas borradas.
+        // INSERT: pedido + una por línea, acumulado diario + uno por producto, evento del outbox.
+        // UPDATE: versión del carrito. DELETE: vaciado del carrito en bloque
+        assertStatements(count, 4, 3 + 2 * CART_LINES, 1, 1);
+        assertTrue(cartItemRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void getOrderById_ShouldSelectTheOrderAndItsLinesOnce() {
+        Long orderId = orderWithLines(CART_LINES).getId();
+
+        // Las líneas se cargan dentro de la transacción de sólo lectura (una consulta), no después
+        assertStatements(count(() -> orderService.getOrderById(orderId)), 2, 0, 0, 0);
+    }
+
+    @Test
+    void getOrdersByUserId_ShouldLoadOrdersAndLinesInTwoQueries() {
+        for (int i = 0; i < 5; i++) {
+            orderWithLines(3);
+        }
+
+        assertStatements(count(() -> orderService.getOrdersByUserId(USER_ID)), 2, 0, 0, 0);
+    }
+
+    @Test
+    void getOrdersByIds_ShouldLoadOrdersAndLinesInTwoQueries() {
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(orderWithLines(3).getId());
+        }
+
+        assertStatements(count(() -> orderService.getOrdersByIds(orderIds)), 2, 0, 0, 0);
+    }
+
+    @Test
+    void updateOrderStatus_ShouldSelectAndUpdateOnlyTheOrder() {
+        Long orderId = orderWithLines(CART_LINES).getId();
+
+        // INSERT: el evento del outbox
+        assertStatements(count(() -> orderService.updateOrderStatus(orderId, "PAID")), 1, 1, 1, 0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.programthis.order_cart_service.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    @Test
+    void single_ShouldRouteEverythingToShardZero() {
+        ShardRouter router = ShardRouter.single();
+
+        assertFalse(router.isSharded());
+        assertEquals(0, router.shardForUser(12345L));
+        assertEquals(0, router.shardForOrder(12345L));
+    }
+
+    @Test
+    void shardForUser_ShouldBeStableAndSpreadUsers() {
+        ShardRouter router = new ShardRouter(4, 128, 0);
+        int[] usersPerShard = new int[4];
+        for (long userId = 1; userId <= 10_000; userId++) {
+            int shard = router.shardForUser(userId);
+            assertEquals(shard, router.shardForUser(userId));
+            usersPerShard[shard]++;
+        }
+        for (int users : usersPerShard) {
+            assertTrue(users > 1_500 && users < 3_500, "Reparto desigual: " + Arrays.toString(usersPerShard));
+        }
+    }
+
+    @Test
+    void addingAShard_ShouldOnlyMoveAFractionOfUsers() {
+        ShardRouter before = new ShardRouter(4, 128, 0);
+        ShardRouter after = new ShardRouter(5, 128, 0);
+        int moved = 0;
+        for (long userId = 1; userId <= 10_000; userId++) {
+            int shard = after.shardForUser(userId);
+            if (shard != before.shardForUser(userId)) {
+                // Sólo hacia el shard nuevo
+                assertEquals(4, shard);
+                moved++;
+            }
+        }
+        assertTrue(moved < 3_000, "Usuarios movidos: " + moved);
+    }
+
+    @Test
+    void shardForOrder_ShouldDecodeTheAutoIncrementOffset() {
+        ShardRouter router = new ShardRouter(3, 16, 1_000);
+
+        // auto_increment_offset = shard + 1, auto_increment_increment = ORDER_ID_STRIDE
+        assertEquals(0, router.shardForOrder(1 + ShardRouter.ORDER_ID_STRIDE * 100L));
+        assertEquals(1, router.shardForOrder(2 + ShardRouter.ORDER_ID_STRIDE * 100L));
+        assertEquals(2, router.shardForOrder(3 + ShardRouter.ORDER_ID_STRIDE * 100L));
+    }
+
+    @Test
+    void shardForOrder_LegacyIdsAndUnknownShards_ShouldGoToShardZero() {
+        ShardRouter router = new ShardRouter(3, 16, 1_000);
+
+        assertEquals(0, router.shardForOrder(999L));
+        assertEquals(0, router.shardForOrder(5 + ShardRouter.ORDER_ID_STRIDE * 100L));
+    }
+
+    @Test
+    void hasLegacyOrdersElsewhere_ShouldOnlyHoldForUsersOutsideShardZero() {
+        ShardRouter router = new ShardRouter(3, 16, 1_000);
+        long userOnShardZero = 1;
+        while (router.shardForUser(userOnShardZero) != 0) {
+            userOnShardZero++;
+        }
+        long userElsewhere = 1;
+        while (router.shardForUser(userElsewhere) == 0) {
+            userElsewhere++;
+        }
+
+        assertFalse(router.hasLegacyOrdersElsewhere(userOnShardZero));
+        assertTrue(router.hasLegacyOrdersElsewhere(userElsewhere));
+        assertFalse(new ShardRouter(3, 16, 0).hasLegacyOrdersElsewhere(userElsewhere));
+        assertFalse(ShardRouter.single().hasLegacyOrdersElsewhere(userElsewhere));
+    }
+
+    @Test
+    void constructor_TooManyShards_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(ShardRouter.ORDER_ID_STRIDE + 1, 16, 0));
+    }
+}
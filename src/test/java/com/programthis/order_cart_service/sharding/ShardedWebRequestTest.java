@@ -0,0 +1,156 @@
+package com.programthis.order_cart_service.sharding;
+
+import com.programthis.order_cart_service.model.Order;
+import com.programthis.order_cart_service.model.ShoppingCart;
+import com.programthis.order_cart_service.repository.OrderRepository;
+import com.programthis.order_cart_service.repository.ShoppingCartRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sharding con dos bases de datos H2 a través de peticiones web completas (con open-in-view): las consultas de varios
+// usuarios o pedidos tienen que llegar a cada shard aunque la petición ya haya usado otro, y el historial de un
+// usuario incluye sus pedidos anteriores al sharding, que siguen en el shard 0.
+// Hibernate crea el esquema en el shard 0 al arrancar; se copia al 1 y se fijan los IDs de pedido de cada shard
+// (incremento 16, desplazamiento shard + 1) como harían las variables de sesión de MySQL.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "sharding.enabled=true",
+        "sharding.urls=jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "sharding.session-auto-increment=false",
+        "sharding.legacy-max-order-id=1",
+        "orders.archive.enabled=false",
+        "orders.outbox.enabled=false"
+})
+@AutoConfigureMockMvc
+class ShardedWebRequestTest {
+
+    private static boolean schemaCopied;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+    @Autowired
+    private ShardExecutor shardExecutor;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private long userOnShard0;
+    private long userOnShard1;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        if (!schemaCopied) {
+            copySchema(dataSource.shards().get(0), dataSource.shards().get(1));
+            for (int shard = 0; shard < 2; shard++) {
+                try (Connection connection = dataSource.shards().get(shard).getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("ALTER TABLE orders ALTER COLUMN id SET INCREMENT BY " + ShardRouter.ORDER_ID_STRIDE);
+                    statement.execute("ALTER TABLE orders ALTER COLUMN id RESTART WITH " + (shard + 1));
+                }
+            }
+            schemaCopied = true;
+        }
+        userOnShard0 = userOn(0);
+        userOnShard1 = userOn(1);
+    }
+
+    private static void copySchema(HikariDataSource from, HikariDataSource to) throws SQLException {
+        List<String> ddl = new ArrayList<>();
+        try (Connection connection = from.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet script = statement.executeQuery("SCRIPT NODATA")) {
+            while (script.next()) {
+                ddl.add(script.getString(1));
+            }
+        }
+        try (Connection connection = to.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private long userOn(int shard) {
+        long userId = 1;
+        while (shardExecutor.router().shardForUser(userId) != shard) {
+            userId++;
+        }
+        return userId;
+    }
+
+    private ShoppingCart cart(int shard, long userId) {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUserId(userId);
+        return shardExecutor.onShard(shard, () -> shoppingCartRepository.save(cart));
+    }
+
+    private Order order(int shard, long userId) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setStatus("PENDING");
+        order.setOrderDate(LocalDateTime.now());
+        order.setTotalAmount(new BigDecimal("10.00"));
+        return shardExecutor.onShard(shard, () -> orderRepository.save(order));
+    }
+
+    @Test
+    void batchReads_ShouldReachEveryShardWithinOneRequest() throws Exception {
+        cart(0, userOnShard0);
+        cart(1, userOnShard1);
+        // El 1 es anterior al sharding (legacy-max-order-id=1); después, cada shard numera los suyos
+        Order legacy = order(0, userOnShard1);
+        Order onShard0 = order(0, userOnShard0);
+        Order onShard1 = order(1, userOnShard1);
+        assertEquals(1L, legacy.getId());
+        assertEquals(0, shardExecutor.router().shardForOrder(onShard0.getId()));
+        assertEquals(1, shardExecutor.router().shardForOrder(onShard1.getId()));
+
+        mockMvc.perform(get("/api/carts").param("userIds", userOnShard0 + "," + userOnShard1).accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.shoppingCartResponseList[*].userId")
+                        .value(containsInAnyOrder((int) userOnShard0, (int) userOnShard1)));
+
+        mockMvc.perform(get("/api/orders").param("ids", onShard0.getId() + "," + onShard1.getId() + "," + legacy.getId())
+                        .accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.orderResponseList", hasSize(3)));
+
+        mockMvc.perform(get("/api/orders/user/{userId}", userOnShard1).accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.orderResponseList[*].id")
+                        .value(containsInAnyOrder(legacy.getId().intValue(), onShard1.getId().intValue())));
+    }
+}
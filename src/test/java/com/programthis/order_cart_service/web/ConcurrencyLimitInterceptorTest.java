@@ -0,0 +1,110 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.cache.CompletedOrderCache;
+import com.programthis.order_cart_service.controller.OrderController;
+import com.programthis.order_cart_service.controller.ShoppingCartController;
+import com.programthis.order_cart_service.service.OrderService;
+import com.programthis.order_cart_service.service.ShoppingCartService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AimdConcurrencyLimit reads;
+    private AimdConcurrencyLimit writes;
+    private AimdConcurrencyLimit checkout;
+    private ConcurrencyLimitInterceptor interceptor;
+    private HandlerMethod cartReadHandler;
+    private HandlerMethod cartWriteHandler;
+    private HandlerMethod checkoutHandler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        meterRegistry = new SimpleMeterRegistry();
+        reads = new AimdConcurrencyLimit("reads", 2, 1, 4, 0.5, Duration.ofSeconds(1));
+        writes = new AimdConcurrencyLimit("writes", 1, 1, 4, 0.5, Duration.ofSeconds(1));
+        checkout = new AimdConcurrencyLimit("checkout", 1, 1, 4, 0.5, Duration.ofSeconds(1));
+        interceptor = new ConcurrencyLimitInterceptor(meterRegistry, reads, writes, checkout, 2);
+
+        ShoppingCartController cartController = new ShoppingCartController(mock(ShoppingCartService.class));
+        cartReadHandler = new HandlerMethod(cartController, ShoppingCartController.class.getMethod("getOrCreateCart", Long.class));
+        cartWriteHandler = new HandlerMethod(cartController, ShoppingCartController.class.getMethod("clearCart", Long.class, String.class, String.class));
+        checkoutHandler = new HandlerMethod(new OrderController(mock(OrderService.class), mock(CompletedOrderCache.class)),
+                OrderController.class.getMethod("createOrderFromCart", Long.class, OrderController.OrderCreationRequest.class));
+    }
+
+    @Test
+    void preHandle_LimitReached_ShouldShedWithServiceUnavailable() {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/orders/1/createFromCart"),
+                new MockHttpServletResponse(), checkoutHandler));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/orders/2/createFromCart"),
+                rejected, checkoutHandler));
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("http.concurrency.rejected").tag("limiter", "checkout").functionCounter().count());
+    }
+
+    @Test
+    void preHandle_ReadsAndWritesUseSeparateLimits() {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("DELETE", "/api/carts/1/clear"),
+                new MockHttpServletResponse(), cartWriteHandler));
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("DELETE", "/api/carts/2/clear"),
+                new MockHttpServletResponse(), cartWriteHandler));
+
+        // Las modificaciones están saturadas, pero las lecturas siguen entrando
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/carts/1"),
+                new MockHttpServletResponse(), cartReadHandler));
+        assertEquals(1, reads.getInFlight());
+        assertEquals(1, writes.getInFlight());
+    }
+
+    @Test
+    void afterCompletion_ServerError_ShouldReleaseSlotAndBackOff() {
+        reads = new AimdConcurrencyLimit("reads", 4, 1, 4, 0.5, Duration.ofSeconds(1));
+        interceptor = new ConcurrencyLimitInterceptor(new SimpleMeterRegistry(), reads, writes, checkout, 1);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, cartReadHandler));
+
+        response.setStatus(500);
+        interceptor.afterCompletion(request, response, cartReadHandler, null);
+
+        assertEquals(0, reads.getInFlight());
+        assertEquals(2, reads.getLimit());
+    }
+
+    @Test
+    void limit_FastResponsesNearTheLimit_ShouldIncreaseUpToMax() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit("test", 2, 1, 3, 0.5, Duration.ofSeconds(1));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.onSuccess(Duration.ofMillis(10).toNanos());
+        }
+        assertEquals(3, limit.getLimit());
+
+        assertTrue(limit.tryAcquire());
+        limit.onSuccess(Duration.ofSeconds(2).toNanos());
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    void preHandle_OtherHandlers_ShouldNotBeLimited() {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/analytics/sales/daily"),
+                new MockHttpServletResponse(), new Object()));
+        assertEquals(0, reads.getInFlight());
+    }
+}
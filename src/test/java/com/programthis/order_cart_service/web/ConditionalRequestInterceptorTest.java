@@ -0,0 +1,118 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.cache.CompletedOrderCache;
+import com.programthis.order_cart_service.controller.OrderController;
+import com.programthis.order_cart_service.controller.ShoppingCartController;
+import com.programthis.order_cart_service.service.OrderService;
+import com.programthis.order_cart_service.service.ShoppingCartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConditionalRequestInterceptorTest {
+
+    private ShoppingCartService shoppingCartService;
+    private OrderService orderService;
+    private ConditionalRequestInterceptor interceptor;
+    private HandlerMethod cartHandler;
+    private HandlerMethod orderHandler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        shoppingCartService = mock(ShoppingCartService.class);
+        orderService = mock(OrderService.class);
+        interceptor = new ConditionalRequestInterceptor(shoppingCartService, orderService);
+        cartHandler = new HandlerMethod(new ShoppingCartController(shoppingCartService),
+                ShoppingCartController.class.getMethod("getOrCreateCart", Long.class));
+        orderHandler = new HandlerMethod(new OrderController(orderService, mock(CompletedOrderCache.class)),
+                OrderController.class.getMethod("getOrderById", Long.class));
+    }
+
+    private static MockHttpServletRequest request(String method, String variable, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/test");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of(variable, value));
+        return request;
+    }
+
+    @Test
+    void get_IfNoneMatchCurrentVersion_ShouldReturnNotModified() {
+        when(shoppingCartService.getCartVersion(7L)).thenReturn(Optional.of(3L));
+        MockHttpServletRequest request = request("GET", "userId", "7");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, cartHandler));
+        assertEquals(304, response.getStatus());
+        assertEquals("\"3\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT, response.getHeader(HttpHeaders.VARY));
+        verify(shoppingCartService, never()).getOrCreateShoppingCart(anyLong());
+    }
+
+    @Test
+    void get_IfNoneMatchStaleVersion_ShouldContinue() {
+        when(orderService.getOrderVersion(1L)).thenReturn(Optional.of(5L));
+        MockHttpServletRequest request = request("GET", "orderId", "1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"4\"");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), orderHandler));
+    }
+
+    @Test
+    void get_WithoutConditionalHeader_ShouldNotQueryVersion() {
+        assertTrue(interceptor.preHandle(request("GET", "orderId", "1"), new MockHttpServletResponse(), orderHandler));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void write_IfMatchStaleVersion_ShouldReturnPreconditionFailed() {
+        when(shoppingCartService.getCartVersion(7L)).thenReturn(Optional.of(3L));
+        MockHttpServletRequest request = request("POST", "userId", "7");
+        request.addHeader(HttpHeaders.IF_MATCH, "\"2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, cartHandler));
+        assertEquals(412, response.getStatus());
+        assertEquals("\"3\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void write_IfMatchWeakETag_ShouldReturnPreconditionFailed() {
+        when(orderService.getOrderVersion(1L)).thenReturn(Optional.of(3L));
+        MockHttpServletRequest request = request("PUT", "orderId", "1");
+        request.addHeader(HttpHeaders.IF_MATCH, "W/\"3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, orderHandler));
+        assertEquals(412, response.getStatus());
+    }
+
+    @Test
+    void write_IfMatchCurrentVersion_ShouldContinue() {
+        when(orderService.getOrderVersion(1L)).thenReturn(Optional.of(3L));
+        MockHttpServletRequest request = request("PUT", "orderId", "1");
+        request.addHeader(HttpHeaders.IF_MATCH, "\"1\", \"3\"");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), orderHandler));
+    }
+
+    @Test
+    void write_IfMatchMissingResource_ShouldReturnPreconditionFailed() {
+        when(orderService.getOrderVersion(9L)).thenReturn(Optional.empty());
+        MockHttpServletRequest request = request("DELETE", "orderId", "9");
+        request.addHeader(HttpHeaders.IF_MATCH, "*");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, orderHandler));
+        assertEquals(412, response.getStatus());
+    }
+}
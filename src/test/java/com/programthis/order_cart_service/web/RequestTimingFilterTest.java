@@ -0,0 +1,103 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.client.CatalogFanOut;
+import com.programthis.order_cart_service.metrics.RequestTimings;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingFilterTest {
+
+    private final RequestTimingFilter filter = new RequestTimingFilter();
+    private final CatalogFanOut catalogFanOut = new CatalogFanOut(Executors.newSingleThreadExecutor(), 4);
+
+    @AfterEach
+    void tearDown() {
+        catalogFanOut.close();
+    }
+
+    // Simula un checkout: dos sentencias en el hilo de la petición y una llamada al catálogo en otro hilo
+    private final HttpServlet checkout = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            RequestTimings timings = RequestTimings.current();
+            timings.recordConnectionAcquisition(TimeUnit.MILLISECONDS.toNanos(1));
+            timings.recordStatement(TimeUnit.MILLISECONDS.toNanos(3));
+            timings.recordStatement(TimeUnit.MILLISECONDS.toNanos(2));
+            catalogFanOut.submit(() -> {
+                RequestTimings.current().recordCatalogCall(TimeUnit.MILLISECONDS.toNanos(20));
+                return null;
+            }).join();
+            response.getWriter().write("{}");
+        }
+    };
+
+    @Test
+    void doFilter_ApiRequest_ShouldSendServerTimingBeforeTheBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/orders/1/createFromCart"), response, new MockFilterChain(checkout));
+
+        String serverTiming = response.getHeader(RequestTimingFilter.SERVER_TIMING);
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.startsWith("db;dur=5.0;desc=\"2 statements\""), serverTiming);
+        assertTrue(serverTiming.contains("db-wait;dur=1.0"), serverTiming);
+        assertTrue(serverTiming.contains("catalog;dur=20.0;desc=\"1 calls\""), serverTiming);
+        assertNull(RequestTimings.current());
+    }
+
+    @Test
+    void doFilter_NotModifiedWithoutBody_ShouldStillSendServerTiming() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/carts/1"), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                RequestTimings.current().recordStatement(TimeUnit.MILLISECONDS.toNanos(4));
+            }
+        }));
+
+        assertEquals(304, response.getStatus());
+        String serverTiming = response.getHeader(RequestTimingFilter.SERVER_TIMING);
+        assertNotNull(serverTiming);
+        // Con los tiempos del final de la petición, no con los del momento del setStatus
+        assertTrue(serverTiming.startsWith("db;dur=4.0;desc=\"1 statements\""), serverTiming);
+    }
+
+    @Test
+    void doFilter_ApiRequestUnderContextPath_ShouldTrack() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/shop/api/orders/1");
+        request.setContextPath("/shop");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(checkout));
+
+        assertNotNull(response.getHeader(RequestTimingFilter.SERVER_TIMING));
+    }
+
+    @Test
+    void doFilter_NonApiRequest_ShouldNotTrack() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                assertNull(RequestTimings.current());
+            }
+        }));
+
+        assertNull(response.getHeader(RequestTimingFilter.SERVER_TIMING));
+    }
+}
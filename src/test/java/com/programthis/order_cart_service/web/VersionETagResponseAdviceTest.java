@@ -0,0 +1,89 @@
+package com.programthis.order_cart_service.web;
+
+import com.programthis.order_cart_service.dto.OrderResponse;
+import com.programthis.order_cart_service.model.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionETagResponseAdviceTest {
+
+    private final VersionETagResponseAdvice advice = new VersionETagResponseAdvice();
+
+    private static Order order(Long version) {
+        Order order = new Order();
+        order.setId(1L);
+        order.setUserId(2L);
+        order.setStatus("DELIVERED");
+        order.setVersion(version);
+        return order;
+    }
+
+    private MockHttpServletResponse write(Object body, MockHttpServletResponse servletResponse) throws IOException {
+        return write(body, new ServletServerHttpResponse(servletResponse), servletResponse);
+    }
+
+    private MockHttpServletResponse write(Object body, ServletServerHttpResponse response,
+                                          MockHttpServletResponse servletResponse) throws IOException {
+        advice.beforeBodyWrite(body, null, MediaTypes.HAL_JSON, null,
+                new ServletServerHttpRequest(new MockHttpServletRequest()), response);
+        response.flush();
+        return servletResponse;
+    }
+
+    @Test
+    void versionedBody_ShouldSetETagAndVaryOnAccept() throws IOException {
+        MockHttpServletResponse response = write(EntityModel.of(OrderResponse.from(order(4L))), new MockHttpServletResponse());
+
+        assertEquals("\"4\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders(HttpHeaders.VARY));
+    }
+
+    @Test
+    void existingVary_ShouldBeKept() throws IOException {
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+
+        MockHttpServletResponse response = write(EntityModel.of(OrderResponse.from(order(4L))), servletResponse);
+
+        assertTrue(response.getHeaders(HttpHeaders.VARY).containsAll(List.of(HttpHeaders.ORIGIN, HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    void readOnlyVaryFromResponseEntity_ShouldBeMerged() throws IOException {
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+        // Así copia HttpEntityMethodProcessor las cabeceras de un ResponseEntity.varyBy(...)
+        response.getHeaders().putAll(HttpHeaders.readOnlyHttpHeaders(headersWithVary("Prefer")));
+
+        write(EntityModel.of(OrderResponse.from(order(4L))), response, servletResponse);
+
+        List<String> vary = servletResponse.getHeaders(HttpHeaders.VARY);
+        assertEquals(2, vary.size());
+        assertTrue(vary.containsAll(List.of("Prefer", HttpHeaders.ACCEPT)));
+    }
+
+    private static HttpHeaders headersWithVary(String name) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setVary(List.of(name));
+        return headers;
+    }
+
+    @Test
+    void unversionedBody_ShouldNotAddHeaders() throws IOException {
+        MockHttpServletResponse response = write(EntityModel.of(OrderResponse.from(order(null))), new MockHttpServletResponse());
+
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+        assertNull(response.getHeader(HttpHeaders.VARY));
+    }
+}